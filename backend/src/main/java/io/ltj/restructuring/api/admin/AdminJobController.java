@@ -0,0 +1,35 @@
+package io.ltj.restructuring.api.admin;
+
+import io.ltj.restructuring.scheduling.JobLeaderDto;
+import io.ltj.restructuring.scheduling.JobLeadership;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/jobs")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminJobController {
+
+    private final JobLeadership jobLeadership;
+
+    public AdminJobController(JobLeadership jobLeadership) {
+        this.jobLeadership = jobLeadership;
+    }
+
+    // =========================
+    // WHO RUNS WHAT
+    // =========================
+    @GetMapping
+    public Map<String, Object> getJobs() {
+        List<JobLeaderDto> leaders = jobLeadership.leaders();
+        return Map.of(
+                "node", jobLeadership.nodeId(),
+                "jobs", leaders
+        );
+    }
+}
@@ -1,11 +1,25 @@
 package io.ltj.restructuring.api.admin;
 
 import io.ltj.restructuring.api.admin.dto.AdminUserDto;
+import io.ltj.restructuring.api.admin.dto.AdminUserSearchHitDto;
+import io.ltj.restructuring.application.auth.AuthUser;
+import io.ltj.restructuring.application.purge.UserPurgeDto;
+import io.ltj.restructuring.application.purge.UserPurgeService;
+import io.ltj.restructuring.application.user.UserExportService;
+import io.ltj.restructuring.application.user.UserSearchService;
+import io.ltj.restructuring.cache.CacheInvalidationBus;
+import io.ltj.restructuring.cache.CacheRegions;
 import io.ltj.restructuring.domain.user.UserEntity;
 import io.ltj.restructuring.domain.user.UserRepository;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -14,9 +28,23 @@ import java.util.List;
 public class AdminUserController {
 
     private final UserRepository userRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final UserExportService userExportService;
+    private final UserSearchService userSearchService;
+    private final UserPurgeService userPurgeService;
 
-    public AdminUserController(UserRepository userRepository) {
+    public AdminUserController(
+            UserRepository userRepository,
+            CacheInvalidationBus cacheInvalidationBus,
+            UserExportService userExportService,
+            UserSearchService userSearchService,
+            UserPurgeService userPurgeService
+    ) {
         this.userRepository = userRepository;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.userExportService = userExportService;
+        this.userSearchService = userSearchService;
+        this.userPurgeService = userPurgeService;
     }
 
     // =========================
@@ -30,6 +58,40 @@ public class AdminUserController {
                 .toList();
     }
 
+    // =========================
+    // SEARCH USERS (e-postprefiks / navn, typo-tolerant)
+    // =========================
+    @GetMapping("/search")
+    public List<AdminUserSearchHitDto> searchUsers(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return userSearchService.search(query, limit);
+    }
+
+    // =========================
+    // EXPORT USERS (streaming)
+    // =========================
+    @GetMapping("/export")
+    public void exportUsers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response
+    ) throws IOException {
+        switch (format.toLowerCase()) {
+            case "ndjson" -> {
+                response.setContentType("application/x-ndjson;charset=UTF-8");
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users.ndjson");
+                userExportService.exportNdjson(response.getOutputStream());
+            }
+            case "csv" -> {
+                response.setContentType("text/csv;charset=UTF-8");
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users.csv");
+                userExportService.exportCsv(response.getOutputStream());
+            }
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ukjent format: " + format);
+        }
+    }
+
     // =========================
     // GET SINGLE USER
     // =========================
@@ -51,6 +113,7 @@ public class AdminUserController {
 
         user.setRole("ADMIN");
         userRepository.save(user);
+        cacheInvalidationBus.invalidate(CacheRegions.USER, id);
     }
 
     // =========================
@@ -63,5 +126,25 @@ public class AdminUserController {
 
         user.setRole("USER");
         userRepository.save(user);
+        cacheInvalidationBus.invalidate(CacheRegions.USER, id);
+    }
+
+    // =========================
+    // PURGE USER (GDPR) — kjøres i bakgrunnen i små biter
+    // =========================
+    @PostMapping("/{id}/purge")
+    public ResponseEntity<UserPurgeDto> purgeUser(@PathVariable Long id, @AuthUser Long adminId) {
+        if (id.equals(adminId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Kan ikke slette egen bruker");
+        }
+        UserPurgeDto purge = userPurgeService.request(id, adminId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found: " + id));
+        return ResponseEntity.accepted().body(purge);
+    }
+
+    @GetMapping("/{id}/purge")
+    public UserPurgeDto getPurge(@PathVariable Long id) {
+        return userPurgeService.find(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No purge for user: " + id));
     }
 }
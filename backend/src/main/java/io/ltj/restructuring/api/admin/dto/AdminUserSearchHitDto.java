@@ -0,0 +1,11 @@
+package io.ltj.restructuring.api.admin.dto;
+
+public record AdminUserSearchHitDto(
+        Long id,
+        String email,
+        String firstName,
+        String lastName,
+        String role,
+        double score
+) {
+}
@@ -5,9 +5,13 @@ import io.ltj.restructuring.api.dto.auth.LoginResponseDto;
 import io.ltj.restructuring.api.dto.auth.RegisterRequestDto;
 import io.ltj.restructuring.api.dto.auth.RegisterResponseDto;
 import io.ltj.restructuring.application.auth.AuthService;
+import io.ltj.restructuring.application.auth.InvalidLoginException;
+import io.ltj.restructuring.security.LoginThrottle;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -21,21 +25,42 @@ public class AuthController {
     private static final Logger log = LoggerFactory.getLogger(AuthController.class);
 
     private final AuthService authService;
+    private final LoginThrottle loginThrottle;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, ObjectProvider<LoginThrottle> loginThrottle) {
         this.authService = authService;
+        this.loginThrottle = loginThrottle.getIfAvailable();
     }
 
     // --------------------------------------------------------------
     // 🔐 LOGIN
     // --------------------------------------------------------------
     @PostMapping("/login")
-    public ResponseEntity<LoginResponseDto> login(@Valid @RequestBody LoginRequestDto request) {
+    public ResponseEntity<LoginResponseDto> login(
+            @Valid @RequestBody LoginRequestDto request,
+            HttpServletRequest httpRequest
+    ) {
         log.atDebug()
                 .addKeyValue("email", request.email())
                 .log("Received login request");
 
-        LoginResponseDto response = authService.login(request);
+        // Strupes før BCrypt: et avvist forsøk koster et oppslag, ikke en hash
+        if (loginThrottle != null) {
+            loginThrottle.acquire(request.email(), loginThrottle.clientIp(httpRequest));
+        }
+
+        LoginResponseDto response;
+        try {
+            response = authService.login(request);
+        } catch (InvalidLoginException ex) {
+            if (loginThrottle != null) {
+                loginThrottle.recordFailure(request.email());
+            }
+            throw ex;
+        }
+        if (loginThrottle != null) {
+            loginThrottle.recordSuccess(request.email());
+        }
         return ResponseEntity.ok(response);
     }
 
@@ -43,11 +68,18 @@ public class AuthController {
     // 🆕 REGISTER
     // --------------------------------------------------------------
     @PostMapping("/register")
-    public ResponseEntity<RegisterResponseDto> register(@Valid @RequestBody RegisterRequestDto request) {
+    public ResponseEntity<RegisterResponseDto> register(
+            @Valid @RequestBody RegisterRequestDto request,
+            HttpServletRequest httpRequest
+    ) {
         log.atDebug()
                 .addKeyValue("email", request.email())
                 .log("Attempting to register user");
 
+        if (loginThrottle != null) {
+            loginThrottle.acquireForIp(loginThrottle.clientIp(httpRequest));
+        }
+
         RegisterResponseDto response = authService.register(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
@@ -4,6 +4,8 @@ import io.ltj.restructuring.api.dto.user.UserResponseDto;
 import io.ltj.restructuring.api.dto.user.UserUpdateRequestDto;
 import io.ltj.restructuring.application.exception.ResourceNotFoundException;
 import io.ltj.restructuring.application.user.UserApplicationService;
+import io.ltj.restructuring.cache.CacheRegions;
+import io.ltj.restructuring.resilience.StaleResponseCache;
 import io.ltj.restructuring.security.JwtUserDetails;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -23,9 +25,14 @@ public class UserController {
     private static final Logger log = LoggerFactory.getLogger(UserController.class);
 
     private final UserApplicationService userApplicationService;
+    private final StaleResponseCache staleResponseCache;
 
-    public UserController(UserApplicationService userApplicationService) {
+    public UserController(
+            UserApplicationService userApplicationService,
+            StaleResponseCache staleResponseCache
+    ) {
         this.userApplicationService = userApplicationService;
+        this.staleResponseCache = staleResponseCache;
     }
 
     @GetMapping("/me")
@@ -38,9 +45,9 @@ public class UserController {
 
         Long userId = principal.getId();
 
-        return userApplicationService.findById(userId)
+        return staleResponseCache.serve(CacheRegions.USER, userId, () -> userApplicationService.findById(userId)
                 .map(ResponseEntity::ok)
-                .orElseThrow(() -> new ResourceNotFoundException("User", userId));
+                .orElseThrow(() -> new ResourceNotFoundException("User", userId)));
     }
 
     @GetMapping("/{id}")
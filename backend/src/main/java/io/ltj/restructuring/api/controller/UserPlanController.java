@@ -3,6 +3,8 @@ package io.ltj.restructuring.api.controller;
 import io.ltj.restructuring.api.dto.plan.UserPlanDto;
 import io.ltj.restructuring.api.dto.plan.UserPlanUpdateRequestDto;
 import io.ltj.restructuring.application.plan.UserPlanApplicationService;
+import io.ltj.restructuring.cache.CacheRegions;
+import io.ltj.restructuring.resilience.StaleResponseCache;
 import io.ltj.restructuring.security.JwtUserDetails;
 import java.util.Optional;
 import org.springframework.http.HttpStatus;
@@ -22,9 +24,14 @@ import org.springframework.web.server.ResponseStatusException;
 public class UserPlanController {
 
     private final UserPlanApplicationService userPlanApplicationService;
+    private final StaleResponseCache staleResponseCache;
 
-    public UserPlanController(UserPlanApplicationService userPlanApplicationService) {
+    public UserPlanController(
+            UserPlanApplicationService userPlanApplicationService,
+            StaleResponseCache staleResponseCache
+    ) {
         this.userPlanApplicationService = userPlanApplicationService;
+        this.staleResponseCache = staleResponseCache;
     }
 
     @GetMapping("/me")
@@ -33,8 +40,10 @@ public class UserPlanController {
             return ResponseEntity.noContent().build();
         }
 
-        Optional<UserPlanDto> result = userPlanApplicationService.getPlanForUser(principal.getId());
-        return result.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.noContent().build());
+        return staleResponseCache.serve(CacheRegions.PLAN, principal.getId(), () -> {
+            Optional<UserPlanDto> result = userPlanApplicationService.getPlanForUser(principal.getId());
+            return result.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.noContent().build());
+        });
     }
 
     @PutMapping("/me")
@@ -8,6 +8,8 @@ import io.ltj.restructuring.api.dto.insurance.UserInsuranceDtos.UserInsuranceRes
 import io.ltj.restructuring.application.insurance.InsuranceApplicationService;
 import io.ltj.restructuring.application.insurance.InsuranceCatalogService;
 import io.ltj.restructuring.application.insurance.UserInsuranceProfileService;
+import io.ltj.restructuring.cache.CacheRegions;
+import io.ltj.restructuring.resilience.StaleResponseCache;
 import io.ltj.restructuring.security.JwtUserDetails;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,15 +36,18 @@ public class InsuranceController {
     private final InsuranceApplicationService insuranceApplicationService;
     private final InsuranceCatalogService insuranceCatalogService;
     private final UserInsuranceProfileService userInsuranceProfileService;
+    private final StaleResponseCache staleResponseCache;
 
     public InsuranceController(
             InsuranceApplicationService insuranceApplicationService,
             InsuranceCatalogService insuranceCatalogService,
-            UserInsuranceProfileService userInsuranceProfileService
+            UserInsuranceProfileService userInsuranceProfileService,
+            StaleResponseCache staleResponseCache
     ) {
         this.insuranceApplicationService = insuranceApplicationService;
         this.insuranceCatalogService = insuranceCatalogService;
         this.userInsuranceProfileService = userInsuranceProfileService;
+        this.staleResponseCache = staleResponseCache;
     }
 
     // --------------------------------------------------
@@ -50,8 +55,12 @@ public class InsuranceController {
     // --------------------------------------------------
 
     @GetMapping("/products")
-    public List<InsuranceProductDto> getProducts() {
-        return insuranceCatalogService.getAllProducts();
+    public ResponseEntity<List<InsuranceProductDto>> getProducts() {
+        return staleResponseCache.serve(
+                CacheRegions.CATALOG,
+                "all",
+                () -> ResponseEntity.ok(insuranceCatalogService.getAllProducts())
+        );
     }
 
     // --------------------------------------------------
@@ -69,6 +78,17 @@ public class InsuranceController {
         return userInsuranceProfileService.getForUser(principal.getId());
     }
 
+    @GetMapping("/my/active")
+    public List<UserInsuranceResponse> getMyActiveInsurances(
+            @AuthenticationPrincipal JwtUserDetails principal
+    ) {
+        if (principal == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+
+        return userInsuranceProfileService.getActiveForUser(principal.getId());
+    }
+
     @PostMapping("/my")
     public ResponseEntity<Void> registerMyInsurance(
             @AuthenticationPrincipal JwtUserDetails principal,
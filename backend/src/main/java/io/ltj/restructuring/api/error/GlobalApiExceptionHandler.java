@@ -1,18 +1,37 @@
 package io.ltj.restructuring.api.error;
 
 import io.ltj.restructuring.application.auth.UserAlreadyExistsException;
+import io.ltj.restructuring.resilience.DatabaseCircuitBreakers;
+import io.ltj.restructuring.resilience.DatabaseFailures;
+import io.ltj.restructuring.security.LoginThrottledException;
+import io.ltj.restructuring.security.PasswordHashingBusyException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
 
 @RestControllerAdvice
 public class GlobalApiExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(GlobalApiExceptionHandler.class);
 
+    private static final long DEFAULT_RETRY_AFTER_SECONDS = 5;
+
+    private final ObjectProvider<DatabaseCircuitBreakers> circuitBreakers;
+
+    public GlobalApiExceptionHandler(ObjectProvider<DatabaseCircuitBreakers> circuitBreakers) {
+        this.circuitBreakers = circuitBreakers;
+    }
+
     // ----------------------------------------------------
     // 409 Conflict — user already exists
     // ----------------------------------------------------
@@ -28,6 +47,108 @@ public class GlobalApiExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
     }
 
+    // ----------------------------------------------------
+    // 503 Service Unavailable — database unreachable / circuit open
+    // ----------------------------------------------------
+    @ExceptionHandler({
+            CannotCreateTransactionException.class,
+            DataAccessResourceFailureException.class
+    })
+    public ResponseEntity<ApiErrorResponse> handleDatabaseUnavailable(Exception ex) {
+        log.warn("503 SERVICE UNAVAILABLE: {}", ex.getMessage());
+
+        ApiErrorResponse body = new ApiErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Database is temporarily unavailable"
+        );
+
+        // Til breakeren slipper gjennom prøvekall igjen
+        long retryAfter = circuitBreakers.stream()
+                .findFirst()
+                .map(breakers -> breakers.retryAfter().toSeconds())
+                .orElse(DEFAULT_RETRY_AFTER_SECONDS);
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .body(body);
+    }
+
+    // JdbcTemplate oversetter DatabaseUnavailableException (åpen breaker) til
+    // TransientDataAccessResourceException, som ellers ville falt til 500
+    @ExceptionHandler(TransientDataAccessException.class)
+    public ResponseEntity<ApiErrorResponse> handleTransientDataAccess(TransientDataAccessException ex) {
+        if (DatabaseFailures.isUnavailable(ex)) {
+            return handleDatabaseUnavailable(ex);
+        }
+        return handleUnexpected(ex);
+    }
+
+    // ----------------------------------------------------
+    // 503 Service Unavailable — password hashing bulkhead full
+    // ----------------------------------------------------
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<ApiErrorResponse> handlePasswordHashingBusy(PasswordHashingBusyException ex) {
+        log.warn("503 SERVICE UNAVAILABLE: {}", ex.getMessage());
+
+        ApiErrorResponse body = new ApiErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                ex.getMessage()
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(body);
+    }
+
+    // ----------------------------------------------------
+    // 429 Too Many Requests — login throttle
+    // ----------------------------------------------------
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<ApiErrorResponse> handleLoginThrottled(LoginThrottledException ex) {
+        log.debug("429 TOO MANY REQUESTS: retry after {}", ex.getRetryAfter());
+
+        ApiErrorResponse body = new ApiErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                ex.getMessage()
+        );
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter().toSeconds()))
+                .body(body);
+    }
+
+    // ----------------------------------------------------
+    // 403 Forbidden — @PreAuthorize denied (method security throws after the filter chain)
+    // ----------------------------------------------------
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ApiErrorResponse> handleAccessDenied(AccessDeniedException ex) {
+        log.debug("403 FORBIDDEN: {}", ex.getMessage());
+
+        ApiErrorResponse body = new ApiErrorResponse(
+                HttpStatus.FORBIDDEN.value(),
+                "Access denied"
+        );
+
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(body);
+    }
+
+    // ----------------------------------------------------
+    // ResponseStatusException — status chosen by the controller
+    // ----------------------------------------------------
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ApiErrorResponse> handleResponseStatus(ResponseStatusException ex) {
+        log.debug("{}: {}", ex.getStatusCode(), ex.getReason());
+
+        ApiErrorResponse body = new ApiErrorResponse(
+                ex.getStatusCode().value(),
+                ex.getReason()
+        );
+
+        return ResponseEntity.status(ex.getStatusCode())
+                .headers(ex.getHeaders())
+                .body(body);
+    }
+
     // ----------------------------------------------------
     // Generic 500 fallback (optional)
     // ----------------------------------------------------
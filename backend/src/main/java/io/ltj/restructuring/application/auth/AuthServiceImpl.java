@@ -16,6 +16,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
@@ -43,7 +44,9 @@ public class AuthServiceImpl implements AuthService {
     // -------------------------------------------------------------
     // 🔐 LOGIN
     // -------------------------------------------------------------
+    // Uten transaksjon: ingen DB-forbindelse holdes mens BCrypt venter på hashing-poolen
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public LoginResponseDto login(LoginRequestDto request) {
         String email = request.email();
 
@@ -88,7 +91,9 @@ public class AuthServiceImpl implements AuthService {
     // -------------------------------------------------------------
     // 🆕 REGISTER
     // -------------------------------------------------------------
+    // Som login: hashen lages før lagringen, som går i sin egen transaksjon
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public RegisterResponseDto register(RegisterRequestDto request) {
         String email = request.email();
 
@@ -0,0 +1,40 @@
+package io.ltj.restructuring.application.dashboard;
+
+import io.ltj.restructuring.application.auth.AuthUser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@RequiredArgsConstructor
+public class DashboardController {
+
+    private final DashboardService service;
+
+    /**
+     * Bruker, plan, forsikringer, snapshot, tapsanalyse og journal i ett kall.
+     * {@code ?fields=plan,journal} begrenser dokumentet til de nevnte delene.
+     */
+    @GetMapping
+    public Map<String, Object> dashboard(
+            @AuthUser Long userId,
+            @RequestParam(required = false) String fields
+    ) {
+        if (userId == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+
+        Set<DashboardPart> parts;
+        try {
+            parts = DashboardPart.parse(fields);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+        return service.load(userId, parts);
+    }
+}
@@ -0,0 +1,60 @@
+package io.ltj.restructuring.application.dashboard;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Top-level sections of the dashboard document. {@code ?fields=} selects a subset by {@link #field()}.
+ */
+public enum DashboardPart {
+
+    USER("user"),
+    PLAN("plan"),
+    INSURANCES("insurances"),
+    SNAPSHOT("snapshot"),
+    LOSS("loss"),
+    JOURNAL("journal");
+
+    private final String field;
+
+    DashboardPart(String field) {
+        this.field = field;
+    }
+
+    public String field() {
+        return field;
+    }
+
+    /**
+     * Parses a comma-separated field list. Blank means everything.
+     *
+     * @throws IllegalArgumentException for unknown field names
+     */
+    public static Set<DashboardPart> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return EnumSet.allOf(DashboardPart.class);
+        }
+        Set<DashboardPart> parts = EnumSet.noneOf(DashboardPart.class);
+        for (String raw : fields.split(",")) {
+            String name = raw.trim().toLowerCase(Locale.ROOT);
+            if (name.isEmpty()) {
+                continue;
+            }
+            parts.add(fromField(name));
+        }
+        if (parts.isEmpty()) {
+            return EnumSet.allOf(DashboardPart.class);
+        }
+        return parts;
+    }
+
+    private static DashboardPart fromField(String name) {
+        for (DashboardPart part : values()) {
+            if (part.field.equals(name)) {
+                return part;
+            }
+        }
+        throw new IllegalArgumentException("Ukjent felt: " + name);
+    }
+}
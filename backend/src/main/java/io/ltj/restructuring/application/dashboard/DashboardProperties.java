@@ -0,0 +1,45 @@
+package io.ltj.restructuring.application.dashboard;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the {@code /api/dashboard} fan-out.
+ */
+@ConfigurationProperties(prefix = "dashboard")
+public class DashboardProperties {
+
+    /** Oppslag som kan kjøre samtidig på tvers av alle dashboard-kall. 0 = halvparten av Hikari-poolen. */
+    private int maxConnections = 0;
+
+    /** Hvor mange oppslag som kan vente på en ledig tråd før kallende tråd gjør jobben selv. */
+    private int queueCapacity = 256;
+
+    /** Deler som ikke er ferdige innen dette returneres som null med feil "timeout". */
+    private Duration timeout = Duration.ofSeconds(5);
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+}
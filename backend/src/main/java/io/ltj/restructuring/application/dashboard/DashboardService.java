@@ -0,0 +1,167 @@
+package io.ltj.restructuring.application.dashboard;
+
+import io.ltj.restructuring.application.insurance.CoverageLossAnalysisService;
+import io.ltj.restructuring.application.insurance.InsuranceSnapshotService;
+import io.ltj.restructuring.application.insurance.UserInsuranceProfileService;
+import io.ltj.restructuring.application.journal.JournalService;
+import io.ltj.restructuring.application.plan.UserPlanApplicationService;
+import io.ltj.restructuring.application.user.UserApplicationService;
+import io.ltj.restructuring.domain.insurance.InsuranceSnapshotEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Builds the dashboard document in one request instead of six.
+ * <p>
+ * Each selected part is loaded on {@code executor}, whose thread count is the connection
+ * budget: every task holds at most one pool connection, so the fan-out can never take more
+ * than that many connections no matter how many dashboards load at once. Parts are never run
+ * on the request thread: when the pool's queue is full a part is reported as {@code busy}, and
+ * parts still queued or running when the deadline passes are cancelled so they do not hold
+ * the budget for a response that has already been sent. The loss analysis reuses the snapshot
+ * instead of reading it again. A part that fails, is busy or misses the deadline comes back
+ * as {@code null} and is listed under {@code errors}; the rest is still returned.
+ */
+public class DashboardService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
+
+    private final UserApplicationService userApplicationService;
+    private final UserPlanApplicationService userPlanApplicationService;
+    private final UserInsuranceProfileService userInsuranceProfileService;
+    private final InsuranceSnapshotService insuranceSnapshotService;
+    private final CoverageLossAnalysisService coverageLossAnalysisService;
+    private final JournalService journalService;
+    private final ExecutorService executor;
+    private final Duration timeout;
+
+    public DashboardService(
+            UserApplicationService userApplicationService,
+            UserPlanApplicationService userPlanApplicationService,
+            UserInsuranceProfileService userInsuranceProfileService,
+            InsuranceSnapshotService insuranceSnapshotService,
+            CoverageLossAnalysisService coverageLossAnalysisService,
+            JournalService journalService,
+            ExecutorService executor,
+            Duration timeout
+    ) {
+        this.userApplicationService = userApplicationService;
+        this.userPlanApplicationService = userPlanApplicationService;
+        this.userInsuranceProfileService = userInsuranceProfileService;
+        this.insuranceSnapshotService = insuranceSnapshotService;
+        this.coverageLossAnalysisService = coverageLossAnalysisService;
+        this.journalService = journalService;
+        this.executor = executor;
+        this.timeout = timeout;
+    }
+
+    public Map<String, Object> load(Long userId, Set<DashboardPart> parts) {
+        Map<DashboardPart, CompletableFuture<?>> futures = new EnumMap<>(DashboardPart.class);
+        List<Future<?>> tasks = new ArrayList<>();
+
+        CompletableFuture<InsuranceSnapshotEntity> snapshot = null;
+        if (parts.contains(DashboardPart.SNAPSHOT) || parts.contains(DashboardPart.LOSS)) {
+            snapshot = supply(tasks, () -> insuranceSnapshotService.getSnapshot(userId));
+        }
+
+        for (DashboardPart part : parts) {
+            futures.put(part, switch (part) {
+                case USER -> supply(tasks, () -> userApplicationService.findById(userId).orElse(null));
+                case PLAN -> supply(tasks, () -> userPlanApplicationService.getPlanForUser(userId).orElse(null));
+                case INSURANCES -> supply(tasks, () -> userInsuranceProfileService.getForUser(userId));
+                case SNAPSHOT -> snapshot;
+                // Ren beregning, ingen ny spørring
+                case LOSS -> snapshot.thenApply(coverageLossAnalysisService::analyze);
+                case JOURNAL -> supply(tasks, () -> journalService.getAll(userId));
+            });
+        }
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Map<String, Object> document = new LinkedHashMap<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+
+        for (Map.Entry<DashboardPart, CompletableFuture<?>> entry : futures.entrySet()) {
+            String field = entry.getKey().field();
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                document.put(field, entry.getValue().get(remaining, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException ex) {
+                document.put(field, null);
+                errors.put(field, "timeout");
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RejectedExecutionException) {
+                    document.put(field, null);
+                    errors.put(field, "busy");
+                    continue;
+                }
+                log.atWarn()
+                        .addKeyValue("userId", userId)
+                        .addKeyValue("part", field)
+                        .setCause(ex.getCause())
+                        .log("Dashboard part failed");
+                document.put(field, null);
+                errors.put(field, "unavailable");
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                document.put(field, null);
+                errors.put(field, "interrupted");
+            }
+        }
+
+        // Svaret er bygget: det som fortsatt står i kø eller kjører, skal ikke holde på budsjettet
+        for (Future<?> task : tasks) {
+            if (!task.isDone()) {
+                task.cancel(true);
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            log.atDebug()
+                    .addKeyValue("userId", userId)
+                    .addKeyValue("errors", errors)
+                    .log("Dashboard returned partial document");
+            document.put("errors", errors);
+        }
+        return document;
+    }
+
+    // submit i stedet for supplyAsync: gir en Future som kan avbrytes, og full kø avvises i stedet
+    // for å kjøres på request-tråden
+    private <T> CompletableFuture<T> supply(List<Future<?>> tasks, Supplier<T> loader) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            tasks.add(executor.submit(() -> {
+                try {
+                    result.complete(loader.get());
+                } catch (Throwable ex) {
+                    result.completeExceptionally(ex);
+                }
+            }));
+        } catch (RejectedExecutionException ex) {
+            result.completeExceptionally(ex);
+        }
+        return result;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
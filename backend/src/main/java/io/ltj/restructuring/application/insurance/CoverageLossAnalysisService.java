@@ -24,8 +24,13 @@ public class CoverageLossAnalysisService {
      * Heuristic loss analysis based on the snapshot the user registered.
      */
     public CoverageLossAnalysisResponse analyze(Long userId) {
-        InsuranceSnapshotEntity snapshot = snapshotService.getSnapshot(userId);
+        return analyze(snapshotService.getSnapshot(userId));
+    }
 
+    /**
+     * Same analysis for a snapshot the caller already loaded ({@code null} = none registered).
+     */
+    public CoverageLossAnalysisResponse analyze(InsuranceSnapshotEntity snapshot) {
         if (snapshot == null) {
             return new CoverageLossAnalysisResponse(List.of(
                     new CoverageLossAnalysisResponse.Loss(
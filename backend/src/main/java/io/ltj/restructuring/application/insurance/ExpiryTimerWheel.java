@@ -0,0 +1,84 @@
+package io.ltj.restructuring.application.insurance;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Hashed timer wheel for items that fall due within a fixed horizon.
+ * <p>
+ * Time is cut into ticks of {@code tick} length; an item is placed in the slot for the
+ * first tick at or after its deadline, and {@link #advance} empties every slot it passes.
+ * Scheduling and advancing are O(1) per item regardless of how many are pending. Items
+ * further out than the horizon are rejected; the caller keeps those elsewhere and
+ * schedules them once they come within reach.
+ */
+final class ExpiryTimerWheel<T> {
+
+    private final long tickMillis;
+    private final List<Set<T>> slots;
+    private long currentTick;
+    private int size;
+
+    ExpiryTimerWheel(Duration tick, Duration horizon, Instant now) {
+        this.tickMillis = Math.max(1, tick.toMillis());
+        // +1: en frist nøyaktig på horisonten skal også få plass
+        int slotCount = (int) Math.max(1, ceilDiv(horizon.toMillis(), tickMillis)) + 1;
+        this.slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(new HashSet<>());
+        }
+        this.currentTick = Math.floorDiv(now.toEpochMilli(), tickMillis);
+    }
+
+    /**
+     * Schedules {@code item} for {@code deadline}. A deadline that has already passed is due
+     * on the next {@link #advance}. Returns {@code false} if the deadline is beyond the horizon.
+     */
+    synchronized boolean schedule(T item, Instant deadline) {
+        long due = Math.max(ceilDiv(deadline.toEpochMilli(), tickMillis), currentTick + 1);
+        if (due - currentTick > slots.size()) {
+            return false;
+        }
+        if (slots.get(slot(due)).add(item)) {
+            size++;
+        }
+        return true;
+    }
+
+    /**
+     * Moves the wheel up to {@code now} and returns every item whose deadline has passed.
+     */
+    synchronized List<T> advance(Instant now) {
+        long target = Math.floorDiv(now.toEpochMilli(), tickMillis);
+        if (target <= currentTick) {
+            return List.of();
+        }
+        List<T> due = new ArrayList<>();
+        // Etter lengre stans enn én runde: alle spor er forfalt
+        long steps = Math.min(target - currentTick, slots.size());
+        for (long i = 1; i <= steps; i++) {
+            Set<T> slot = slots.get(slot(currentTick + i));
+            due.addAll(slot);
+            slot.clear();
+        }
+        currentTick = target;
+        size -= due.size();
+        return due;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    private int slot(long tick) {
+        return (int) Math.floorMod(tick, (long) slots.size());
+    }
+}
@@ -1,8 +1,12 @@
 package io.ltj.restructuring.application.insurance;
 
 import io.ltj.restructuring.api.dto.insurance.InsuranceProductDto;
+import io.ltj.restructuring.cache.CacheInvalidationBus;
+import io.ltj.restructuring.cache.CacheRegions;
 import io.ltj.restructuring.domain.insurance.InsuranceProduct;
 import io.ltj.restructuring.domain.insurance.InsuranceProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,9 +16,23 @@ import java.util.List;
 public class InsuranceCatalogService {
 
     private final InsuranceProductRepository productRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
-    public InsuranceCatalogService(InsuranceProductRepository productRepository) {
+    public InsuranceCatalogService(
+            InsuranceProductRepository productRepository,
+            CacheInvalidationBus cacheInvalidationBus
+    ) {
         this.productRepository = productRepository;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    /**
+     * Katalogen endres kun via Flyway-migreringer. Når en node starter med nye migreringer
+     * må de andre nodene forkaste katalogen de har i minnet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void announceCatalogLoaded() {
+        cacheInvalidationBus.invalidateRegion(CacheRegions.CATALOG);
     }
 
     /**
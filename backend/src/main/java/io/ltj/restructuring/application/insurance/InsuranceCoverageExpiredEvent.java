@@ -0,0 +1,9 @@
+package io.ltj.restructuring.application.insurance;
+
+import java.time.LocalDate;
+
+/**
+ * Published after a coverage has been marked inactive because its {@code validTo} has passed.
+ */
+public record InsuranceCoverageExpiredEvent(Long profileId, Long userId, LocalDate validTo) {
+}
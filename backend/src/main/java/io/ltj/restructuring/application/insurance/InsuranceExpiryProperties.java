@@ -0,0 +1,55 @@
+package io.ltj.restructuring.application.insurance;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link InsuranceExpirySweeper}.
+ */
+@ConfigurationProperties(prefix = "insurance.expiry")
+public class InsuranceExpiryProperties {
+
+    private boolean enabled = true;
+
+    /** valid_to er en dato; dekningen gjelder ut dagen i denne sonen. */
+    private String zone = "Europe/Oslo";
+
+    /** Rader som deaktiveres per transaksjon. */
+    private int batchSize = 500;
+
+    /** Oppløsning i tidshjulet for dekninger som utløper innen neste døgn. */
+    private Duration tick = Duration.ofMinutes(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getZone() {
+        return zone;
+    }
+
+    public void setZone(String zone) {
+        this.zone = zone;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getTick() {
+        return tick;
+    }
+
+    public void setTick(Duration tick) {
+        this.tick = tick;
+    }
+}
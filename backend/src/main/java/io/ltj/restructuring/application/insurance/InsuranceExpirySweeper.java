@@ -0,0 +1,253 @@
+package io.ltj.restructuring.application.insurance;
+
+import io.ltj.restructuring.cache.CacheInvalidationBus;
+import io.ltj.restructuring.cache.CacheRegions;
+import io.ltj.restructuring.persistence.DatabaseProduct;
+import io.ltj.restructuring.scheduling.JobLeadership;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Flips {@code active} to false on user insurance profiles whose {@code valid_to} has passed.
+ * <p>
+ * The periodic sweep walks the partial index {@code ix_user_insurance_profile_expiry} (V30) in
+ * {@code valid_to} order and deactivates a batch per transaction. Coverages ending today are
+ * also put on an in-memory {@link ExpiryTimerWheel} so they flip within one tick of midnight
+ * instead of waiting for the next sweep. The wheel is only a shortcut: after a restart the
+ * sweep finds the same rows from the index.
+ * <p>
+ * For every deactivated row an {@link InsuranceCoverageExpiredEvent} is published after commit
+ * and the user's INSURANCE cache entry is invalidated.
+ */
+public class InsuranceExpirySweeper implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(InsuranceExpirySweeper.class);
+
+    static final String JOB = "insurance-expiry";
+
+    private static final RowMapper<InsuranceCoverageExpiredEvent> EXPIRED_MAPPER = (rs, rowNum) ->
+            new InsuranceCoverageExpiredEvent(
+                    rs.getLong("id"),
+                    rs.getLong("user_id"),
+                    rs.getDate("valid_to").toLocalDate()
+            );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseProduct databaseProduct;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Clock clock;
+    private final JobLeadership jobLeadership;
+    private final ZoneId zone;
+    private final int batchSize;
+    private final ExpiryTimerWheel<Long> wheel;
+
+    private final AtomicLong expired = new AtomicLong();
+
+    public InsuranceExpirySweeper(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            DatabaseProduct databaseProduct,
+            CacheInvalidationBus cacheInvalidationBus,
+            ApplicationEventPublisher eventPublisher,
+            Clock clock,
+            JobLeadership jobLeadership,
+            InsuranceExpiryProperties properties
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.databaseProduct = databaseProduct;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.eventPublisher = eventPublisher;
+        this.clock = clock;
+        this.jobLeadership = jobLeadership;
+        this.zone = ZoneId.of(properties.getZone());
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        // Horisont: neste midnatt, uansett når på døgnet hjulet fylles
+        this.wheel = new ExpiryTimerWheel<>(properties.getTick(), Duration.ofDays(1).plusHours(1), clock.instant());
+    }
+
+    // ------------------------------------------------------
+    // Sveip (indeks)
+    // ------------------------------------------------------
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        run();
+    }
+
+    @Scheduled(cron = "${insurance.expiry.cron:0 5 * * * *}")
+    public void run() {
+        // Sveipet går på én node; tidshjulet går på alle (radene tas med SKIP LOCKED)
+        if (!jobLeadership.isLeader(JOB)) {
+            return;
+        }
+        try {
+            sweep();
+        } catch (RuntimeException ex) {
+            log.atError().setCause(ex).log("Insurance expiry sweep failed");
+        }
+    }
+
+    /**
+     * Deactivates every coverage that ended before today and loads today's into the wheel.
+     *
+     * @return number of coverages deactivated
+     */
+    public int sweep() {
+        LocalDate today = today();
+        int total = 0;
+        while (true) {
+            int count = expireBatch(today, null);
+            total += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+        int scheduled = scheduleEndingOn(today);
+
+        if (total > 0 || scheduled > 0) {
+            log.atInfo()
+                    .addKeyValue("expired", total)
+                    .addKeyValue("scheduled", scheduled)
+                    .log("Insurance expiry sweep done");
+        }
+        return total;
+    }
+
+    private int scheduleEndingOn(LocalDate day) {
+        Instant deadline = endOf(day);
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM res_user_insurance_profile WHERE active = TRUE AND valid_to = ?",
+                Long.class, Date.valueOf(day)
+        );
+        ids.forEach(id -> wheel.schedule(id, deadline));
+        return ids.size();
+    }
+
+    // ------------------------------------------------------
+    // Tidshjul (neste døgn)
+    // ------------------------------------------------------
+
+    /**
+     * Puts a newly registered coverage on the wheel if it ends within the wheel's horizon.
+     * Coverages further out are picked up by a later sweep.
+     */
+    public void track(Long profileId, LocalDate validTo) {
+        if (profileId != null && validTo != null) {
+            wheel.schedule(profileId, endOf(validTo));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${insurance.expiry.tick:PT1M}")
+    public void tick() {
+        List<Long> due = wheel.advance(clock.instant());
+        if (due.isEmpty()) {
+            return;
+        }
+        try {
+            LocalDate today = today();
+            for (int from = 0; from < due.size(); from += batchSize) {
+                expireBatch(today, due.subList(from, Math.min(from + batchSize, due.size())));
+            }
+        } catch (RuntimeException ex) {
+            // Sveipet finner radene igjen
+            log.atWarn().addKeyValue("error", ex.getMessage()).log("Insurance expiry tick failed");
+        }
+    }
+
+    public int pending() {
+        return wheel.size();
+    }
+
+    // ------------------------------------------------------
+    // Deaktivering
+    // ------------------------------------------------------
+
+    private int expireBatch(LocalDate today, Collection<Long> onlyIds) {
+        List<InsuranceCoverageExpiredEvent> rows = transactionTemplate.execute(status -> {
+            StringBuilder sql = new StringBuilder(
+                    "SELECT id, user_id, valid_to FROM res_user_insurance_profile " +
+                            "WHERE active = TRUE AND valid_to < ?");
+            if (onlyIds != null) {
+                sql.append(" AND id = ANY (?)");
+            }
+            sql.append(" ORDER BY valid_to, id LIMIT ?");
+            // Flere noder kan sveipe samtidig; hver tar sine egne rader
+            if (databaseProduct.isPostgres()) {
+                sql.append(" FOR UPDATE SKIP LOCKED");
+            }
+
+            List<InsuranceCoverageExpiredEvent> batch = jdbcTemplate.query(sql.toString(), ps -> {
+                int i = 1;
+                ps.setDate(i++, Date.valueOf(today));
+                if (onlyIds != null) {
+                    ps.setArray(i++, ps.getConnection().createArrayOf("bigint", onlyIds.toArray()));
+                }
+                ps.setInt(i, batchSize);
+            }, EXPIRED_MAPPER);
+            if (batch.isEmpty()) {
+                return batch;
+            }
+
+            Long[] ids = batch.stream().map(InsuranceCoverageExpiredEvent::profileId).toArray(Long[]::new);
+            jdbcTemplate.update(
+                    "UPDATE res_user_insurance_profile SET active = FALSE WHERE id = ANY (?) AND active = TRUE",
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids))
+            );
+            batch.stream()
+                    .map(InsuranceCoverageExpiredEvent::userId)
+                    .distinct()
+                    .forEach(userId -> cacheInvalidationBus.invalidate(CacheRegions.INSURANCE, userId));
+            return batch;
+        });
+
+        if (rows == null || rows.isEmpty()) {
+            return 0;
+        }
+        expired.addAndGet(rows.size());
+        rows.forEach(eventPublisher::publishEvent);
+        return rows.size();
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(clock.withZone(zone));
+    }
+
+    // valid_to er siste gyldige dag; dekningen faller bort ved midnatt etter
+    private Instant endOf(LocalDate validTo) {
+        return validTo.plusDays(1).atStartOfDay(zone).toInstant();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("insurance.expiry.expired", expired, AtomicLong::get)
+                .description("Insurance coverages deactivated after their valid_to date")
+                .register(registry);
+        Gauge.builder("insurance.expiry.wheel.pending", wheel, ExpiryTimerWheel::size)
+                .description("Coverages waiting on the expiry timer wheel")
+                .register(registry);
+    }
+}
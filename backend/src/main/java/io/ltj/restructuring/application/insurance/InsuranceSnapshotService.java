@@ -1,6 +1,8 @@
 package io.ltj.restructuring.application.insurance;
 
 import io.ltj.restructuring.api.dto.insurance.InsuranceSnapshotRequestDto;
+import io.ltj.restructuring.cache.CacheInvalidationBus;
+import io.ltj.restructuring.cache.CacheRegions;
 import io.ltj.restructuring.domain.insurance.InsuranceSnapshotEntity;
 import io.ltj.restructuring.domain.insurance.InsuranceSnapshotRepository;
 import org.springframework.stereotype.Service;
@@ -10,9 +12,14 @@ import org.springframework.transaction.annotation.Transactional;
 public class InsuranceSnapshotService {
 
     private final InsuranceSnapshotRepository repository;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
-    public InsuranceSnapshotService(InsuranceSnapshotRepository repository) {
+    public InsuranceSnapshotService(
+            InsuranceSnapshotRepository repository,
+            CacheInvalidationBus cacheInvalidationBus
+    ) {
         this.repository = repository;
+        this.cacheInvalidationBus = cacheInvalidationBus;
     }
 
     @Transactional
@@ -28,6 +35,7 @@ public class InsuranceSnapshotService {
                 );
 
         repository.save(entity);
+        cacheInvalidationBus.invalidate(CacheRegions.INSURANCE, userId);
     }
 
     @Transactional(readOnly = true)
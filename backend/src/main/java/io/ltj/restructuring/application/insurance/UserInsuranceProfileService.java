@@ -2,10 +2,18 @@ package io.ltj.restructuring.application.insurance;
 
 import io.ltj.restructuring.api.dto.insurance.UserInsuranceDtos.UserInsuranceResponse;
 import io.ltj.restructuring.api.dto.insurance.UserInsuranceDtos.RegisterUserInsuranceRequest;
+import io.ltj.restructuring.cache.CacheInvalidationBus;
+import io.ltj.restructuring.cache.CacheRegions;
+import io.ltj.restructuring.domain.insurance.ActiveCoverage;
 import io.ltj.restructuring.domain.insurance.UserInsuranceProfile;
 import io.ltj.restructuring.domain.insurance.UserInsuranceProfileRepository;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
 
@@ -13,9 +21,20 @@ import java.util.Locale;
 public class UserInsuranceProfileService {
 
     private final UserInsuranceProfileRepository repository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ObjectProvider<InsuranceExpirySweeper> expirySweeper;
+    private final ZoneId zone;
 
-    public UserInsuranceProfileService(UserInsuranceProfileRepository repository) {
+    public UserInsuranceProfileService(
+            UserInsuranceProfileRepository repository,
+            CacheInvalidationBus cacheInvalidationBus,
+            ObjectProvider<InsuranceExpirySweeper> expirySweeper,
+            InsuranceExpiryProperties expiryProperties
+    ) {
         this.repository = repository;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.expirySweeper = expirySweeper;
+        this.zone = ZoneId.of(expiryProperties.getZone());
     }
 
     // -------- CREATE --------
@@ -31,7 +50,10 @@ public class UserInsuranceProfileService {
                 req.validFrom(),
                 req.validTo()
         );
-        repository.save(profile);
+        UserInsuranceProfile saved = repository.save(profile);
+        cacheInvalidationBus.invalidate(CacheRegions.INSURANCE, userId);
+        // Slutter den innen neste døgn (eller allerede), deaktiveres den fra tidshjulet
+        expirySweeper.ifAvailable(sweeper -> sweeper.track(saved.getId(), saved.getValidTo()));
     }
 
     // -------- READ --------
@@ -43,6 +65,25 @@ public class UserInsuranceProfileService {
                 .toList();
     }
 
+    /**
+     * Coverages in force today. Served from the covering partial index, so notes are not included.
+     */
+    public List<UserInsuranceResponse> getActiveForUser(Long userId) {
+        return repository.findActiveCoverage(userId, LocalDate.now(zone))
+                .stream()
+                .map(this::toDto)
+                .toList();
+    }
+
+    public List<UserInsuranceResponse> getByIds(Long userId, Collection<Long> ids) {
+        return repository.findAllById(ids)
+                .stream()
+                .filter(p -> userId.equals(p.getUserId()))
+                .sorted(Comparator.comparing(UserInsuranceProfile::getId))
+                .map(this::toDto)
+                .toList();
+    }
+
     private UserInsuranceResponse toDto(UserInsuranceProfile p) {
         return new UserInsuranceResponse(
                 p.getId(),
@@ -56,6 +97,19 @@ public class UserInsuranceProfileService {
         );
     }
 
+    private UserInsuranceResponse toDto(ActiveCoverage c) {
+        return new UserInsuranceResponse(
+                c.id(),
+                c.source().name(),
+                c.providerName(),
+                c.productName(),
+                null,
+                true,
+                c.validFrom(),
+                c.validTo()
+        );
+    }
+
     private UserInsuranceProfile.Source parseSource(String value) {
         if (value == null) {
             throw new IllegalArgumentException("source is required");
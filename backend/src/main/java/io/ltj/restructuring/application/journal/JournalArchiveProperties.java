@@ -0,0 +1,67 @@
+package io.ltj.restructuring.application.journal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the journal cold tier ({@link JournalArchiveStore}, {@link JournalArchiver}).
+ */
+@ConfigurationProperties(prefix = "journal.archive")
+public class JournalArchiveProperties {
+
+    /** Slår på den nattlige flyttingen. Lesing fra arkivet skjer alltid. */
+    private boolean enabled = false;
+
+    /** Katalog for segmentfilene; må være felles hvis flere noder skal lese arkivet. */
+    private String directory = "data/journal-archive";
+
+    /** Innlegg eldre enn dette flyttes til arkivet. */
+    private Duration olderThan = Duration.ofDays(365);
+
+    /** Maks innlegg per segmentfil (og per slette-transaksjon). */
+    private int maxSegmentEntries = 5_000;
+
+    /** Arkiverte innlegg som holdes i minnet for gjentatte profil-/journallesinger (0 = av). */
+    private int readCacheEntries = 20_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public Duration getOlderThan() {
+        return olderThan;
+    }
+
+    public void setOlderThan(Duration olderThan) {
+        this.olderThan = olderThan;
+    }
+
+    public int getMaxSegmentEntries() {
+        return maxSegmentEntries;
+    }
+
+    public void setMaxSegmentEntries(int maxSegmentEntries) {
+        this.maxSegmentEntries = maxSegmentEntries;
+    }
+
+    public int getReadCacheEntries() {
+        return readCacheEntries;
+    }
+
+    public void setReadCacheEntries(int readCacheEntries) {
+        this.readCacheEntries = readCacheEntries;
+    }
+}
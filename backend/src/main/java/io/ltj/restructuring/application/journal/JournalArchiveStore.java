@@ -0,0 +1,419 @@
+package io.ltj.restructuring.application.journal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold tier for old journal entries: gzip-compressed, append-only segment files on local disk.
+ * <p>
+ * Layout: {@code <directory>/<userId % 1000>/<userId>/<newest>_<oldest>_<written>.jseg.gz}, with
+ * the timestamps as epoch millis ({@code created_at} read as UTC). The file name is the index:
+ * a read lists one directory and opens only the segments whose time range it needs. A segment is
+ * written once (temp file, fsync, atomic rename) and never changed; entries inside it are newest first.
+ * <p>
+ * An entry can end up in two segments if the archiver stops between writing a segment and deleting
+ * the rows; readers skip ids they have already returned.
+ * <p>
+ * {@link #readAll(long)} keeps recently read archives in memory, up to {@code cachedEntries}
+ * entries in total (least recently used archive evicted first). Segments never change, so a
+ * cached archive is valid as long as the user's segment file names are the same; checking that
+ * lists one directory and decompresses nothing.
+ */
+public class JournalArchiveStore {
+
+    private static final int MAGIC = 0x4A534731; // "JSG1"
+    private static final String SUFFIX = ".jseg.gz";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    static final Comparator<JournalEntry> NEWEST_FIRST = Comparator
+            .comparing(JournalEntry::getCreatedAt)
+            .thenComparing(JournalEntry::getId)
+            .reversed();
+
+    private final Path directory;
+    private final int cachedEntries;
+
+    /** Tilgangsordnet: første arkiv er det som har vært lengst ulest. */
+    private final LinkedHashMap<Long, CachedArchive> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private int cachedTotal;
+
+    public JournalArchiveStore(Path directory) {
+        this(directory, 0);
+    }
+
+    public JournalArchiveStore(Path directory, int cachedEntries) {
+        this.directory = directory;
+        this.cachedEntries = Math.max(0, cachedEntries);
+    }
+
+    /**
+     * Writes {@code entries} (all belonging to {@code userId}) as one new segment. Returns once
+     * the segment is durable on disk.
+     */
+    public void append(long userId, List<JournalEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<JournalEntry> sorted = new ArrayList<>(entries);
+        sorted.sort(NEWEST_FIRST);
+
+        Path dir = userDirectory(userId);
+        String name = millis(sorted.get(0).getCreatedAt()) + "_"
+                + millis(sorted.get(sorted.size() - 1).getCreatedAt()) + "_"
+                + System.currentTimeMillis();
+        Path target = dir.resolve(name + SUFFIX);
+        for (int n = 1; Files.exists(target); n++) {
+            target = dir.resolve(name + "." + n + SUFFIX);
+        }
+        Path tmp = dir.resolve(target.getFileName() + TMP_SUFFIX);
+
+        try {
+            Files.createDirectories(dir);
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 GZIPOutputStream gzip = new GZIPOutputStream(Channels.newOutputStream(channel));
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(gzip))) {
+                out.writeInt(MAGIC);
+                out.writeInt(sorted.size());
+                for (JournalEntry entry : sorted) {
+                    write(out, entry);
+                }
+                out.flush();
+                gzip.finish();
+                channel.force(true);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            forceDirectory(dir);
+        } catch (IOException ex) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+                // Ryddes ikke; lesing hopper over .tmp-filer
+            }
+            throw new UncheckedIOException("Kunne ikke skrive journalarkiv for bruker " + userId, ex);
+        }
+    }
+
+    public boolean hasArchive(long userId) {
+        return !segments(userId).isEmpty();
+    }
+
+    /**
+     * Every archived entry for the user, newest first. The list and its entries may be shared
+     * with other readers and must not be modified.
+     */
+    public List<JournalEntry> readAll(long userId) {
+        List<Segment> segments = segments(userId);
+        if (segments.isEmpty()) {
+            return List.of();
+        }
+        List<String> names = segments.stream().map(segment -> segment.path().getFileName().toString()).toList();
+        synchronized (cache) {
+            CachedArchive cached = cache.get(userId);
+            if (cached != null && cached.segments().equals(names)) {
+                return cached.entries();
+            }
+        }
+
+        List<JournalEntry> result = new ArrayList<>();
+        new NewestFirst(userId, null, segments).forEachRemaining(result::add);
+        List<JournalEntry> entries = Collections.unmodifiableList(result);
+        remember(userId, new CachedArchive(names, entries));
+        return entries;
+    }
+
+    /**
+     * Archived entries newest first, lazily: a segment is decompressed only when the iteration
+     * reaches its time range. With {@code notAfter} set, newer entries (and segments) are skipped.
+     */
+    public Iterator<JournalEntry> newestFirst(long userId, LocalDateTime notAfter) {
+        return new NewestFirst(userId, notAfter, segments(userId));
+    }
+
+    /**
+     * Upper bound for the newest archived entry at or before {@code notAfter}, taken from the
+     * segment names alone; nothing is decompressed. Empty when no segment can hold such an entry.
+     */
+    public Optional<LocalDateTime> newestBound(long userId, LocalDateTime notAfter) {
+        long bound = notAfter == null ? Long.MAX_VALUE : millis(notAfter);
+        for (Segment segment : segments(userId)) {
+            if (segment.oldestMillis() > bound) {
+                continue;
+            }
+            // Navnet har millisekunder; rund opp så innlegg med nanosekunder ikke havner over grensen
+            long newestMillis = segment.newestMillis();
+            LocalDateTime newest = LocalDateTime.ofEpochSecond(
+                    Math.floorDiv(newestMillis, 1000), (int) Math.floorMod(newestMillis, 1000) * 1_000_000, ZoneOffset.UTC
+            ).plusNanos(999_999);
+            return Optional.of(notAfter != null && notAfter.isBefore(newest) ? notAfter : newest);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Archived entries whose client id is a key of {@code createdAtByClientId}. Only segments whose
+     * time range covers one of the given {@code created_at} values are read; a re-sent offline entry
+     * carries the same timestamp as the stored one.
+     */
+    public List<JournalEntry> findByClientIds(long userId, Map<String, LocalDateTime> createdAtByClientId) {
+        if (createdAtByClientId.isEmpty()) {
+            return List.of();
+        }
+        List<JournalEntry> found = new ArrayList<>();
+        for (Segment segment : segments(userId)) {
+            boolean covered = createdAtByClientId.values().stream()
+                    .map(JournalArchiveStore::millis)
+                    .anyMatch(at -> at >= segment.oldestMillis() && at <= segment.newestMillis());
+            if (!covered) {
+                continue;
+            }
+            for (JournalEntry entry : read(segment, userId)) {
+                if (entry.getClientId() != null && createdAtByClientId.containsKey(entry.getClientId())) {
+                    found.add(entry);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Deletes every segment of the user (purge).
+     *
+     * @return number of segments deleted
+     */
+    public int delete(long userId) {
+        forget(userId);
+        int deleted = 0;
+        try {
+            for (Segment segment : segments(userId)) {
+                if (Files.deleteIfExists(segment.path())) {
+                    deleted++;
+                }
+            }
+            Path dir = userDirectory(userId);
+            if (Files.isDirectory(dir)) {
+                // Rester etter avbrutte skrivinger
+                try (Stream<Path> leftovers = Files.list(dir)) {
+                    for (Path file : leftovers.toList()) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+                Files.deleteIfExists(dir);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Kunne ikke slette journalarkiv for bruker " + userId, ex);
+        }
+        return deleted;
+    }
+
+    // ------------------------------------------------------
+    // Segmenter
+    // ------------------------------------------------------
+
+    private Path userDirectory(long userId) {
+        return directory.resolve(String.format("%03d", Math.floorMod(userId, 1000))).resolve(Long.toString(userId));
+    }
+
+    /** Segmentene til brukeren, nyeste tidsrom først. */
+    private List<Segment> segments(long userId) {
+        Path dir = userDirectory(userId);
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .filter(p -> p.getFileName().toString().endsWith(SUFFIX))
+                    .map(Segment::parse)
+                    .sorted(Comparator.comparingLong(Segment::newestMillis).reversed())
+                    .toList();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Kunne ikke lese journalarkiv for bruker " + userId, ex);
+        }
+    }
+
+    private void remember(long userId, CachedArchive archive) {
+        int size = archive.entries().size();
+        synchronized (cache) {
+            forget(userId);
+            if (size > cachedEntries) {
+                return;
+            }
+            cache.put(userId, archive);
+            cachedTotal += size;
+            Iterator<CachedArchive> eldest = cache.values().iterator();
+            while (cachedTotal > cachedEntries && eldest.hasNext()) {
+                cachedTotal -= eldest.next().entries().size();
+                eldest.remove();
+            }
+        }
+    }
+
+    private void forget(long userId) {
+        synchronized (cache) {
+            CachedArchive removed = cache.remove(userId);
+            if (removed != null) {
+                cachedTotal -= removed.entries().size();
+            }
+        }
+    }
+
+    private static List<JournalEntry> read(Segment segment, long userId) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(segment.path()))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Ukjent segmentformat: " + segment.path());
+            }
+            int count = in.readInt();
+            List<JournalEntry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                entries.add(read(in, userId));
+            }
+            return entries;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Kunne ikke lese journalsegment " + segment.path(), ex);
+        }
+    }
+
+    private static void write(DataOutputStream out, JournalEntry entry) throws IOException {
+        out.writeLong(entry.getId());
+        out.writeInt(entry.getPhase() == null ? 0 : entry.getPhase());
+        out.writeLong(entry.getCreatedAt().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(entry.getCreatedAt().getNano());
+        out.writeBoolean(entry.getClientId() != null);
+        if (entry.getClientId() != null) {
+            out.writeUTF(entry.getClientId());
+        }
+        byte[] content = entry.getContent() == null ? new byte[0] : entry.getContent().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(content.length);
+        out.write(content);
+    }
+
+    private static JournalEntry read(DataInputStream in, long userId) throws IOException {
+        long id = in.readLong();
+        int phase = in.readInt();
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        String clientId = in.readBoolean() ? in.readUTF() : null;
+        byte[] content = new byte[in.readInt()];
+        in.readFully(content);
+        return JournalEntry.builder()
+                .id(id)
+                .userId(userId)
+                .phase(phase == 0 ? null : phase)
+                .createdAt(createdAt)
+                .clientId(clientId)
+                .content(new String(content, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private static void forceDirectory(Path dir) {
+        // Gjør selve navnebyttet varig; ikke støttet på alle plattformer
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+            // best effort
+        }
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private record CachedArchive(List<String> segments, List<JournalEntry> entries) {
+    }
+
+    private record Segment(Path path, long newestMillis, long oldestMillis) {
+
+        static Segment parse(Path path) {
+            String[] parts = path.getFileName().toString().split("_");
+            return new Segment(path, Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        }
+    }
+
+    // ------------------------------------------------------
+    // Lat fletting av segmenter som kan overlappe i tid
+    // ------------------------------------------------------
+
+    private static final class NewestFirst implements Iterator<JournalEntry> {
+
+        private final long userId;
+        private final LocalDateTime notAfter;
+        private final Deque<Segment> pending;
+        private final PriorityQueue<JournalEntry> heap = new PriorityQueue<>(NEWEST_FIRST);
+        private final Set<Long> seen = new HashSet<>();
+        private JournalEntry next;
+
+        NewestFirst(long userId, LocalDateTime notAfter, List<Segment> segments) {
+            this.userId = userId;
+            this.notAfter = notAfter;
+            this.pending = new ArrayDeque<>();
+            long bound = notAfter == null ? Long.MAX_VALUE : millis(notAfter);
+            for (Segment segment : segments) {
+                if (segment.oldestMillis() <= bound) {
+                    pending.add(segment);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                // Last inn alle segmenter som kan ha noe nyere enn det nyeste vi har i minnet
+                while (!pending.isEmpty()
+                        && (heap.isEmpty() || pending.peekFirst().newestMillis() >= millis(heap.peek().getCreatedAt()))) {
+                    for (JournalEntry entry : read(pending.pollFirst(), userId)) {
+                        if (notAfter == null || !entry.getCreatedAt().isAfter(notAfter)) {
+                            heap.add(entry);
+                        }
+                    }
+                }
+                if (heap.isEmpty()) {
+                    return false;
+                }
+                JournalEntry candidate = heap.poll();
+                if (seen.add(candidate.getId())) {
+                    next = candidate;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public JournalEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            JournalEntry result = next;
+            next = null;
+            return result;
+        }
+    }
+}
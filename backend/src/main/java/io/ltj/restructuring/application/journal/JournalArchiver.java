@@ -0,0 +1,160 @@
+package io.ltj.restructuring.application.journal;
+
+import io.ltj.restructuring.persistence.DatabaseProduct;
+import io.ltj.restructuring.scheduling.JobLeadership;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves journal entries older than {@code journal.archive.older-than} from
+ * {@code res_journal_entry} into {@link JournalArchiveStore}, one user and one segment at a time.
+ * <p>
+ * The segment is made durable before the rows are deleted, so a crash in between leaves the
+ * entry in both tiers (readers drop the duplicate) and never loses it. The delete runs with
+ * {@code restructuring.archiving} set, which tells the V28 triggers that the entry was moved,
+ * not deleted: no sync tombstone, and the client id stays reserved for dedupe.
+ */
+public class JournalArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalArchiver.class);
+
+    static final String JOB = "journal-archive";
+
+    static final int USER_BATCH = 500;
+
+    private static final RowMapper<JournalEntry> ENTRY_MAPPER = (rs, rowNum) -> JournalEntry.builder()
+            .id(rs.getLong("id"))
+            .userId(rs.getLong("user_id"))
+            .phase(rs.getInt("phase"))
+            .content(rs.getString("content"))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .clientId(rs.getString("client_id"))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseProduct databaseProduct;
+    private final JournalArchiveStore store;
+    private final JournalArchiveProperties properties;
+    private final JobLeadership jobLeadership;
+
+    public JournalArchiver(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            DatabaseProduct databaseProduct,
+            JournalArchiveStore store,
+            JournalArchiveProperties properties,
+            JobLeadership jobLeadership
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.databaseProduct = databaseProduct;
+        this.store = store;
+        this.properties = properties;
+        this.jobLeadership = jobLeadership;
+    }
+
+    @Scheduled(cron = "${journal.archive.cron:0 45 3 * * *}")
+    public void run() {
+        if (!jobLeadership.isLeader(JOB)) {
+            return;
+        }
+        try {
+            archive(LocalDateTime.now().minus(properties.getOlderThan()));
+        } catch (RuntimeException ex) {
+            // Det som er flyttet er flyttet; resten tas neste natt
+            log.atError().setCause(ex).log("Journal archiving failed");
+        }
+    }
+
+    /**
+     * Archives every entry created before {@code cutoff}.
+     *
+     * @return number of entries moved
+     */
+    public long archive(LocalDateTime cutoff) {
+        Timestamp before = Timestamp.valueOf(cutoff);
+        long lastUserId = 0;
+        long moved = 0;
+        int users = 0;
+
+        while (true) {
+            List<Long> userIds = jdbcTemplate.queryForList(
+                    "SELECT DISTINCT user_id FROM res_journal_entry " +
+                            "WHERE created_at < ? AND user_id > ? " +
+                            // Brukere som slettes skal ikke få nye segmenter
+                            "AND user_id NOT IN (SELECT user_id FROM res_user_purge) " +
+                            "ORDER BY user_id LIMIT ?",
+                    Long.class, before, lastUserId, USER_BATCH
+            );
+            if (userIds.isEmpty()) {
+                break;
+            }
+            for (Long userId : userIds) {
+                moved += archiveUser(userId, before);
+            }
+            users += userIds.size();
+            lastUserId = userIds.get(userIds.size() - 1);
+        }
+
+        if (moved > 0) {
+            log.atInfo()
+                    .addKeyValue("users", users)
+                    .addKeyValue("entries", moved)
+                    .addKeyValue("cutoff", cutoff)
+                    .log("Archived journal entries");
+        }
+        return moved;
+    }
+
+    private long archiveUser(long userId, Timestamp before) {
+        int segmentSize = Math.max(1, properties.getMaxSegmentEntries());
+        long moved = 0;
+
+        while (true) {
+            List<JournalEntry> entries = jdbcTemplate.query(
+                    "SELECT id, user_id, phase, content, created_at, client_id FROM res_journal_entry " +
+                            "WHERE user_id = ? AND created_at < ? ORDER BY created_at, id LIMIT ?",
+                    ENTRY_MAPPER, userId, before, segmentSize
+            );
+            if (entries.isEmpty()) {
+                return moved;
+            }
+
+            store.append(userId, entries);
+
+            Long[] ids = entries.stream().map(JournalEntry::getId).toArray(Long[]::new);
+            transactionTemplate.executeWithoutResult(status -> {
+                if (databaseProduct.isPostgres()) {
+                    jdbcTemplate.queryForObject(
+                            "SELECT set_config('restructuring.archiving', 'on', true)", String.class);
+                }
+                // created_at i filteret gjør at bare de gamle partisjonene berøres
+                jdbcTemplate.update(
+                        "DELETE FROM res_journal_entry WHERE user_id = ? AND created_at < ? AND id = ANY (?)",
+                        ps -> {
+                            ps.setLong(1, userId);
+                            ps.setTimestamp(2, before);
+                            ps.setArray(3, ps.getConnection().createArrayOf("bigint", ids));
+                        }
+                );
+            });
+            // Ingen cache-invalidering: journal, profil og tidslinje fletter inn arkivet (og hopper over
+            // dubletter), så svaret er det samme før og etter flyttingen. Arkivets lesecache ser det
+            // nye segmentet på filnavnet, og profil-dokumentet oppdateres av triggerne ved DELETE.
+            moved += entries.size();
+
+            if (entries.size() < segmentSize) {
+                return moved;
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package io.ltj.restructuring.application.journal;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Body for {@code POST /api/journal/batch}: entries written offline, replayed in one call.
+ */
+@Data
+public class JournalBatchRequest {
+
+    private List<Entry> entries;
+
+    @Data
+    public static class Entry {
+        /** Klientgenerert, unik per bruker (f.eks. UUID). Samme id to ganger lagres én gang. */
+        private String clientId;
+        private Integer phase;
+        private String content;
+        /** Når innlegget ble skrevet på enheten; mangler eller i fremtiden -> nå. */
+        private LocalDateTime createdAt;
+    }
+}
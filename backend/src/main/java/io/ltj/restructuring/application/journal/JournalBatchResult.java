@@ -0,0 +1,28 @@
+package io.ltj.restructuring.application.journal;
+
+/**
+ * Outcome for one entry of a batch, in request order.
+ *
+ * @param id    server id; set for CREATED and DUPLICATE
+ * @param error reason; set for INVALID
+ */
+public record JournalBatchResult(String clientId, Status status, Long id, String error) {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID
+    }
+
+    static JournalBatchResult created(String clientId, Long id) {
+        return new JournalBatchResult(clientId, Status.CREATED, id, null);
+    }
+
+    static JournalBatchResult duplicate(String clientId, Long id) {
+        return new JournalBatchResult(clientId, Status.DUPLICATE, id, null);
+    }
+
+    static JournalBatchResult invalid(String clientId, String error) {
+        return new JournalBatchResult(clientId, Status.INVALID, null, error);
+    }
+}
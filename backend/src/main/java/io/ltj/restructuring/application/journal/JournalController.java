@@ -2,8 +2,11 @@ package io.ltj.restructuring.application.journal;
 
 import io.ltj.restructuring.application.auth.AuthUser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -23,6 +26,34 @@ public class JournalController {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Offline-synk: mange innlegg i ett kall og én transaksjon. Resultat per innlegg i samme
+     * rekkefølge; trygt å sende på nytt (dedupliseres på clientId).
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<JournalBatchResult>> syncBatch(
+            @RequestBody JournalBatchRequest req,
+            @AuthUser Long userId
+    ) {
+        if (userId == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        try {
+            return ResponseEntity.ok(syncOnce(req, userId));
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
+
+    private List<JournalBatchResult> syncOnce(JournalBatchRequest req, Long userId) {
+        try {
+            return service.syncBatch(req.getEntries(), userId);
+        } catch (DataIntegrityViolationException ex) {
+            // Samme batch sendt to ganger samtidig: den andre ser nå radene som finnes og gir DUPLICATE
+            return service.syncBatch(req.getEntries(), userId);
+        }
+    }
+
     @GetMapping("/all")
     public ResponseEntity<List<JournalEntry>> getAll(@AuthUser Long userId) {
         return ResponseEntity.ok(service.getAll(userId));
@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 public class JournalEntry {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "res_journal_entry_seq")
+    @SequenceGenerator(name = "res_journal_entry_seq", sequenceName = "res_journal_entry_seq", allocationSize = 50)
     private Long id;
 
     private Long userId;
@@ -26,4 +27,8 @@ public class JournalEntry {
     private String content;
 
     private LocalDateTime createdAt;
+
+    /** Klientgenerert id for innlegg skrevet offline; brukes til deduplisering. */
+    @Column(name = "client_id", length = 64)
+    private String clientId;
 }
@@ -1,8 +1,11 @@
 package io.ltj.restructuring.application.journal;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.Collection;
 import java.util.List;
 
 public interface JournalEntryRepository extends JpaRepository<JournalEntry, Long> {
     List<JournalEntry> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    List<JournalEntry> findByUserIdAndClientIdIn(Long userId, Collection<String> clientIds);
 }
@@ -0,0 +1,65 @@
+package io.ltj.restructuring.application.journal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link JournalGroupCommitWriter}. Off by default.
+ */
+@ConfigurationProperties(prefix = "journal.group-commit")
+public class JournalGroupCommitProperties {
+
+    private boolean enabled = false;
+
+    /** Hvor lenge skriveren venter på flere innlegg etter det første i en batch. */
+    private Duration maxWait = Duration.ofMillis(5);
+
+    private int maxBatch = 100;
+
+    /** Full kø: kallet skriver direkte i stedet for å vente. */
+    private int queueCapacity = 10_000;
+
+    /** Hvor lenge et kall venter på at skriveren committer innlegget før det gir opp (503). */
+    private Duration resultTimeout = Duration.ofSeconds(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    public int getMaxBatch() {
+        return maxBatch;
+    }
+
+    public void setMaxBatch(int maxBatch) {
+        this.maxBatch = maxBatch;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Duration getResultTimeout() {
+        return resultTimeout;
+    }
+
+    public void setResultTimeout(Duration resultTimeout) {
+        this.resultTimeout = resultTimeout;
+    }
+}
@@ -1,15 +1,37 @@
 package io.ltj.restructuring.application.journal;
 
+import io.ltj.restructuring.cache.CacheInvalidationBus;
+import io.ltj.restructuring.cache.CacheRegions;
+import io.ltj.restructuring.persistence.ReadYourWritesGuard;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @RequiredArgsConstructor
 public class JournalService {
 
     private final JournalEntryRepository repository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ObjectProvider<JournalGroupCommitWriter> groupCommitWriter;
+    private final ObjectProvider<ReadYourWritesGuard> readYourWritesGuard;
+    private final JournalArchiveStore archiveStore;
 
     public JournalEntry addEntry(JournalEntryRequest req, Long userId) {
         JournalEntry entry = JournalEntry.builder()
@@ -19,13 +41,214 @@ public class JournalService {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        return repository.save(entry);
+        JournalEntry saved = groupCommit(entry);
+        if (saved == null) {
+            saved = repository.save(entry);
+        }
+        cacheInvalidationBus.invalidate(CacheRegions.JOURNAL, userId);
+        return saved;
+    }
+
+    /**
+     * Writes via the group-commit writer when it is enabled. Returns {@code null} when the
+     * caller must save directly (writer off, queue full, or already inside a transaction
+     * whose commit the entry must be part of).
+     */
+    private JournalEntry groupCommit(JournalEntry entry) {
+        JournalGroupCommitWriter writer = groupCommitWriter.getIfAvailable();
+        if (writer == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null;
+        }
+        CompletableFuture<JournalEntry> future = writer.submit(entry);
+        if (future == null) {
+            return null;
+        }
+
+        JournalEntry saved;
+        try {
+            saved = future.get(writer.resultTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            // Innlegget kan fortsatt bli skrevet av skrivetråden; ikke lagre det en gang til her
+            throw new DataAccessResourceFailureException("Journal group commit did not finish in time", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessResourceFailureException("Interrupted while waiting for journal group commit", ex);
+        }
+        // Skrivetråden har ingen innlogget bruker; registrer skrivingen for replika-rutingen her
+        readYourWritesGuard.ifAvailable(guard -> guard.recordWrite(entry.getUserId()));
+        return saved;
+    }
+
+    /**
+     * Bulk variant: one transaction, and with sequence ids Hibernate sends the rows
+     * as JDBC batches (hibernate.jdbc.batch_size) instead of one round-trip per row.
+     */
+    @Transactional
+    public List<JournalEntry> addEntries(List<JournalEntryRequest> requests, Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<JournalEntry> entries = requests.stream()
+                .map(req -> JournalEntry.builder()
+                        .content(req.getContent())
+                        .phase(req.getPhase())
+                        .userId(userId)
+                        .createdAt(now)
+                        .build())
+                .toList();
+
+        List<JournalEntry> saved = repository.saveAll(entries);
+        cacheInvalidationBus.invalidate(CacheRegions.JOURNAL, userId);
+        return saved;
+    }
+
+    // ------------------------------------------------------
+    // Offline-synk
+    // ------------------------------------------------------
+
+    static final int MAX_BATCH = 500;
+    static final int MAX_CLIENT_ID_LENGTH = 64;
+    static final int MAX_CONTENT_LENGTH = 4000;
+
+    /**
+     * Stores entries written offline in one transaction. Entries are deduplicated on
+     * {@code clientId}: one already stored (earlier sync) or repeated in the same batch
+     * comes back as DUPLICATE with the existing id. Invalid entries are reported per entry
+     * and do not stop the rest. Results are in request order.
+     *
+     * @throws IllegalArgumentException if the batch is larger than {@value #MAX_BATCH}
+     */
+    @Transactional
+    public List<JournalBatchResult> syncBatch(List<JournalBatchRequest.Entry> batch, Long userId) {
+        if (batch == null || batch.isEmpty()) {
+            return List.of();
+        }
+        if (batch.size() > MAX_BATCH) {
+            throw new IllegalArgumentException("Maks " + MAX_BATCH + " innlegg per synk");
+        }
+
+        int n = batch.size();
+        JournalBatchResult[] results = new JournalBatchResult[n];
+        Map<String, Integer> firstIndex = new HashMap<>();
+
+        for (int i = 0; i < n; i++) {
+            JournalBatchRequest.Entry entry = batch.get(i);
+            String error = validate(entry);
+            if (error != null) {
+                results[i] = JournalBatchResult.invalid(entry == null ? null : entry.getClientId(), error);
+            } else {
+                firstIndex.putIfAbsent(entry.getClientId(), i);
+            }
+        }
+
+        Map<String, Long> stored = new HashMap<>();
+        if (!firstIndex.isEmpty()) {
+            for (JournalEntry existing : repository.findByUserIdAndClientIdIn(userId, firstIndex.keySet())) {
+                stored.put(existing.getClientId(), existing.getId());
+            }
+            // Et gammelt innlegg kan allerede være flyttet til arkivet
+            Map<String, LocalDateTime> notInTable = new HashMap<>();
+            firstIndex.forEach((clientId, index) -> {
+                LocalDateTime createdAt = batch.get(index).getCreatedAt();
+                if (!stored.containsKey(clientId) && createdAt != null) {
+                    notInTable.put(clientId, createdAt);
+                }
+            });
+            for (JournalEntry archived : archiveStore.findByClientIds(userId, notInTable)) {
+                stored.putIfAbsent(archived.getClientId(), archived.getId());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<JournalEntry> toInsert = new ArrayList<>();
+        Set<String> inserting = new LinkedHashSet<>();
+        for (Map.Entry<String, Integer> first : firstIndex.entrySet()) {
+            if (stored.containsKey(first.getKey())) {
+                continue;
+            }
+            JournalBatchRequest.Entry entry = batch.get(first.getValue());
+            LocalDateTime createdAt = entry.getCreatedAt();
+            toInsert.add(JournalEntry.builder()
+                    .clientId(entry.getClientId())
+                    .content(entry.getContent())
+                    .phase(entry.getPhase())
+                    .userId(userId)
+                    .createdAt(createdAt == null || createdAt.isAfter(now) ? now : createdAt)
+                    .build());
+            inserting.add(entry.getClientId());
+        }
+
+        if (!toInsert.isEmpty()) {
+            // Sekvens-id-er + hibernate.jdbc.batch_size: én batch i stedet for én INSERT per rad
+            for (JournalEntry saved : repository.saveAll(toInsert)) {
+                stored.put(saved.getClientId(), saved.getId());
+            }
+            cacheInvalidationBus.invalidate(CacheRegions.JOURNAL, userId);
+        }
+
+        for (int i = 0; i < n; i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            String clientId = batch.get(i).getClientId();
+            Long id = stored.get(clientId);
+            boolean createdHere = firstIndex.get(clientId) == i && inserting.contains(clientId);
+            results[i] = createdHere
+                    ? JournalBatchResult.created(clientId, id)
+                    : JournalBatchResult.duplicate(clientId, id);
+        }
+        return List.of(results);
     }
 
+    private static String validate(JournalBatchRequest.Entry entry) {
+        if (entry == null) {
+            return "Tomt innlegg";
+        }
+        String clientId = entry.getClientId();
+        if (clientId == null || clientId.isBlank()) {
+            return "clientId mangler";
+        }
+        if (clientId.length() > MAX_CLIENT_ID_LENGTH) {
+            return "clientId er lengre enn " + MAX_CLIENT_ID_LENGTH + " tegn";
+        }
+        if (entry.getPhase() == null || entry.getPhase() < 1 || entry.getPhase() > 4) {
+            return "phase må være 1-4";
+        }
+        if (entry.getContent() == null || entry.getContent().isBlank()) {
+            return "content mangler";
+        }
+        if (entry.getContent().length() > MAX_CONTENT_LENGTH) {
+            return "content er lengre enn " + MAX_CONTENT_LENGTH + " tegn";
+        }
+        return null;
+    }
+
+    /**
+     * All entries for the user, newest first, including those moved to the archive tier.
+     */
     public java.util.List<JournalEntry> getAll(Long userId) {
         if (userId == null) {
             return java.util.List.of();
         }
-        return repository.findByUserIdOrderByCreatedAtDesc(userId);
+        List<JournalEntry> hot = repository.findByUserIdOrderByCreatedAtDesc(userId);
+        List<JournalEntry> archived = archiveStore.readAll(userId);
+        if (archived.isEmpty()) {
+            return hot;
+        }
+
+        // Arkivet er nesten alltid eldst, men innlegg synket sent kan ha eldre created_at
+        Set<Long> hotIds = new HashSet<>();
+        hot.forEach(entry -> hotIds.add(entry.getId()));
+        List<JournalEntry> merged = new ArrayList<>(hot);
+        for (JournalEntry entry : archived) {
+            if (!hotIds.contains(entry.getId())) {
+                merged.add(entry);
+            }
+        }
+        merged.sort(JournalArchiveStore.NEWEST_FIRST);
+        return merged;
     }
 }
@@ -5,6 +5,8 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.ltj.restructuring.api.dto.plan.UserPlanDto;
 import io.ltj.restructuring.api.dto.plan.UserPlanUpdateRequestDto;
+import io.ltj.restructuring.cache.CacheInvalidationBus;
+import io.ltj.restructuring.cache.CacheRegions;
 import io.ltj.restructuring.domain.user.UserPlanEntity;
 import io.ltj.restructuring.domain.user.UserPlanRepository;
 import java.time.Instant;
@@ -25,9 +27,14 @@ public class UserPlanApplicationService {
             new TypeReference<Map<String, String>>() { };
 
     private final UserPlanRepository userPlanRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
-    public UserPlanApplicationService(UserPlanRepository userPlanRepository) {
+    public UserPlanApplicationService(
+            UserPlanRepository userPlanRepository,
+            CacheInvalidationBus cacheInvalidationBus
+    ) {
         this.userPlanRepository = userPlanRepository;
+        this.cacheInvalidationBus = cacheInvalidationBus;
     }
 
     @Transactional(readOnly = true)
@@ -56,6 +63,7 @@ public class UserPlanApplicationService {
         entity.setDiary(serializeDiaryMap(diaries));
 
         UserPlanEntity saved = userPlanRepository.save(entity);
+        cacheInvalidationBus.invalidate(CacheRegions.PLAN, userId);
         return toDto(saved);
     }
 
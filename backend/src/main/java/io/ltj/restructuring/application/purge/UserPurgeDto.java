@@ -0,0 +1,20 @@
+package io.ltj.restructuring.application.purge;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of one user purge, as shown to admins.
+ */
+public record UserPurgeDto(
+        long userId,
+        UserPurgeStatus status,
+        String step,
+        long deletedRows,
+        int attempts,
+        Long requestedBy,
+        LocalDateTime requestedAt,
+        LocalDateTime startedAt,
+        LocalDateTime completedAt,
+        String lastError
+) {
+}
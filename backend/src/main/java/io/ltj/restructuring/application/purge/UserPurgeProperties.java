@@ -0,0 +1,107 @@
+package io.ltj.restructuring.application.purge;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link UserPurgeWorker}.
+ */
+@ConfigurationProperties(prefix = "user-purge")
+public class UserPurgeProperties {
+
+    private boolean enabled = true;
+
+    /** Første bitstørrelse; justeres mellom min og max etter hvor lang tid hver bit tar. */
+    private int chunkSize = 500;
+
+    private int minChunkSize = 50;
+
+    private int maxChunkSize = 5_000;
+
+    /** Bitene krympes når én DELETE tar lengre tid enn dette (låser holdes kort). */
+    private Duration targetChunkTime = Duration.ofMillis(100);
+
+    /** Pause mellom bitene. */
+    private Duration pause = Duration.ofMillis(20);
+
+    /** Pause mens live-trafikken bruker mer enn sin del av samtidighetsgrensen. */
+    private Duration busyPause = Duration.ofMillis(500);
+
+    /** En node som har tatt en sletting eier den så lenge; fornyes for hver bit. */
+    private Duration lease = Duration.ofMinutes(5);
+
+    private int maxAttempts = 5;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getMinChunkSize() {
+        return minChunkSize;
+    }
+
+    public void setMinChunkSize(int minChunkSize) {
+        this.minChunkSize = minChunkSize;
+    }
+
+    public int getMaxChunkSize() {
+        return maxChunkSize;
+    }
+
+    public void setMaxChunkSize(int maxChunkSize) {
+        this.maxChunkSize = maxChunkSize;
+    }
+
+    public Duration getTargetChunkTime() {
+        return targetChunkTime;
+    }
+
+    public void setTargetChunkTime(Duration targetChunkTime) {
+        this.targetChunkTime = targetChunkTime;
+    }
+
+    public Duration getPause() {
+        return pause;
+    }
+
+    public void setPause(Duration pause) {
+        this.pause = pause;
+    }
+
+    public Duration getBusyPause() {
+        return busyPause;
+    }
+
+    public void setBusyPause(Duration busyPause) {
+        this.busyPause = busyPause;
+    }
+
+    public Duration getLease() {
+        return lease;
+    }
+
+    public void setLease(Duration lease) {
+        this.lease = lease;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+}
@@ -0,0 +1,92 @@
+package io.ltj.restructuring.application.purge;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Orders and reports user purges. The deleting itself is done by {@link UserPurgeWorker}.
+ */
+@Service
+public class UserPurgeService {
+
+    private static final RowMapper<UserPurgeDto> MAPPER = (rs, rowNum) -> new UserPurgeDto(
+            rs.getLong("user_id"),
+            UserPurgeStatus.valueOf(rs.getString("status")),
+            rs.getString("step"),
+            rs.getLong("deleted_rows"),
+            rs.getInt("attempts"),
+            rs.getObject("requested_by", Long.class),
+            toLocal(rs.getTimestamp("requested_at")),
+            toLocal(rs.getTimestamp("started_at")),
+            toLocal(rs.getTimestamp("completed_at")),
+            rs.getString("last_error")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+
+    public UserPurgeService(JdbcTemplate jdbcTemplate, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+    }
+
+    /**
+     * Orders a purge of {@code userId}. Idempotent: an existing purge is returned as is, and a
+     * {@link UserPurgeStatus#FAILED FAILED} one is queued again from the step it stopped at.
+     * Empty if there is neither such a user nor an earlier purge of it.
+     */
+    public Optional<UserPurgeDto> request(long userId, Long requestedBy) {
+        Optional<UserPurgeDto> existing = find(userId);
+        if (existing.isPresent()) {
+            if (existing.get().status() == UserPurgeStatus.FAILED) {
+                jdbcTemplate.update(
+                        "UPDATE res_user_purge SET status = 'PENDING', attempts = 0, last_error = NULL, " +
+                                "lease_until = NULL, claim_token = NULL, updated_at = ? WHERE user_id = ? AND status = 'FAILED'",
+                        now(), userId
+                );
+                return find(userId);
+            }
+            return existing;
+        }
+
+        Integer users = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM res_users WHERE id = ?", Integer.class, userId);
+        if (users == null || users == 0) {
+            return Optional.empty();
+        }
+
+        Timestamp now = now();
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO res_user_purge (user_id, status, step, requested_by, requested_at, updated_at) " +
+                            "VALUES (?, 'PENDING', ?, ?, ?, ?)",
+                    userId, UserPurgeStep.values()[0].name(), requestedBy, now, now
+            );
+        } catch (DuplicateKeyException ex) {
+            // Bestilt samtidig fra en annen forespørsel
+        }
+        return find(userId);
+    }
+
+    public Optional<UserPurgeDto> find(long userId) {
+        List<UserPurgeDto> rows = jdbcTemplate.query(
+                "SELECT * FROM res_user_purge WHERE user_id = ?", MAPPER, userId);
+        return rows.stream().findFirst();
+    }
+
+    private Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now(clock));
+    }
+
+    private static LocalDateTime toLocal(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
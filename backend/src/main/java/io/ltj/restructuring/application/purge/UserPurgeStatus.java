@@ -0,0 +1,9 @@
+package io.ltj.restructuring.application.purge;
+
+public enum UserPurgeStatus {
+    PENDING,
+    RUNNING,
+    DONE,
+    /** Ga opp etter {@code user-purge.max-attempts}; kan bestilles på nytt. */
+    FAILED
+}
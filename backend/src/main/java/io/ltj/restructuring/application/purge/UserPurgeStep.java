@@ -0,0 +1,58 @@
+package io.ltj.restructuring.application.purge;
+
+/**
+ * The order a user's data is deleted in: dependants first, the {@code res_users} row last.
+ * <p>
+ * Table steps are deleted in chunks of rows picked by {@code chunkKey} (unique per user),
+ * one short transaction per chunk. A step is only left once it deletes less than a full
+ * chunk, so re-running a step after a crash is harmless.
+ */
+enum UserPurgeStep {
+
+    /** Klient-id-er beholdt for arkiverte innlegg (kun Postgres, V27). */
+    JOURNAL_CLIENT_ID("res_journal_client_id", "client_id", true),
+    JOURNAL("res_journal_entry", "id", false),
+    /** Segmentfilene til journalarkivet (disk, ikke database); etter tabellen, så arkiveren ikke finner mer å flytte. */
+    JOURNAL_ARCHIVE(null, null, false),
+    INSURANCE_REQUEST("insurance_request", "id", false),
+    LEGACY_INSURANCE_REQUEST("res_insurance_request", "id", false),
+    /** Snapshot-typene følger med via ON DELETE CASCADE. */
+    INSURANCE_SNAPSHOT("res_insurance_snapshot", "id", false),
+    INSURANCE_PROFILE("res_user_insurance_profile", "id", false),
+    PLAN("res_user_plans", "id", false),
+    SYNC_CHANGE("res_sync_change", "version", false),
+    SYNC_COUNTER("res_sync_counter", "user_id", false),
+    /** Selve brukeren; profil-dokumentet følger med via ON DELETE CASCADE. */
+    USER(null, null, false),
+    COMPLETE(null, null, false);
+
+    private final String table;
+    private final String chunkKey;
+    private final boolean postgresOnly;
+
+    UserPurgeStep(String table, String chunkKey, boolean postgresOnly) {
+        this.table = table;
+        this.chunkKey = chunkKey;
+        this.postgresOnly = postgresOnly;
+    }
+
+    boolean isTableStep() {
+        return table != null;
+    }
+
+    boolean postgresOnly() {
+        return postgresOnly;
+    }
+
+    /** Sletter neste bit: parametre {@code (userId, userId, chunkSize)}. */
+    String chunkDeleteSql() {
+        return "DELETE FROM " + table + " WHERE user_id = ? AND " + chunkKey + " IN ("
+                + "SELECT " + chunkKey + " FROM " + table + " WHERE user_id = ? "
+                + "ORDER BY " + chunkKey + " LIMIT ?)";
+    }
+
+    UserPurgeStep next() {
+        UserPurgeStep[] steps = values();
+        return this == COMPLETE ? COMPLETE : steps[ordinal() + 1];
+    }
+}
@@ -0,0 +1,414 @@
+package io.ltj.restructuring.application.purge;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.ltj.restructuring.application.journal.JournalArchiveStore;
+import io.ltj.restructuring.cache.CacheInvalidationBus;
+import io.ltj.restructuring.cache.CacheRegions;
+import io.ltj.restructuring.persistence.DatabaseProduct;
+import io.ltj.restructuring.resilience.AdaptiveConcurrencyLimiter;
+import io.ltj.restructuring.resilience.RequestPriority;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Deletes the data of users queued by {@link UserPurgeService}, one {@link UserPurgeStep} at a
+ * time and each table in chunks, so no transaction holds locks for long even for heavy users.
+ * <p>
+ * Progress (step and row count) is written in the same transaction as each chunk, so a purge
+ * that stops (crash, deploy, lost lease) continues where it was on the next claim. A purge is
+ * claimed with a lease; another node only takes over after the lease has expired. Each claim
+ * gets a fresh token that every later update of the purge row must match, so a node that lost
+ * its lease rolls back its chunk instead of writing over the new owner's progress.
+ * <p>
+ * Live traffic comes first: chunks shrink when a DELETE gets slow, there is a pause between
+ * chunks, and the worker waits while requests use more than the ADMIN share of the adaptive
+ * concurrency limit. A finished purge writes a {@code USER_PURGED} row to {@code res_audit_event}.
+ */
+@Component
+public class UserPurgeWorker implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(UserPurgeWorker.class);
+
+    static final String AUDIT_EVENT = "USER_PURGED";
+
+    private static final int CLAIM_CANDIDATES = 5;
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseProduct databaseProduct;
+    private final JournalArchiveStore archiveStore;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ObjectProvider<AdaptiveConcurrencyLimiter> limiter;
+    private final UserPurgeProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    private final AtomicBoolean busy = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "user-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UserPurgeWorker(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            DatabaseProduct databaseProduct,
+            JournalArchiveStore archiveStore,
+            CacheInvalidationBus cacheInvalidationBus,
+            ObjectProvider<AdaptiveConcurrencyLimiter> limiter,
+            UserPurgeProperties properties,
+            ObjectMapper objectMapper,
+            Clock clock
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.databaseProduct = databaseProduct;
+        this.archiveStore = archiveStore;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.limiter = limiter;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    /** Starter en runde på egen tråd, så lange slettinger ikke blokkerer andre planlagte jobber. */
+    @Scheduled(fixedDelayString = "${user-purge.poll-interval:PT10S}")
+    public void poll() {
+        if (!properties.isEnabled() || !busy.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    drain();
+                } finally {
+                    busy.set(false);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            busy.set(false);
+        }
+    }
+
+    /**
+     * Runs every purge that can be claimed right now, on the calling thread.
+     *
+     * @return number of purges completed
+     */
+    public int drain() {
+        int completed = 0;
+        Claim claim;
+        while (!Thread.currentThread().isInterrupted() && (claim = claimNext()) != null) {
+            if (process(claim)) {
+                completed++;
+            }
+        }
+        return completed;
+    }
+
+    // ------------------------------------------------------
+    // Claim
+    // ------------------------------------------------------
+
+    private Claim claimNext() {
+        Timestamp now = now();
+        List<Long> candidates = jdbcTemplate.queryForList(
+                "SELECT user_id FROM res_user_purge " +
+                        "WHERE status IN ('PENDING', 'RUNNING') AND (lease_until IS NULL OR lease_until < ?) " +
+                        "ORDER BY requested_at, user_id LIMIT ?",
+                Long.class, now, CLAIM_CANDIDATES
+        );
+        for (Long userId : candidates) {
+            // Samme betingelse igjen: bare én node får oppdatert raden
+            String token = UUID.randomUUID().toString();
+            int claimed = jdbcTemplate.update(
+                    "UPDATE res_user_purge SET status = 'RUNNING', attempts = attempts + 1, claim_token = ?, " +
+                            "lease_until = ?, started_at = COALESCE(started_at, ?), updated_at = ? " +
+                            "WHERE user_id = ? AND status IN ('PENDING', 'RUNNING') " +
+                            "AND (lease_until IS NULL OR lease_until < ?)",
+                    token, leaseUntil(), now, now, userId, now
+            );
+            if (claimed == 1) {
+                return new Claim(userId, token);
+            }
+        }
+        return null;
+    }
+
+    // ------------------------------------------------------
+    // Sletting
+    // ------------------------------------------------------
+
+    private boolean process(Claim claim) {
+        long userId = claim.userId();
+        UserPurgeStep step = UserPurgeStep.valueOf(jdbcTemplate.queryForObject(
+                "SELECT step FROM res_user_purge WHERE user_id = ?", String.class, userId));
+        int chunk = Math.max(properties.getMinChunkSize(), Math.min(properties.getMaxChunkSize(), properties.getChunkSize()));
+
+        try {
+            while (step != UserPurgeStep.COMPLETE) {
+                chunk = runStep(claim, step, chunk);
+                step = step.next();
+                requireOwner(jdbcTemplate.update(
+                        "UPDATE res_user_purge SET step = ?, lease_until = ?, updated_at = ? " +
+                                "WHERE user_id = ? AND claim_token = ?",
+                        step.name(), leaseUntil(), now(), userId, claim.token()
+                ));
+            }
+            complete(claim);
+            return true;
+        } catch (Interrupted ex) {
+            // Stopper ved nedstenging; leasen går ut og jobben fortsetter senere
+            log.atInfo().addKeyValue("userId", userId).addKeyValue("step", step).log("User purge paused");
+            return false;
+        } catch (LeaseLost ex) {
+            // En annen node eier slettingen nå; biten vår er rullet tilbake
+            log.atWarn().addKeyValue("userId", userId).addKeyValue("step", step).log("User purge lease lost");
+            return false;
+        } catch (RuntimeException ex) {
+            failed(claim, step, ex);
+            return false;
+        }
+    }
+
+    /** @return chunk size to start the next step with */
+    private int runStep(Claim claim, UserPurgeStep step, int chunk) {
+        long userId = claim.userId();
+        switch (step) {
+            case JOURNAL_ARCHIVE -> {
+                int segments = archiveStore.delete(userId);
+                if (segments > 0) {
+                    log.atInfo().addKeyValue("userId", userId).addKeyValue("segments", segments)
+                            .log("Deleted journal archive segments");
+                }
+                return chunk;
+            }
+            case USER -> {
+                transactionTemplate.executeWithoutResult(status -> {
+                    markPurging();
+                    int deleted = jdbcTemplate.update("DELETE FROM res_users WHERE id = ?", userId);
+                    recordProgress(claim, deleted);
+                });
+                return chunk;
+            }
+            default -> {
+                if (!step.isTableStep() || (step.postgresOnly() && !databaseProduct.isPostgres())) {
+                    return chunk;
+                }
+                return deleteInChunks(claim, step, chunk);
+            }
+        }
+    }
+
+    private int deleteInChunks(Claim claim, UserPurgeStep step, int startChunk) {
+        String sql = step.chunkDeleteSql();
+        long target = properties.getTargetChunkTime().toNanos();
+        int chunk = startChunk;
+
+        while (true) {
+            waitForQuietTraffic();
+            int size = chunk;
+            long started = System.nanoTime();
+            Integer deleted = transactionTemplate.execute(status -> {
+                markPurging();
+                int n = jdbcTemplate.update(sql, claim.userId(), claim.userId(), size);
+                recordProgress(claim, n);
+                return n;
+            });
+            long elapsed = System.nanoTime() - started;
+
+            if (deleted == null || deleted < size) {
+                return chunk;
+            }
+            // Halver når en bit blir treg, voks forsiktig ellers
+            chunk = elapsed > target
+                    ? Math.max(properties.getMinChunkSize(), chunk / 2)
+                    : Math.min(properties.getMaxChunkSize(), chunk + properties.getMinChunkSize());
+            sleep(properties.getPause());
+        }
+    }
+
+    /** Kalles i samme transaksjon som biten; mistet eierskap ruller tilbake slettingen. */
+    private void recordProgress(Claim claim, int deleted) {
+        requireOwner(jdbcTemplate.update(
+                "UPDATE res_user_purge SET deleted_rows = deleted_rows + ?, lease_until = ?, updated_at = ? " +
+                        "WHERE user_id = ? AND claim_token = ?",
+                deleted, leaseUntil(), now(), claim.userId(), claim.token()
+        ));
+    }
+
+    private static void requireOwner(int updated) {
+        if (updated == 0) {
+            throw new LeaseLost();
+        }
+    }
+
+    /** Triggerne (V29) hopper over profil-dokument og sync-endringer for rader som slettes her. */
+    private void markPurging() {
+        if (databaseProduct.isPostgres()) {
+            jdbcTemplate.queryForObject("SELECT set_config('restructuring.purging', 'on', true)", String.class);
+        }
+    }
+
+    private void waitForQuietTraffic() {
+        AdaptiveConcurrencyLimiter current = limiter.getIfAvailable();
+        if (current == null) {
+            return;
+        }
+        // Ikke vent så lenge at leasen går ut
+        long maxWait = properties.getLease().toNanos() / 2;
+        long started = System.nanoTime();
+        while (current.getInflight() >= Math.max(1, (int) (current.getLimit() * RequestPriority.ADMIN.share()))
+                && System.nanoTime() - started < maxWait) {
+            sleep(properties.getBusyPause());
+        }
+    }
+
+    // ------------------------------------------------------
+    // Avslutning
+    // ------------------------------------------------------
+
+    private void complete(Claim claim) {
+        long userId = claim.userId();
+        Map<String, Object> purge = jdbcTemplate.queryForMap(
+                "SELECT deleted_rows, attempts, requested_by, requested_at, started_at FROM res_user_purge WHERE user_id = ?",
+                userId
+        );
+        Timestamp now = now();
+
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("deletedRows", purge.get("deleted_rows"));
+        details.put("attempts", purge.get("attempts"));
+        details.put("requestedAt", String.valueOf(purge.get("requested_at")));
+        details.put("startedAt", String.valueOf(purge.get("started_at")));
+        details.put("completedAt", now.toString());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            requireOwner(jdbcTemplate.update(
+                    "UPDATE res_user_purge SET status = 'DONE', lease_until = NULL, last_error = NULL, " +
+                            "claim_token = NULL, completed_at = ?, updated_at = ? WHERE user_id = ? AND claim_token = ?",
+                    now, now, userId, claim.token()
+            ));
+            jdbcTemplate.update(
+                    "INSERT INTO res_audit_event (event_type, subject_id, actor_id, details, created_at) " +
+                            "VALUES (?, ?, ?, ?, ?)",
+                    AUDIT_EVENT, userId, purge.get("requested_by"), toJson(details), now
+            );
+            for (String region : List.of(CacheRegions.USER, CacheRegions.PLAN, CacheRegions.JOURNAL, CacheRegions.INSURANCE)) {
+                cacheInvalidationBus.invalidate(region, userId);
+            }
+        });
+
+        log.atInfo()
+                .addKeyValue("audit", AUDIT_EVENT)
+                .addKeyValue("userId", userId)
+                .addKeyValue("requestedBy", purge.get("requested_by"))
+                .addKeyValue("deletedRows", purge.get("deleted_rows"))
+                .log("User purge completed");
+    }
+
+    private void failed(Claim claim, UserPurgeStep step, RuntimeException ex) {
+        long userId = claim.userId();
+        Integer attempts = jdbcTemplate.queryForObject(
+                "SELECT attempts FROM res_user_purge WHERE user_id = ?", Integer.class, userId);
+        boolean giveUp = attempts != null && attempts >= properties.getMaxAttempts();
+        String error = String.valueOf(ex.getMessage());
+
+        int updated = jdbcTemplate.update(
+                "UPDATE res_user_purge SET status = ?, lease_until = ?, last_error = ?, updated_at = ? " +
+                        "WHERE user_id = ? AND claim_token = ?",
+                giveUp ? UserPurgeStatus.FAILED.name() : UserPurgeStatus.RUNNING.name(),
+                giveUp ? null : Timestamp.valueOf(LocalDateTime.now(clock).plus(RETRY_DELAY)),
+                error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error,
+                now(),
+                userId,
+                claim.token()
+        );
+        log.atWarn()
+                .addKeyValue("owner", updated == 1)
+                .addKeyValue("userId", userId)
+                .addKeyValue("step", step)
+                .addKeyValue("attempts", attempts)
+                .addKeyValue("gaveUp", giveUp)
+                .setCause(ex)
+                .log("User purge failed");
+    }
+
+    // ------------------------------------------------------
+    // Hjelpere
+    // ------------------------------------------------------
+
+    private Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now(clock));
+    }
+
+    private Timestamp leaseUntil() {
+        return Timestamp.valueOf(LocalDateTime.now(clock).plus(properties.getLease()));
+    }
+
+    private String toJson(Map<String, Object> details) {
+        try {
+            return objectMapper.writeValueAsString(details);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration.isZero() || duration.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new Interrupted();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private record Claim(long userId, String token) {
+    }
+
+    private static final class Interrupted extends RuntimeException {
+
+        Interrupted() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class LeaseLost extends RuntimeException {
+
+        LeaseLost() {
+            super(null, null, false, false);
+        }
+    }
+}
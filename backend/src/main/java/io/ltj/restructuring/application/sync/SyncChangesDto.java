@@ -0,0 +1,26 @@
+package io.ltj.restructuring.application.sync;
+
+import io.ltj.restructuring.api.dto.insurance.UserInsuranceDtos.UserInsuranceResponse;
+import io.ltj.restructuring.api.dto.plan.UserPlanDto;
+import io.ltj.restructuring.application.journal.JournalEntry;
+
+import java.util.List;
+
+/**
+ * Endringer siden klientens {@code since}-versjon.
+ *
+ * @param since       send tilbake som {@code since} ved neste synk
+ * @param hasMore     flere endringer venter; kall igjen med {@code since}
+ * @param fullResync  klienten var bak tombstone-grensen: forkast lokal tilstand og bruk svaret som fasit
+ * @param plan        planen hvis den er endret (ellers {@code null})
+ */
+public record SyncChangesDto(
+        long since,
+        boolean hasMore,
+        boolean fullResync,
+        UserPlanDto plan,
+        List<JournalEntry> journal,
+        List<UserInsuranceResponse> insurances,
+        List<SyncTombstoneDto> deleted
+) {
+}
@@ -0,0 +1,47 @@
+package io.ltj.restructuring.application.sync;
+
+import io.ltj.restructuring.application.auth.AuthUser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final SyncService service;
+    private final SyncPushService pushService;
+
+    /**
+     * Endringer i plan, journal og forsikringer siden {@code since}.
+     * Første synk: utelat {@code since} (eller send 0).
+     */
+    @GetMapping
+    public ResponseEntity<SyncChangesDto> changes(
+            @AuthUser Long userId,
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit
+    ) {
+        if (userId == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        return ResponseEntity.ok(service.changesSince(userId, since, limit));
+    }
+
+    /**
+     * Server-Sent Events: {@code change} med hvilke typer som er endret, {@code resync}
+     * når varsler kan ha gått tapt. Klienten henter selve dataene via {@code GET /api/sync}.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@AuthUser Long userId) {
+        if (userId == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        return pushService.open(userId);
+    }
+}
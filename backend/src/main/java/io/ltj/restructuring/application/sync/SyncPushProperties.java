@@ -0,0 +1,54 @@
+package io.ltj.restructuring.application.sync;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the per-user change stream ({@code /api/sync/stream}).
+ */
+@ConfigurationProperties(prefix = "sync.push")
+public class SyncPushProperties {
+
+    /** Kommentar-linje som holder proxyer og load balancere fra å kutte tomgangsforbindelser. */
+    private Duration heartbeatInterval = Duration.ofSeconds(25);
+
+    /** Strømmen lukkes etter dette; EventSource kobler til igjen av seg selv. */
+    private Duration streamTimeout = Duration.ofMinutes(30);
+
+    private int maxStreamsPerUser = 5;
+
+    private int maxStreams = 10_000;
+
+    public Duration getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public void setHeartbeatInterval(Duration heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    public Duration getStreamTimeout() {
+        return streamTimeout;
+    }
+
+    public void setStreamTimeout(Duration streamTimeout) {
+        this.streamTimeout = streamTimeout;
+    }
+
+    public int getMaxStreamsPerUser() {
+        return maxStreamsPerUser;
+    }
+
+    public void setMaxStreamsPerUser(int maxStreamsPerUser) {
+        this.maxStreamsPerUser = maxStreamsPerUser;
+    }
+
+    public int getMaxStreams() {
+        return maxStreams;
+    }
+
+    public void setMaxStreams(int maxStreams) {
+        this.maxStreams = maxStreams;
+    }
+}
@@ -0,0 +1,228 @@
+package io.ltj.restructuring.application.sync;
+
+import io.ltj.restructuring.cache.CacheInvalidation;
+import io.ltj.restructuring.cache.CacheInvalidationListener;
+import io.ltj.restructuring.cache.CacheRegions;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the open change streams and tells each user's devices when their data changed.
+ * <p>
+ * Streams are servlet-async {@link SseEmitter}s, so an idle connection costs no request
+ * thread. Notifications come from {@link io.ltj.restructuring.cache.CacheInvalidationBus}:
+ * the services already invalidate PLAN/JOURNAL/INSURANCE per user after commit, and the
+ * bus carries those to every node. Events only say <em>what</em> changed; the client
+ * fetches the data with {@code GET /api/sync?since=}.
+ * <p>
+ * Sends run on a small dispatcher pool, never on the committing thread, and a burst of
+ * changes for one user collapses into a single event.
+ */
+@Component
+public class SyncPushService implements CacheInvalidationListener, MeterBinder, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncPushService.class);
+
+    static final Set<String> REGIONS = Set.of(CacheRegions.PLAN, CacheRegions.JOURNAL, CacheRegions.INSURANCE);
+
+    private static final long RECONNECT_MILLIS = 3_000;
+
+    private final SyncPushProperties properties;
+    private final Map<Long, Set<SseEmitter>> streams = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> dirty = new ConcurrentHashMap<>();
+    private final AtomicInteger open = new AtomicInteger();
+    private final ExecutorService dispatcher;
+
+    public SyncPushService(SyncPushProperties properties) {
+        this.properties = properties;
+        AtomicInteger threads = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "sync-push-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SseEmitter open(Long userId) {
+        if (open.get() >= properties.getMaxStreams()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "For mange åpne strømmer");
+        }
+
+        SseEmitter emitter = new SseEmitter(properties.getStreamTimeout().toMillis());
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(ex -> remove(userId, emitter));
+
+        SseEmitter[] evicted = new SseEmitter[1];
+        streams.compute(userId, (id, set) -> {
+            Set<SseEmitter> userStreams = set != null ? set : new CopyOnWriteArraySet<>();
+            if (userStreams.size() >= properties.getMaxStreamsPerUser()) {
+                // Eldste først: en fane som ble lukket uten å koble ned skal ikke blokkere en ny
+                evicted[0] = userStreams.iterator().next();
+                userStreams.remove(evicted[0]);
+                open.decrementAndGet();
+            }
+            userStreams.add(emitter);
+            open.incrementAndGet();
+            return userStreams;
+        });
+        if (evicted[0] != null) {
+            evicted[0].complete();
+        }
+
+        try {
+            emitter.send(SseEmitter.event().name("ready").reconnectTime(RECONNECT_MILLIS).data("{}"));
+        } catch (IOException ex) {
+            remove(userId, emitter);
+        }
+        return emitter;
+    }
+
+    int openStreams() {
+        return open.get();
+    }
+
+    // ------------------------------------------------------
+    // CacheInvalidationListener
+    // ------------------------------------------------------
+
+    @Override
+    public void evict(CacheInvalidation invalidation) {
+        if (!REGIONS.contains(invalidation.region())) {
+            return;
+        }
+        if (invalidation.isWholeRegion()) {
+            broadcastResync();
+            return;
+        }
+
+        Long userId;
+        try {
+            userId = Long.valueOf(invalidation.key());
+        } catch (NumberFormatException ex) {
+            return;
+        }
+        if (!streams.containsKey(userId)) {
+            return;
+        }
+
+        boolean[] scheduled = new boolean[1];
+        dirty.compute(userId, (id, types) -> {
+            if (types == null) {
+                scheduled[0] = true;
+                types = new LinkedHashSet<>();
+            }
+            types.add(invalidation.region());
+            return types;
+        });
+        if (scheduled[0]) {
+            dispatch(() -> flush(userId));
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        broadcastResync();
+    }
+
+    // ------------------------------------------------------
+    // Utsending
+    // ------------------------------------------------------
+
+    @Scheduled(fixedDelayString = "${sync.push.heartbeat-interval:PT25S}")
+    public void heartbeat() {
+        if (open.get() == 0) {
+            return;
+        }
+        dispatch(() -> streams.forEach((userId, userStreams) -> {
+            for (SseEmitter emitter : userStreams) {
+                send(userId, emitter, SseEmitter.event().comment("hb"));
+            }
+        }));
+    }
+
+    private void flush(Long userId) {
+        Set<String> types = dirty.remove(userId);
+        Set<SseEmitter> userStreams = streams.get(userId);
+        if (types == null || userStreams == null) {
+            return;
+        }
+        String data = "{\"types\":[" + String.join(",", types.stream().map(t -> '"' + t + '"').toList()) + "]}";
+        for (SseEmitter emitter : userStreams) {
+            send(userId, emitter, SseEmitter.event().name("change").data(data));
+        }
+    }
+
+    private void broadcastResync() {
+        if (open.get() == 0) {
+            return;
+        }
+        dispatch(() -> streams.forEach((userId, userStreams) -> {
+            for (SseEmitter emitter : userStreams) {
+                send(userId, emitter, SseEmitter.event().name("resync").data("{}"));
+            }
+        }));
+    }
+
+    private void send(Long userId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException ex) {
+            // Klienten er borte; containeren fullfører selve forespørselen
+            remove(userId, emitter);
+        }
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            dispatcher.execute(task);
+        } catch (RejectedExecutionException ex) {
+            log.atDebug().log("Sync push dispatcher stopped; dropping notification");
+        }
+    }
+
+    private void remove(Long userId, SseEmitter emitter) {
+        streams.computeIfPresent(userId, (id, userStreams) -> {
+            if (userStreams.remove(emitter)) {
+                open.decrementAndGet();
+            }
+            return userStreams.isEmpty() ? null : userStreams;
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("sync.push.streams", open, AtomicInteger::get)
+                .description("Open per-user change streams")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        dispatcher.shutdownNow();
+        List<SseEmitter> all = streams.values().stream().flatMap(Set::stream).toList();
+        streams.clear();
+        all.forEach(SseEmitter::complete);
+    }
+}
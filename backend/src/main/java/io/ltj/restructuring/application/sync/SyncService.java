@@ -0,0 +1,187 @@
+package io.ltj.restructuring.application.sync;
+
+import io.ltj.restructuring.api.dto.insurance.UserInsuranceDtos.UserInsuranceResponse;
+import io.ltj.restructuring.api.dto.plan.UserPlanDto;
+import io.ltj.restructuring.application.insurance.UserInsuranceProfileService;
+import io.ltj.restructuring.application.journal.JournalEntry;
+import io.ltj.restructuring.application.journal.JournalEntryRepository;
+import io.ltj.restructuring.application.plan.UserPlanApplicationService;
+import io.ltj.restructuring.scheduling.JobLeadership;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Delta-sync for plan, journal and insurance profiles.
+ * <p>
+ * Database triggers (V24) give every change a per-user, monotonic version and keep one row per
+ * entity in {@code res_sync_change} (latest version, deleted flag). A client sends the highest
+ * version it has seen and gets back only entities changed after it, plus tombstones. Old
+ * tombstones are pruned; a client behind the prune floor gets a full resync instead.
+ */
+@Service
+public class SyncService {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncService.class);
+
+    static final int MAX_LIMIT = 1_000;
+    static final Duration TOMBSTONE_RETENTION = Duration.ofDays(30);
+
+    static final String PRUNE_JOB = "sync-tombstone-prune";
+
+    static final String PLAN = "PLAN";
+    static final String JOURNAL = "JOURNAL";
+    static final String INSURANCE = "INSURANCE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserPlanApplicationService userPlanApplicationService;
+    private final JournalEntryRepository journalEntryRepository;
+    private final UserInsuranceProfileService userInsuranceProfileService;
+    private final Clock clock;
+    private final JobLeadership jobLeadership;
+
+    public SyncService(
+            JdbcTemplate jdbcTemplate,
+            UserPlanApplicationService userPlanApplicationService,
+            JournalEntryRepository journalEntryRepository,
+            UserInsuranceProfileService userInsuranceProfileService,
+            Clock clock,
+            JobLeadership jobLeadership
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userPlanApplicationService = userPlanApplicationService;
+        this.journalEntryRepository = journalEntryRepository;
+        this.userInsuranceProfileService = userInsuranceProfileService;
+        this.clock = clock;
+        this.jobLeadership = jobLeadership;
+    }
+
+    @Transactional(readOnly = true)
+    public SyncChangesDto changesSince(Long userId, long since, int limit) {
+        int safeLimit = Math.max(1, Math.min(MAX_LIMIT, limit));
+
+        List<long[]> counter = jdbcTemplate.query(
+                "SELECT version, tombstone_floor FROM res_sync_counter WHERE user_id = ?",
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)},
+                userId
+        );
+        long currentVersion = counter.isEmpty() ? 0 : counter.get(0)[0];
+        long floor = counter.isEmpty() ? 0 : counter.get(0)[1];
+
+        // Bak tombstone-grensen: returner alle levende entiteter i ett svar (brukerens egne data)
+        boolean fullResync = since < floor;
+        long from = fullResync ? 0 : Math.max(0, since);
+
+        List<Change> changes = jdbcTemplate.query(
+                "SELECT entity_type, entity_id, version, deleted FROM res_sync_change " +
+                        "WHERE user_id = ? AND version > ? " +
+                        (fullResync ? "AND deleted = FALSE " : "") +
+                        "ORDER BY version" +
+                        (fullResync ? "" : " LIMIT " + (safeLimit + 1)),
+                (rs, rowNum) -> new Change(
+                        rs.getString("entity_type"),
+                        rs.getLong("entity_id"),
+                        rs.getLong("version"),
+                        rs.getBoolean("deleted")
+                ),
+                userId, from
+        );
+
+        boolean hasMore = !fullResync && changes.size() > safeLimit;
+        if (hasMore) {
+            changes = changes.subList(0, safeLimit);
+        }
+        long lastVersion = changes.isEmpty() ? from : changes.get(changes.size() - 1).version();
+        long nextSince = hasMore ? lastVersion : Math.max(lastVersion, Math.max(from, currentVersion));
+
+        List<SyncTombstoneDto> deleted = new ArrayList<>();
+        boolean planChanged = false;
+        Set<Long> journalIds = new HashSet<>();
+        Set<Long> insuranceIds = new HashSet<>();
+
+        for (Change change : changes) {
+            if (change.deleted()) {
+                deleted.add(new SyncTombstoneDto(change.type(), change.entityId()));
+                continue;
+            }
+            switch (change.type()) {
+                case PLAN -> planChanged = true;
+                case JOURNAL -> journalIds.add(change.entityId());
+                case INSURANCE -> insuranceIds.add(change.entityId());
+                default -> log.atWarn().addKeyValue("type", change.type()).log("Unknown sync entity type");
+            }
+        }
+
+        UserPlanDto plan = planChanged ? userPlanApplicationService.getPlanForUser(userId).orElse(null) : null;
+
+        List<JournalEntry> journal = journalIds.isEmpty() ? List.of() : journalEntryRepository.findAllById(journalIds)
+                .stream()
+                .filter(entry -> userId.equals(entry.getUserId()))
+                .sorted(Comparator.comparing(JournalEntry::getId))
+                .toList();
+        addMissingAsTombstones(JOURNAL, journalIds, journal.stream().map(JournalEntry::getId).toList(), deleted);
+
+        List<UserInsuranceResponse> insurances = insuranceIds.isEmpty()
+                ? List.of()
+                : userInsuranceProfileService.getByIds(userId, insuranceIds);
+        addMissingAsTombstones(INSURANCE, insuranceIds, insurances.stream().map(UserInsuranceResponse::id).toList(), deleted);
+
+        return new SyncChangesDto(nextSince, hasMore, fullResync, plan, journal, insurances, deleted);
+    }
+
+    /**
+     * Deletes tombstones older than the retention and raises each user's floor accordingly.
+     */
+    @Scheduled(cron = "${sync.tombstone-prune-cron:0 30 3 * * *}")
+    @Transactional
+    public void pruneTombstones() {
+        if (!jobLeadership.isLeader(PRUNE_JOB)) {
+            return;
+        }
+        Timestamp cutoff = Timestamp.from(clock.instant().minus(TOMBSTONE_RETENTION));
+
+        jdbcTemplate.update(
+                "UPDATE res_sync_counter c SET tombstone_floor = (" +
+                        "  SELECT MAX(s.version) FROM res_sync_change s " +
+                        "  WHERE s.user_id = c.user_id AND s.deleted = TRUE AND s.changed_at < ?) " +
+                        "WHERE EXISTS (SELECT 1 FROM res_sync_change s " +
+                        "  WHERE s.user_id = c.user_id AND s.deleted = TRUE AND s.changed_at < ?)",
+                cutoff, cutoff
+        );
+        int pruned = jdbcTemplate.update(
+                "DELETE FROM res_sync_change WHERE deleted = TRUE AND changed_at < ?", cutoff);
+
+        if (pruned > 0) {
+            log.atInfo().addKeyValue("tombstones", pruned).log("Pruned sync tombstones");
+        }
+    }
+
+    /** En entitet kan være slettet etter at endringsraden ble lest. */
+    private static void addMissingAsTombstones(
+            String type,
+            Set<Long> requested,
+            List<Long> found,
+            List<SyncTombstoneDto> deleted
+    ) {
+        if (found.size() == requested.size()) {
+            return;
+        }
+        Set<Long> missing = new HashSet<>(requested);
+        found.forEach(missing::remove);
+        missing.stream().sorted().forEach(id -> deleted.add(new SyncTombstoneDto(type, id)));
+    }
+
+    private record Change(String type, long entityId, long version, boolean deleted) { }
+}
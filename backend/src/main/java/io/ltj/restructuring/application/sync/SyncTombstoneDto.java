@@ -0,0 +1,7 @@
+package io.ltj.restructuring.application.sync;
+
+public record SyncTombstoneDto(
+        String type,
+        long id
+) {
+}
@@ -0,0 +1,90 @@
+package io.ltj.restructuring.application.system;
+
+import io.ltj.restructuring.persistence.DatabaseProduct;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cached, approximate row counts for admin listings.
+ * <p>
+ * On PostgreSQL the planner statistic {@code pg_class.reltuples} is read (no table scan);
+ * elsewhere, or when the table has never been analyzed, {@code COUNT(*)} is used. Either way the
+ * value is cached for {@link #TTL}, and only one caller refreshes an expired value while the others
+ * keep getting the previous one.
+ */
+@Component
+public class ApproximateRowCounter {
+
+    static final Duration TTL = Duration.ofSeconds(60);
+
+    /** Kun tabeller vi faktisk teller; tabellnavnet havner i SQL. */
+    private static final Set<String> ALLOWED_TABLES = Set.of("res_users");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseProduct databaseProduct;
+    private final Clock clock;
+    private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+
+    public ApproximateRowCounter(JdbcTemplate jdbcTemplate, DatabaseProduct databaseProduct, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseProduct = databaseProduct;
+        this.clock = clock;
+    }
+
+    public long count(String table) {
+        if (!ALLOWED_TABLES.contains(table)) {
+            throw new IllegalArgumentException("Unsupported table: " + table);
+        }
+
+        CachedCount cached = counts.computeIfAbsent(table, t -> new CachedCount());
+        long now = clock.millis();
+        if (cached.value >= 0 && now - cached.refreshedAt < TTL.toMillis()) {
+            return cached.value;
+        }
+
+        if (cached.value >= 0 && !cached.refreshing.compareAndSet(false, true)) {
+            return cached.value;   // en annen tråd oppdaterer allerede
+        }
+        try {
+            cached.value = load(table);
+            cached.refreshedAt = now;
+        } finally {
+            cached.refreshing.set(false);
+        }
+        return cached.value;
+    }
+
+    /** Clears the cached value, e.g. after bulk imports or deletes. */
+    public void invalidate(String table) {
+        counts.remove(table);
+    }
+
+    private long load(String table) {
+        if (databaseProduct.isPostgres()) {
+            Long estimate = jdbcTemplate.queryForObject(
+                    "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)",
+                    Long.class,
+                    table
+            );
+            // -1 betyr at tabellen aldri er analysert
+            if (estimate != null && estimate >= 0) {
+                return estimate;
+            }
+        }
+        Long exact = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        return exact == null ? 0 : exact;
+    }
+
+    private static final class CachedCount {
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile long value = -1;
+        private volatile long refreshedAt;
+    }
+}
@@ -2,28 +2,42 @@ package io.ltj.restructuring.application.system;
 
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
 
 @RestController
 @RequestMapping("/api/system")
 public class SystemInfoAdminController {
 
+    private static final int MAX_PROFILE_BATCH = 200;
+
     private final JdbcTemplate jdbcTemplate;
     private final UserProfilePdfService userProfilePdfService;
+    private final ApproximateRowCounter approximateRowCounter;
+    private final UserProfileDocumentService userProfileDocumentService;
 
     public SystemInfoAdminController(
             JdbcTemplate jdbcTemplate,
-            UserProfilePdfService userProfilePdfService
+            UserProfilePdfService userProfilePdfService,
+            ApproximateRowCounter approximateRowCounter,
+            UserProfileDocumentService userProfileDocumentService
     ) {
         this.jdbcTemplate = jdbcTemplate;
         this.userProfilePdfService = userProfilePdfService;
+        this.approximateRowCounter = approximateRowCounter;
+        this.userProfileDocumentService = userProfileDocumentService;
     }
 
     /**
@@ -61,16 +75,60 @@ public class SystemInfoAdminController {
     }
 
     /**
-     * Wrapper rundt Postgres-funksjonen:
-     * get_user_profile(user_id) -> json
-     * <p>
-     * UENDRET.
+     * Profil-JSON (samme form som get_user_profile(user_id)).
+     * Leses fra lesemodellen res_user_profile_doc; ETag er dokumentversjonen.
      */
     @GetMapping("/user-profile/{userId}")
     public ResponseEntity<String> getUserProfile(@PathVariable long userId) {
-        String sql = "SELECT get_user_profile(?)";
-        String json = jdbcTemplate.queryForObject(sql, String.class, userId);
-        return ResponseEntity.ok(json);
+        return userProfileDocumentService.find(userId)
+                .map(doc -> ResponseEntity.ok()
+                        .eTag("\"" + doc.version() + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(doc.json()))
+                .orElseGet(() -> ResponseEntity.ok().build());
+    }
+
+    /**
+     * Bygger alle profil-dokumenter på nytt (backfill etter migrering eller datafiks).
+     */
+    @PostMapping("/user-profile-docs/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildUserProfileDocs(
+            @RequestParam(defaultValue = "500") int batchSize
+    ) {
+        long users = userProfileDocumentService.rebuild(batchSize);
+        return ResponseEntity.ok(Map.of("users", users));
+    }
+
+    /**
+     * Flere profiler i ett kall: ett PK-oppslag mot lesemodellen, med
+     * get_user_profiles(bigint[]) for id-er som mangler dokument.
+     * Returnerer en JSON-array i samme rekkefølge som {@code ids}; ukjente id-er utelates.
+     */
+    @GetMapping(value = "/user-profiles", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> getUserProfiles(@RequestParam List<Long> ids) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctIds.size() > MAX_PROFILE_BATCH) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Maks " + MAX_PROFILE_BATCH + " id-er per kall"
+            );
+        }
+        if (distinctIds.isEmpty()) {
+            return ResponseEntity.ok("[]");
+        }
+
+        Map<Long, UserProfileDocument> profiles = userProfileDocumentService.findAll(distinctIds);
+
+        StringJoiner json = new StringJoiner(",", "[", "]");
+        for (Long id : distinctIds) {
+            UserProfileDocument profile = profiles.get(id);
+            if (profile != null) {
+                json.add(profile.json());
+            }
+        }
+        return ResponseEntity.ok(json.toString());
     }
 
     @GetMapping("/user-profile/{userId}/pdf")
@@ -85,9 +143,15 @@ public class SystemInfoAdminController {
     /**
      * Returnerer en enkel liste over brukere med utvalgte felter.
      * Brukes av SystemInfoPage.tsx -> `${API_BASE_URL}/system/users`
+     * <p>
+     * Keyset-paginering: send {@code afterId} = {@code nextAfterId} fra forrige side.
+     * Hver side koster da det samme uansett hvor langt ut i lista man er.
+     * {@code total} er et cachet estimat, ikke en COUNT(*) per kall.
+     * {@code offset} uten {@code afterId} støttes fortsatt for eldre klienter.
      */
     @GetMapping("/users")
     public ResponseEntity<?> listUsers(
+            @RequestParam(required = false) Long afterId,
             @RequestParam(defaultValue = "0") int offset,
             @RequestParam(defaultValue = "50") int limit
     ) {
@@ -95,31 +159,44 @@ public class SystemInfoAdminController {
         int safeLimit = Math.max(1, Math.min(200, limit)); // begrens hvor mye som kan hentes
 
         try {
-            long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM res_users", Long.class);
-
-            List<Map<String, Object>> users = jdbcTemplate.queryForList(
-                    "SELECT id, email, first_name, last_name, ssn, role " +
-                            "FROM res_users " +
-                            "ORDER BY id " +
-                            "LIMIT ? OFFSET ?",
-                    safeLimit + 1, // hent ett ekstra for å se om det finnes flere
-                    safeOffset
-            );
+            long total = approximateRowCounter.count("res_users");
+
+            List<Map<String, Object>> users;
+            if (afterId != null || safeOffset == 0) {
+                users = jdbcTemplate.queryForList(
+                        "SELECT id, email, first_name, last_name, ssn, role " +
+                                "FROM res_users " +
+                                "WHERE id > ? " +
+                                "ORDER BY id " +
+                                "LIMIT ?",
+                        afterId == null ? Long.MIN_VALUE : afterId,
+                        safeLimit + 1 // hent ett ekstra for å se om det finnes flere
+                );
+            } else {
+                users = jdbcTemplate.queryForList(
+                        "SELECT id, email, first_name, last_name, ssn, role " +
+                                "FROM res_users " +
+                                "ORDER BY id " +
+                                "LIMIT ? OFFSET ?",
+                        safeLimit + 1,
+                        safeOffset
+                );
+            }
 
             boolean hasMore = users.size() > safeLimit;
             if (hasMore) {
                 users = users.subList(0, safeLimit);
             }
 
-            return ResponseEntity.ok(
-                    Map.of(
-                            "offset", safeOffset,
-                            "limit", safeLimit,
-                            "total", total,
-                            "hasMore", hasMore,
-                            "users", users
-                    )
-            );
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("offset", safeOffset);
+            body.put("limit", safeLimit);
+            body.put("total", Math.max(total, safeOffset + users.size()));
+            body.put("totalEstimated", true);
+            body.put("hasMore", hasMore);
+            body.put("nextAfterId", hasMore ? users.get(users.size() - 1).get("id") : null);
+            body.put("users", users);
+            return ResponseEntity.ok(body);
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                     .body(Map.of("error", "Kunne ikke hente brukere: " + e.getMessage()));
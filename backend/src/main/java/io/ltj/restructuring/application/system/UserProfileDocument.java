@@ -0,0 +1,8 @@
+package io.ltj.restructuring.application.system;
+
+/**
+ * Ferdig profil-JSON fra lesemodellen. {@code version} øker for hver endring;
+ * 0 betyr at dokumentet ble bygget direkte fordi det ikke fantes ennå.
+ */
+public record UserProfileDocument(long userId, String json, long version) {
+}
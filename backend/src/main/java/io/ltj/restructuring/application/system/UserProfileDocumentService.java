@@ -0,0 +1,178 @@
+package io.ltj.restructuring.application.system;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.ltj.restructuring.application.journal.JournalArchiveStore;
+import io.ltj.restructuring.application.journal.JournalEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Reads user profiles from the write-maintained {@code res_user_profile_doc} table (V22).
+ * <p>
+ * Triggers keep the documents current, so a read is one primary-key lookup. A user whose
+ * document is missing (created before a backfill finished) falls back to
+ * {@code get_user_profile}/{@code get_user_profiles}. {@link #rebuild(int)} backfills all users
+ * in id-ordered batches, one transaction per batch.
+ * <p>
+ * Journal entries moved to {@link JournalArchiveStore} are no longer in the document; they are
+ * appended to {@code journal_entries} on read so the profile looks the same as before archiving.
+ * The store keeps recently read archives in memory, so repeated reads (and batches) decompress
+ * a user's segments only after they change.
+ */
+@Service
+public class UserProfileDocumentService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserProfileDocumentService.class);
+
+    static final int DEFAULT_REBUILD_BATCH = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JournalArchiveStore archiveStore;
+    private final ObjectMapper objectMapper;
+
+    public UserProfileDocumentService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            JournalArchiveStore archiveStore,
+            ObjectMapper objectMapper
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archiveStore = archiveStore;
+        this.objectMapper = objectMapper;
+    }
+
+    public Optional<UserProfileDocument> find(long userId) {
+        List<UserProfileDocument> docs = jdbcTemplate.query(
+                "SELECT user_id, profile, version FROM res_user_profile_doc WHERE user_id = ?",
+                (rs, rowNum) -> new UserProfileDocument(rs.getLong(1), rs.getString(2), rs.getLong(3)),
+                userId
+        );
+        if (!docs.isEmpty()) {
+            return Optional.of(withArchivedJournal(docs.get(0)));
+        }
+
+        String json = jdbcTemplate.queryForObject("SELECT get_user_profile(?)", String.class, userId);
+        return Optional.ofNullable(json).map(j -> withArchivedJournal(new UserProfileDocument(userId, j, 0)));
+    }
+
+    /**
+     * Profiles for several users; unknown ids are absent from the result.
+     */
+    public Map<Long, UserProfileDocument> findAll(List<Long> userIds) {
+        Map<Long, UserProfileDocument> result = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return result;
+        }
+
+        jdbcTemplate.query(
+                "SELECT user_id, profile, version FROM res_user_profile_doc WHERE user_id = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", userIds.toArray())),
+                (RowCallbackHandler) rs -> result.put(
+                        rs.getLong(1),
+                        new UserProfileDocument(rs.getLong(1), rs.getString(2), rs.getLong(3))
+                )
+        );
+
+        List<Long> missing = new ArrayList<>();
+        for (Long id : userIds) {
+            if (!result.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.query(
+                    "SELECT user_id, profile FROM get_user_profiles(?)",
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", missing.toArray())),
+                    (RowCallbackHandler) rs -> result.put(
+                            rs.getLong(1),
+                            new UserProfileDocument(rs.getLong(1), rs.getString(2), 0)
+                    )
+            );
+        }
+        result.replaceAll((id, doc) -> withArchivedJournal(doc));
+        return result;
+    }
+
+    /** Legger arkiverte journalinnlegg til etter de som fortsatt ligger i tabellen (de er eldre). */
+    private UserProfileDocument withArchivedJournal(UserProfileDocument doc) {
+        List<JournalEntry> archived = archiveStore.readAll(doc.userId());
+        if (archived.isEmpty()) {
+            return doc;
+        }
+        try {
+            ObjectNode profile = (ObjectNode) objectMapper.readTree(doc.json());
+            JsonNode existing = profile.get("journal_entries");
+            ArrayNode journal = existing instanceof ArrayNode array ? array : profile.putArray("journal_entries");
+
+            Set<Long> ids = new HashSet<>();
+            journal.forEach(entry -> ids.add(entry.path("id").asLong()));
+            for (JournalEntry entry : archived) {
+                if (ids.add(entry.getId())) {
+                    journal.addObject()
+                            .put("id", entry.getId())
+                            .put("phase", entry.getPhase())
+                            .put("content", entry.getContent())
+                            .put("created_at", entry.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                }
+            }
+            return new UserProfileDocument(doc.userId(), objectMapper.writeValueAsString(profile), doc.version());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Ugyldig profil-JSON for bruker " + doc.userId(), ex);
+        }
+    }
+
+    /**
+     * Rebuilds every document. Safe to run while the application takes writes: each batch
+     * recomputes from current data, and triggers handle changes that land afterwards.
+     *
+     * @return number of users processed
+     */
+    public long rebuild(int batchSize) {
+        int safeBatch = Math.max(1, Math.min(5_000, batchSize));
+        long lastId = 0;
+        long processed = 0;
+
+        while (true) {
+            long afterId = lastId;
+            List<Long> batch = transactionTemplate.execute(status -> jdbcTemplate.query(
+                    "SELECT b.id, refresh_user_profile_doc(b.id) " +
+                            "FROM (SELECT id FROM res_users WHERE id > ? ORDER BY id LIMIT ?) b " +
+                            "ORDER BY b.id",
+                    (rs, rowNum) -> rs.getLong(1),
+                    afterId,
+                    safeBatch
+            ));
+
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            processed += batch.size();
+            lastId = batch.get(batch.size() - 1);
+        }
+
+        log.atInfo()
+                .addKeyValue("users", processed)
+                .log("Rebuilt user profile documents");
+        return processed;
+    }
+}
@@ -14,7 +14,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.http.HttpStatus;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -37,11 +36,11 @@ public class UserProfilePdfService {
     private static final DateTimeFormatter DISPLAY_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
     private static final TypeReference<Map<String, String>> DIARY_MAP_TYPE = new TypeReference<>() { };
 
-    private final JdbcTemplate jdbcTemplate;
+    private final UserProfileDocumentService userProfileDocumentService;
     private final ObjectMapper objectMapper;
 
-    public UserProfilePdfService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
-        this.jdbcTemplate = jdbcTemplate;
+    public UserProfilePdfService(UserProfileDocumentService userProfileDocumentService, ObjectMapper objectMapper) {
+        this.userProfileDocumentService = userProfileDocumentService;
         this.objectMapper = objectMapper;
     }
 
@@ -59,9 +58,10 @@ public class UserProfilePdfService {
     }
 
     private Optional<UserProfileAggregate> fetchUserProfile(long userId) {
-        String sql = "SELECT get_user_profile(?)";
         try {
-            String json = jdbcTemplate.queryForObject(sql, String.class, userId);
+            String json = userProfileDocumentService.find(userId)
+                    .map(UserProfileDocument::json)
+                    .orElse(null);
             if (json == null || json.isBlank()) {
                 return Optional.empty();
             }
@@ -0,0 +1,38 @@
+package io.ltj.restructuring.application.timeline;
+
+import io.ltj.restructuring.application.auth.AuthUser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/timeline")
+@RequiredArgsConstructor
+public class TimelineController {
+
+    private final TimelineService service;
+
+    /**
+     * Samlet, nyeste-først aktivitetslogg for innlogget bruker.
+     * Neste side hentes med {@code cursor=<nextCursor>}.
+     */
+    @GetMapping
+    public ResponseEntity<TimelinePageDto> getTimeline(
+            @AuthUser Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        if (userId == null) {
+            return ResponseEntity.ok(new TimelinePageDto(List.of(), null));
+        }
+        try {
+            return ResponseEntity.ok(service.getPage(userId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
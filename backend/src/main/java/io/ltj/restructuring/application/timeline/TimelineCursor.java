@@ -0,0 +1,36 @@
+package io.ltj.restructuring.application.timeline;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position of the last returned item: {@code (occurredAt, sourceRank, id)}.
+ * Opaque to clients; encoded as URL-safe base64.
+ */
+record TimelineCursor(Instant occurredAt, int rank, long id) {
+
+    String encode() {
+        String raw = occurredAt.getEpochSecond() + ":" + occurredAt.getNano() + ":" + rank + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static TimelineCursor decode(String value) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Ugyldig cursor");
+            }
+            return new TimelineCursor(
+                    Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1])),
+                    Integer.parseInt(parts[2]),
+                    Long.parseLong(parts[3])
+            );
+        } catch (IllegalArgumentException | DateTimeException | ArithmeticException e) {
+            // DateTimeException: epoke utenfor Instant-området i en håndlaget cursor
+            throw new IllegalArgumentException("Ugyldig cursor", e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package io.ltj.restructuring.application.timeline;
+
+import java.time.Instant;
+
+public record TimelineItemDto(
+        String type,
+        long id,
+        Instant occurredAt,
+        String summary
+) {
+}
@@ -0,0 +1,12 @@
+package io.ltj.restructuring.application.timeline;
+
+import java.util.List;
+
+/**
+ * @param nextCursor send as {@code cursor} to get the next page; {@code null} on the last page
+ */
+public record TimelinePageDto(
+        List<TimelineItemDto> items,
+        String nextCursor
+) {
+}
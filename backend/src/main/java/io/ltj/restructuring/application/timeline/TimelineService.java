@@ -0,0 +1,287 @@
+package io.ltj.restructuring.application.timeline;
+
+import io.ltj.restructuring.application.journal.JournalArchiveStore;
+import io.ltj.restructuring.application.journal.JournalEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merges a user's journal entries, insurance requests, insurance profiles, snapshots and plan
+ * into one newest-first feed.
+ * <p>
+ * Each source is read lazily in index order (small chunks, next chunk only when the merge needs
+ * it) and a k-way merge heap picks the newest head. A page therefore touches the rows it returns
+ * plus at most one small read-ahead chunk per source, independent of how deep the cursor is.
+ * <p>
+ * Journal entries moved to {@link JournalArchiveStore} are merged in as one more source. Until the
+ * merge reaches the newest archived time (known from the segment file names), that source is only
+ * a placeholder at that time; no segment is decompressed for pages that stay above it.
+ */
+@Service
+public class TimelineService {
+
+    static final int MAX_LIMIT = 100;
+    static final int MIN_CHUNK = 4;
+
+    /** Nyeste først; likt tidspunkt avgjøres av kilde-rank og deretter id. */
+    private static final Comparator<TimelineRow> NEWEST_FIRST = Comparator
+            .comparing(TimelineRow::occurredAt)
+            .thenComparingInt(row -> row.source().rank())
+            .thenComparingLong(TimelineRow::id)
+            .reversed();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<TimelineSource> sources;
+    private final JournalArchiveStore archiveStore;
+
+    @Autowired
+    public TimelineService(JdbcTemplate jdbcTemplate, JournalArchiveStore archiveStore) {
+        this(jdbcTemplate, TimelineSource.all(), archiveStore);
+    }
+
+    TimelineService(JdbcTemplate jdbcTemplate, List<TimelineSource> sources) {
+        this(jdbcTemplate, sources, null);
+    }
+
+    TimelineService(JdbcTemplate jdbcTemplate, List<TimelineSource> sources, JournalArchiveStore archiveStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sources = sources;
+        this.archiveStore = archiveStore;
+    }
+
+    @Transactional(readOnly = true)
+    public TimelinePageDto getPage(Long userId, String cursor, int limit) {
+        int safeLimit = Math.max(1, Math.min(MAX_LIMIT, limit));
+        TimelineCursor position = cursor == null || cursor.isBlank() ? null : TimelineCursor.decode(cursor);
+        int firstChunk = Math.max(MIN_CHUNK, safeLimit / sources.size() + 1);
+
+        PriorityQueue<RowReader> heap = new PriorityQueue<>(
+                sources.size() + 1,
+                (a, b) -> NEWEST_FIRST.compare(a.peek(), b.peek())
+        );
+        for (TimelineSource source : sources) {
+            SourceReader reader = new SourceReader(source, userId, position, firstChunk);
+            if (reader.peek() != null) {
+                heap.add(reader);
+            }
+        }
+        if (archiveStore != null && sources.contains(TimelineSource.JOURNAL)) {
+            ArchiveReader reader = new ArchiveReader(userId, position);
+            if (reader.peek() != null) {
+                heap.add(reader);
+            }
+        }
+
+        List<TimelineItemDto> items = new ArrayList<>(safeLimit);
+        TimelineRow last = null;
+        while (items.size() < safeLimit && !heap.isEmpty()) {
+            RowReader reader = heap.poll();
+            TimelineRow row = reader.next(safeLimit - items.size());
+            if (row != null) {
+                last = row;
+                items.add(row.toDto());
+            }
+            if (reader.peek() != null) {
+                heap.add(reader);
+            }
+        }
+
+        String nextCursor = !heap.isEmpty() && last != null
+                ? new TimelineCursor(last.occurredAt(), last.source().rank(), last.id()).encode()
+                : null;
+        return new TimelinePageDto(items, nextCursor);
+    }
+
+    private interface RowReader {
+
+        TimelineRow peek();
+
+        /**
+         * @param stillNeeded rows the page still needs; sizes the next chunk if one is required
+         * @return the row taken, or {@code null} if the reader only replaced a placeholder head
+         */
+        TimelineRow next(int stillNeeded);
+    }
+
+    // ------------------------------------------------------
+    // Lazy, chunked reader per kilde
+    // ------------------------------------------------------
+
+    private final class SourceReader implements RowReader {
+
+        private final TimelineSource source;
+        private final Long userId;
+        private final Deque<TimelineRow> buffer = new ArrayDeque<>();
+
+        private TimelineCursor startAfter;
+        private TimelineRow lastRead;
+        private boolean exhausted;
+        private int nextChunk;
+
+        SourceReader(TimelineSource source, Long userId, TimelineCursor startAfter, int firstChunk) {
+            this.source = source;
+            this.userId = userId;
+            this.startAfter = startAfter;
+            this.nextChunk = firstChunk;
+        }
+
+        @Override
+        public TimelineRow peek() {
+            if (buffer.isEmpty() && !exhausted) {
+                fetch(nextChunk);
+            }
+            return buffer.peekFirst();
+        }
+
+        @Override
+        public TimelineRow next(int stillNeeded) {
+            TimelineRow row = buffer.pollFirst();
+            nextChunk = Math.max(MIN_CHUNK, stillNeeded);
+            return row;
+        }
+
+        private void fetch(int chunk) {
+            List<Object> args = new ArrayList<>();
+            args.add(userId);
+            StringBuilder sql = new StringBuilder(source.selectClause());
+            String ts = source.timestampExpression();
+
+            if (lastRead != null) {
+                // Fortsett i egen kilde: strengt etter siste leste rad
+                sql.append(" AND (").append(ts).append(" < ? OR (").append(ts).append(" = ? AND id < ?))");
+                Timestamp at = Timestamp.from(lastRead.occurredAt());
+                args.add(at);
+                args.add(at);
+                args.add(lastRead.id());
+            } else if (startAfter != null) {
+                appendCursorPredicate(sql, ts, args);
+            }
+            sql.append(source.orderClause());
+            args.add(chunk);
+
+            List<TimelineRow> rows = jdbcTemplate.query(
+                    sql.toString(),
+                    (rs, rowNum) -> new TimelineRow(
+                            source,
+                            rs.getLong("id"),
+                            rs.getTimestamp("occurred_at").toInstant(),
+                            rs.getString("summary")
+                    ),
+                    args.toArray()
+            );
+
+            buffer.addAll(rows);
+            if (!rows.isEmpty()) {
+                lastRead = rows.get(rows.size() - 1);
+            }
+            exhausted = rows.size() < chunk;
+            startAfter = null;
+        }
+
+        /** Rader som kommer etter cursoren i global rekkefølge (tid, rank, id) synkende. */
+        private void appendCursorPredicate(StringBuilder sql, String ts, List<Object> args) {
+            Timestamp at = Timestamp.from(startAfter.occurredAt());
+            if (source.rank() < startAfter.rank()) {
+                sql.append(" AND ").append(ts).append(" <= ?");
+                args.add(at);
+            } else if (source.rank() > startAfter.rank()) {
+                sql.append(" AND ").append(ts).append(" < ?");
+                args.add(at);
+            } else {
+                sql.append(" AND (").append(ts).append(" < ? OR (").append(ts).append(" = ? AND id < ?))");
+                args.add(at);
+                args.add(at);
+                args.add(startAfter.id());
+            }
+        }
+    }
+
+    // ------------------------------------------------------
+    // Arkiverte journalinnlegg (samme type og rank som JOURNAL)
+    // ------------------------------------------------------
+
+    private final class ArchiveReader implements RowReader {
+
+        private static final int SUMMARY_LENGTH = 140;
+
+        private final Long userId;
+        private final TimelineCursor startAfter;
+        private final LocalDateTime notAfter;
+        private Iterator<JournalEntry> entries;
+        private TimelineRow head;
+
+        ArchiveReader(Long userId, TimelineCursor startAfter) {
+            this.userId = userId;
+            this.startAfter = startAfter;
+            this.notAfter = startAfter == null
+                    ? null
+                    : Timestamp.from(startAfter.occurredAt()).toLocalDateTime();
+            // Plassholder på øvre grense fra filnavnene; id-en får den sortert før ekte rader på samme tid
+            archiveStore.newestBound(userId, notAfter).ifPresent(bound -> head = new TimelineRow(
+                    TimelineSource.JOURNAL, Long.MAX_VALUE, Timestamp.valueOf(bound).toInstant(), null));
+        }
+
+        @Override
+        public TimelineRow peek() {
+            while (head == null && entries != null && entries.hasNext()) {
+                JournalEntry entry = entries.next();
+                String content = entry.getContent();
+                TimelineRow row = new TimelineRow(
+                        TimelineSource.JOURNAL,
+                        entry.getId(),
+                        // Samme tolkning av TIMESTAMP som rs.getTimestamp(..).toInstant() for tabellen
+                        Timestamp.valueOf(entry.getCreatedAt()).toInstant(),
+                        content.length() > SUMMARY_LENGTH ? content.substring(0, SUMMARY_LENGTH) : content
+                );
+                if (startAfter == null || isAfterCursor(row)) {
+                    head = row;
+                }
+            }
+            return head;
+        }
+
+        @Override
+        public TimelineRow next(int stillNeeded) {
+            if (entries == null) {
+                // Alle andre kilder er eldre enn grensen: først nå åpnes segmentene
+                entries = archiveStore.newestFirst(userId, notAfter);
+                head = null;
+                return null;
+            }
+            TimelineRow row = peek();
+            head = null;
+            return row;
+        }
+
+        private boolean isAfterCursor(TimelineRow row) {
+            int byTime = row.occurredAt().compareTo(startAfter.occurredAt());
+            if (byTime != 0) {
+                return byTime < 0;
+            }
+            if (row.source().rank() != startAfter.rank()) {
+                return row.source().rank() < startAfter.rank();
+            }
+            return row.id() < startAfter.id();
+        }
+    }
+
+    private record TimelineRow(TimelineSource source, long id, Instant occurredAt, String summary) {
+
+        TimelineItemDto toDto() {
+            return new TimelineItemDto(source.type(), id, occurredAt, summary);
+        }
+    }
+}
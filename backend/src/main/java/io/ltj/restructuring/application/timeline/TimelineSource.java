@@ -0,0 +1,48 @@
+package io.ltj.restructuring.application.timeline;
+
+import java.util.List;
+
+/**
+ * One table that contributes events to the timeline.
+ * <p>
+ * {@code timestampExpression} and {@code summaryExpression} are SQL fragments; rows are read in
+ * {@code (timestamp DESC, id DESC)} order, which the V23 indexes serve directly.
+ * {@code rank} breaks ties between sources with identical timestamps.
+ */
+public record TimelineSource(
+        String type,
+        int rank,
+        String table,
+        String timestampExpression,
+        String summaryExpression
+) {
+
+    public static final TimelineSource JOURNAL = new TimelineSource(
+            "JOURNAL", 5, "res_journal_entry", "created_at", "LEFT(content, 140)");
+
+    public static final TimelineSource INSURANCE_REQUEST = new TimelineSource(
+            "INSURANCE_REQUEST", 4, "insurance_request", "created_at", "status");
+
+    public static final TimelineSource INSURANCE_PROFILE = new TimelineSource(
+            "INSURANCE_PROFILE", 3, "res_user_insurance_profile", "created_at",
+            "COALESCE(product_name, provider_name)");
+
+    public static final TimelineSource INSURANCE_SNAPSHOT = new TimelineSource(
+            "INSURANCE_SNAPSHOT", 2, "res_insurance_snapshot", "created_at", "source");
+
+    public static final TimelineSource PLAN = new TimelineSource(
+            "PLAN", 1, "res_user_plans", "COALESCE(updated_at, created_at)", "phase");
+
+    public static List<TimelineSource> all() {
+        return List.of(JOURNAL, INSURANCE_REQUEST, INSURANCE_PROFILE, INSURANCE_SNAPSHOT, PLAN);
+    }
+
+    String selectClause() {
+        return "SELECT id, " + timestampExpression + " AS occurred_at, " + summaryExpression + " AS summary "
+                + "FROM " + table + " WHERE user_id = ?";
+    }
+
+    String orderClause() {
+        return " ORDER BY " + timestampExpression + " DESC, id DESC LIMIT ?";
+    }
+}
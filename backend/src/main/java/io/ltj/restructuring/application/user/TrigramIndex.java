@@ -0,0 +1,126 @@
+package io.ltj.restructuring.application.user;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable in-memory trigram index over users, mirroring pg_trgm scoring closely enough
+ * for the H2 test profile: email prefix matches rank first, then the best trigram
+ * similarity against the email or any word of the name.
+ */
+final class TrigramIndex {
+
+    static final double SIMILARITY_THRESHOLD = 0.3;
+
+    private final Map<String, List<Document>> postings = new HashMap<>();
+    private final int size;
+
+    TrigramIndex(List<Document> documents) {
+        for (Document document : documents) {
+            for (String trigram : document.trigrams()) {
+                postings.computeIfAbsent(trigram, t -> new ArrayList<>()).add(document);
+            }
+        }
+        this.size = documents.size();
+    }
+
+    int size() {
+        return size;
+    }
+
+    List<Hit> search(String query, int limit) {
+        String q = query.toLowerCase(Locale.ROOT).trim();
+        Set<String> queryTrigrams = trigrams(q);
+
+        Set<Document> candidates = new HashSet<>();
+        for (String trigram : queryTrigrams) {
+            candidates.addAll(postings.getOrDefault(trigram, List.of()));
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        for (Document document : candidates) {
+            double score = score(document, q, queryTrigrams);
+            if (score >= SIMILARITY_THRESHOLD) {
+                hits.add(new Hit(document, score));
+            }
+        }
+
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed()
+                .thenComparingLong(hit -> hit.document().id()));
+        return hits.size() > limit ? hits.subList(0, limit) : hits;
+    }
+
+    private static double score(Document document, String q, Set<String> queryTrigrams) {
+        if (document.email().toLowerCase(Locale.ROOT).startsWith(q)) {
+            return 1.0;
+        }
+        double best = similarity(queryTrigrams, trigrams(document.email()));
+        for (String word : document.nameWords()) {
+            best = Math.max(best, similarity(queryTrigrams, trigrams(word)));
+        }
+        return best;
+    }
+
+    private static double similarity(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        int shared = 0;
+        for (String trigram : a) {
+            if (b.contains(trigram)) {
+                shared++;
+            }
+        }
+        return (double) shared / (a.size() + b.size() - shared);
+    }
+
+    /** pg_trgm-style: lower-case alphanumeric words padded with two leading and one trailing blank. */
+    static Set<String> trigrams(String text) {
+        Set<String> result = new HashSet<>();
+        if (text == null) {
+            return result;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                result.add(padded.substring(i, i + 3));
+            }
+        }
+        return result;
+    }
+
+    record Document(long id, String email, String firstName, String lastName, String role) {
+
+        List<String> nameWords() {
+            List<String> words = new ArrayList<>();
+            for (String part : new String[]{firstName, lastName}) {
+                if (part != null) {
+                    for (String word : part.toLowerCase(Locale.ROOT).split("\\s+")) {
+                        if (!word.isEmpty()) {
+                            words.add(word);
+                        }
+                    }
+                }
+            }
+            return words;
+        }
+
+        Set<String> trigrams() {
+            Set<String> all = TrigramIndex.trigrams(email);
+            all.addAll(TrigramIndex.trigrams(firstName));
+            all.addAll(TrigramIndex.trigrams(lastName));
+            return all;
+        }
+    }
+
+    record Hit(Document document, double score) { }
+}
@@ -3,6 +3,8 @@ package io.ltj.restructuring.application.user;
 import io.ltj.restructuring.api.dto.user.UserResponseDto;
 import io.ltj.restructuring.api.dto.user.UserUpdateRequestDto;
 import io.ltj.restructuring.application.exception.ResourceNotFoundException;
+import io.ltj.restructuring.cache.CacheInvalidationBus;
+import io.ltj.restructuring.cache.CacheRegions;
 import io.ltj.restructuring.domain.user.UserEntity;
 import io.ltj.restructuring.domain.user.UserRepository;
 import org.slf4j.Logger;
@@ -20,10 +22,16 @@ public class UserApplicationService {
 
     private final UserRepository userRepository;
     private final Clock clock;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
-    public UserApplicationService(UserRepository userRepository, Clock clock) {
+    public UserApplicationService(
+            UserRepository userRepository,
+            Clock clock,
+            CacheInvalidationBus cacheInvalidationBus
+    ) {
         this.userRepository = userRepository;
         this.clock = clock;
+        this.cacheInvalidationBus = cacheInvalidationBus;
     }
 
     public UserEntity save(UserEntity user) {
@@ -58,6 +66,7 @@ public class UserApplicationService {
         user.setUpdatedAt(Instant.now(clock));
 
         UserEntity saved = userRepository.save(user);
+        cacheInvalidationBus.invalidate(CacheRegions.USER, saved.getId());
         log.atInfo()
                 .addKeyValue("userId", saved.getId())
                 .log("Updated user info");
@@ -0,0 +1,162 @@
+package io.ltj.restructuring.application.user;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Streams the admin user listing straight from a JDBC cursor to the response.
+ * <p>
+ * Rows are read forward-only with a fixed fetch size inside a read-only transaction
+ * (PostgreSQL only uses a server-side cursor when auto-commit is off) and written one
+ * by one, so heap use is flat regardless of table size.
+ */
+@Service
+public class UserExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserExportService.class);
+
+    static final int FETCH_SIZE = 500;
+
+    private static final String EXPORT_SQL =
+            "SELECT id, email, first_name, last_name, role, created_at FROM res_users ORDER BY id";
+
+    private static final String[] COLUMNS = {"id", "email", "firstName", "lastName", "role", "createdAt"};
+
+    private final JdbcTemplate exportJdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public UserExportService(DataSource dataSource, ObjectMapper objectMapper) {
+        this.exportJdbcTemplate = new JdbcTemplate(dataSource);
+        this.exportJdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * One JSON object per line (application/x-ndjson).
+     */
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            long rows = stream(rs -> {
+                generator.writeStartObject();
+                generator.writeNumberField(COLUMNS[0], rs.getLong("id"));
+                generator.writeStringField(COLUMNS[1], rs.getString("email"));
+                generator.writeStringField(COLUMNS[2], rs.getString("first_name"));
+                generator.writeStringField(COLUMNS[3], rs.getString("last_name"));
+                generator.writeStringField(COLUMNS[4], rs.getString("role"));
+                generator.writeStringField(COLUMNS[5], timestamp(rs, "created_at"));
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }, generator::flush);
+            generator.flush();
+            return rows;
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row (text/csv).
+     */
+    @Transactional(readOnly = true)
+    public long exportCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+
+        long rows = stream(rs -> {
+            writer.write(Long.toString(rs.getLong("id")));
+            writer.write(',');
+            csv(writer, rs.getString("email"));
+            writer.write(',');
+            csv(writer, rs.getString("first_name"));
+            writer.write(',');
+            csv(writer, rs.getString("last_name"));
+            writer.write(',');
+            csv(writer, rs.getString("role"));
+            writer.write(',');
+            csv(writer, timestamp(rs, "created_at"));
+            writer.write("\r\n");
+        }, writer::flush);
+        writer.flush();
+        return rows;
+    }
+
+    // ------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------
+
+    private long stream(RowWriter rowWriter, Flusher flusher) throws IOException {
+        long[] rows = {0};
+        try {
+            exportJdbcTemplate.query(EXPORT_SQL, (RowCallbackHandler) rs -> {
+                try {
+                    rowWriter.write(rs);
+                    if (++rows[0] % FETCH_SIZE == 0) {
+                        flusher.flush();   // send hver batch videre til klienten
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Klienten koblet typisk fra midt i eksporten
+            log.atInfo()
+                    .addKeyValue("rows", rows[0])
+                    .addKeyValue("reason", e.getCause().getMessage())
+                    .log("User export aborted");
+            throw e.getCause();
+        }
+
+        log.atInfo().addKeyValue("rows", rows[0]).log("User export completed");
+        return rows[0];
+    }
+
+    private static String timestamp(ResultSet rs, String column) throws SQLException {
+        Timestamp value = rs.getTimestamp(column);
+        return value == null ? null : value.toInstant().toString();
+    }
+
+    private static void csv(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+
+    @FunctionalInterface
+    private interface Flusher {
+        void flush() throws IOException;
+    }
+}
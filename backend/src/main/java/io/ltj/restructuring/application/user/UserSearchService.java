@@ -0,0 +1,165 @@
+package io.ltj.restructuring.application.user;
+
+import io.ltj.restructuring.api.admin.dto.AdminUserSearchHitDto;
+import io.ltj.restructuring.persistence.DatabaseProduct;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin search on email prefix and first/last name with typo tolerance.
+ * <p>
+ * On PostgreSQL email prefix hits are served first from a C-collated btree (V32), which
+ * returns them in index order and stops at the limit. Only when they come up short are
+ * fuzzy hits added: nearest-neighbour scans ({@code <->} on the email, {@code <<->} on the
+ * name) on the GiST trigram indexes, each stopping after {@code limit} rows, so common
+ * tokens never score and sort the whole table. On H2 an in-memory {@link TrigramIndex} is
+ * rebuilt from res_users when older than {@link #FALLBACK_TTL}.
+ */
+@Service
+public class UserSearchService {
+
+    static final int MIN_QUERY_LENGTH = 2;
+    static final int MAX_LIMIT = 50;
+    static final Duration FALLBACK_TTL = Duration.ofSeconds(10);
+
+    // Som pg_trgm.word_similarity_threshold; e-post bruker TrigramIndex.SIMILARITY_THRESHOLD (0.3)
+    static final double WORD_SIMILARITY_THRESHOLD = 0.6;
+
+    private static final String NAME_EXPR =
+            "lower(coalesce(first_name, '') || ' ' || coalesce(last_name, ''))";
+
+    private static final String PREFIX_SQL =
+            "SELECT id, email, first_name, last_name, role, 1.0 AS score " +
+            "FROM res_users " +
+            "WHERE lower(email) COLLATE \"C\" LIKE ? ESCAPE '\\' " +
+            "ORDER BY lower(email) COLLATE \"C\" " +
+            "LIMIT ?";
+
+    // KNN uten WHERE på terskelen: et filter ville latt indeksskanningen gå videre til hele
+    // tabellen når få rader når terskelen; i stedet hentes de nærmeste og filtreres etterpå
+    private static final String FUZZY_SQL =
+            "SELECT * FROM (" +
+            "  (SELECT id, email, first_name, last_name, role, similarity(lower(email), ?) AS score, 'email' AS matched " +
+            "   FROM res_users ORDER BY lower(email) <-> ? LIMIT ?)" +
+            "  UNION ALL" +
+            "  (SELECT id, email, first_name, last_name, role, word_similarity(?, " + NAME_EXPR + ") AS score, 'name' AS matched " +
+            "   FROM res_users ORDER BY ? <<-> " + NAME_EXPR + " LIMIT ?)" +
+            ") nearest " +
+            "WHERE score >= CASE matched WHEN 'email' THEN ? ELSE ? END";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseProduct databaseProduct;
+    private final Clock clock;
+
+    private volatile TrigramIndex fallbackIndex;
+    private volatile long fallbackBuiltAt;
+
+    public UserSearchService(JdbcTemplate jdbcTemplate, DatabaseProduct databaseProduct, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseProduct = databaseProduct;
+        this.clock = clock;
+    }
+
+    @Transactional(readOnly = true)
+    public List<AdminUserSearchHitDto> search(String query, int limit) {
+        String q = query == null ? "" : query.trim().toLowerCase();
+        if (q.length() < MIN_QUERY_LENGTH) {
+            return List.of();
+        }
+        int safeLimit = Math.max(1, Math.min(MAX_LIMIT, limit));
+
+        return databaseProduct.isPostgres()
+                ? searchPostgres(q, safeLimit)
+                : searchInMemory(q, safeLimit);
+    }
+
+    private List<AdminUserSearchHitDto> searchPostgres(String q, int limit) {
+        List<AdminUserSearchHitDto> prefixHits = jdbcTemplate.query(
+                PREFIX_SQL, UserSearchService::mapHit, escapeLike(q) + "%", limit);
+        if (prefixHits.size() >= limit) {
+            return prefixHits;
+        }
+
+        // Prefiks-treff først; fuzzy fyller opp resten, beste score per bruker
+        Map<Long, AdminUserSearchHitDto> hits = new LinkedHashMap<>();
+        prefixHits.forEach(hit -> hits.put(hit.id(), hit));
+
+        List<AdminUserSearchHitDto> fuzzy = new ArrayList<>(jdbcTemplate.query(
+                FUZZY_SQL, UserSearchService::mapHit,
+                q, q, limit, q, q, limit, TrigramIndex.SIMILARITY_THRESHOLD, WORD_SIMILARITY_THRESHOLD));
+        fuzzy.sort(Comparator.comparingDouble(AdminUserSearchHitDto::score).reversed()
+                .thenComparing(AdminUserSearchHitDto::id));
+        for (AdminUserSearchHitDto hit : fuzzy) {
+            if (hits.size() >= limit) {
+                break;
+            }
+            hits.putIfAbsent(hit.id(), hit);
+        }
+        return List.copyOf(hits.values());
+    }
+
+    private static AdminUserSearchHitDto mapHit(ResultSet rs, int rowNum) throws SQLException {
+        return new AdminUserSearchHitDto(
+                rs.getLong("id"),
+                rs.getString("email"),
+                rs.getString("first_name"),
+                rs.getString("last_name"),
+                rs.getString("role"),
+                rs.getDouble("score")
+        );
+    }
+
+    private List<AdminUserSearchHitDto> searchInMemory(String q, int limit) {
+        return fallbackIndex().search(q, limit)
+                .stream()
+                .map(hit -> new AdminUserSearchHitDto(
+                        hit.document().id(),
+                        hit.document().email(),
+                        hit.document().firstName(),
+                        hit.document().lastName(),
+                        hit.document().role(),
+                        hit.score()
+                ))
+                .toList();
+    }
+
+    private TrigramIndex fallbackIndex() {
+        TrigramIndex index = fallbackIndex;
+        long now = clock.millis();
+        if (index != null && now - fallbackBuiltAt < FALLBACK_TTL.toMillis()) {
+            return index;
+        }
+
+        synchronized (this) {
+            if (fallbackIndex == null || now - fallbackBuiltAt >= FALLBACK_TTL.toMillis()) {
+                fallbackIndex = new TrigramIndex(jdbcTemplate.query(
+                        "SELECT id, email, first_name, last_name, role FROM res_users",
+                        (rs, rowNum) -> new TrigramIndex.Document(
+                                rs.getLong("id"),
+                                rs.getString("email"),
+                                rs.getString("first_name"),
+                                rs.getString("last_name"),
+                                rs.getString("role")
+                        )
+                ));
+                fallbackBuiltAt = now;
+            }
+            return fallbackIndex;
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,35 @@
+package io.ltj.restructuring.cache;
+
+/**
+ * One invalidation: a single entry ({@code key}) or a whole region ({@code key == null}).
+ */
+public record CacheInvalidation(String region, String key) {
+
+    static final String WHOLE_REGION = "*";
+
+    public static CacheInvalidation entry(String region, Object key) {
+        return new CacheInvalidation(region, String.valueOf(key));
+    }
+
+    public static CacheInvalidation region(String region) {
+        return new CacheInvalidation(region, null);
+    }
+
+    public boolean isWholeRegion() {
+        return key == null;
+    }
+
+    String encode() {
+        return region + '\t' + (key == null ? WHOLE_REGION : key);
+    }
+
+    static CacheInvalidation decode(String line) {
+        int tab = line.indexOf('\t');
+        if (tab <= 0) {
+            return null;
+        }
+        String region = line.substring(0, tab);
+        String key = line.substring(tab + 1);
+        return new CacheInvalidation(region, WHOLE_REGION.equals(key) ? null : key);
+    }
+}
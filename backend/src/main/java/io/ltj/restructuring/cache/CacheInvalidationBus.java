@@ -0,0 +1,154 @@
+package io.ltj.restructuring.cache;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Evicts local cache entries and queues the same invalidation for the other nodes.
+ * <p>
+ * Inside a transaction the invalidation waits until commit, so no node reloads the old row.
+ * Pending invalidations are coalesced: duplicates collapse and a region-wide invalidation
+ * swallows the single-entry ones for that region. The queue is drained by
+ * {@link PgNotifyInvalidationChannel} when it runs; otherwise only local eviction happens.
+ */
+@Component
+public class CacheInvalidationBus {
+
+    static final int MAX_PENDING = 10_000;
+
+    private final List<CacheInvalidationListener> listeners;
+    private final Set<CacheInvalidation> pending = new LinkedHashSet<>();
+
+    private volatile boolean remoteAttached;
+
+    public CacheInvalidationBus(List<CacheInvalidationListener> listeners) {
+        this.listeners = List.copyOf(listeners);
+    }
+
+    public void invalidate(String region, Object key) {
+        publish(CacheInvalidation.entry(region, key));
+    }
+
+    public void invalidateRegion(String region) {
+        publish(CacheInvalidation.region(region));
+    }
+
+    public void publish(CacheInvalidation invalidation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishNow(invalidation);
+                }
+            });
+            return;
+        }
+        publishNow(invalidation);
+    }
+
+    private void publishNow(CacheInvalidation invalidation) {
+        evictLocal(invalidation);
+        if (!remoteAttached) {
+            return;
+        }
+        synchronized (pending) {
+            if (pending.size() >= MAX_PENDING) {
+                // Kanalen henger etter: én region-invalidering per region er alltid korrekt
+                collapseToRegions();
+            }
+            pending.add(invalidation);
+        }
+    }
+
+    // ------------------------------------------------------
+    // Brukt av kanalen
+    // ------------------------------------------------------
+
+    void attachRemote() {
+        remoteAttached = true;
+    }
+
+    void detachRemote() {
+        remoteAttached = false;
+        synchronized (pending) {
+            pending.clear();
+        }
+    }
+
+    /** Removes and returns pending invalidations, coalesced. */
+    List<CacheInvalidation> drainPending() {
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return List.of();
+            }
+            List<CacheInvalidation> drained = coalesce(pending);
+            pending.clear();
+            return drained;
+        }
+    }
+
+    /** Puts back invalidations that could not be sent; they go out after reconnect. */
+    void requeue(Collection<CacheInvalidation> invalidations) {
+        if (!remoteAttached) {
+            return;
+        }
+        synchronized (pending) {
+            pending.addAll(invalidations);
+            if (pending.size() >= MAX_PENDING) {
+                collapseToRegions();
+            }
+        }
+    }
+
+    /** Applies invalidations received from another node. */
+    void applyRemote(Collection<CacheInvalidation> invalidations) {
+        for (CacheInvalidation invalidation : coalesce(invalidations)) {
+            evictLocal(invalidation);
+        }
+    }
+
+    void evictAllLocal() {
+        for (CacheInvalidationListener listener : listeners) {
+            listener.evictAll();
+        }
+    }
+
+    private void evictLocal(CacheInvalidation invalidation) {
+        for (CacheInvalidationListener listener : listeners) {
+            listener.evict(invalidation);
+        }
+    }
+
+    private void collapseToRegions() {
+        List<CacheInvalidation> regions = pending.stream()
+                .map(i -> CacheInvalidation.region(i.region()))
+                .distinct()
+                .toList();
+        pending.clear();
+        pending.addAll(regions);
+    }
+
+    static List<CacheInvalidation> coalesce(Collection<CacheInvalidation> invalidations) {
+        Set<String> wholeRegions = new LinkedHashSet<>();
+        for (CacheInvalidation invalidation : invalidations) {
+            if (invalidation.isWholeRegion()) {
+                wholeRegions.add(invalidation.region());
+            }
+        }
+
+        Set<CacheInvalidation> result = new LinkedHashSet<>();
+        for (CacheInvalidation invalidation : invalidations) {
+            if (invalidation.isWholeRegion() || !wholeRegions.contains(invalidation.region())) {
+                result.add(invalidation);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+}
@@ -0,0 +1,12 @@
+package io.ltj.restructuring.cache;
+
+/**
+ * A local cache that can drop entries when {@link CacheInvalidationBus} says so.
+ */
+public interface CacheInvalidationListener {
+
+    void evict(CacheInvalidation invalidation);
+
+    /** Called after the bus may have missed notifications (e.g. listener reconnect). */
+    void evictAll();
+}
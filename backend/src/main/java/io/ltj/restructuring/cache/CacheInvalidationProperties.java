@@ -0,0 +1,49 @@
+package io.ltj.restructuring.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the LISTEN/NOTIFY invalidation channel. Only used against PostgreSQL.
+ */
+@ConfigurationProperties(prefix = "cache-invalidation")
+public class CacheInvalidationProperties {
+
+    private boolean enabled = true;
+    private String channel = "res_cache_invalidation";
+    private Duration pollInterval = Duration.ofMillis(100);
+    private Duration maxReconnectDelay = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public Duration getMaxReconnectDelay() {
+        return maxReconnectDelay;
+    }
+
+    public void setMaxReconnectDelay(Duration maxReconnectDelay) {
+        this.maxReconnectDelay = maxReconnectDelay;
+    }
+}
@@ -0,0 +1,25 @@
+package io.ltj.restructuring.cache;
+
+/**
+ * Names of the in-process cache regions that are invalidated across nodes.
+ */
+public final class CacheRegions {
+
+    /** Forsikringskatalogen (én nøkkel: "all"). */
+    public static final String CATALOG = "catalog";
+
+    /** Plan per bruker (nøkkel: userId). */
+    public static final String PLAN = "plan";
+
+    /** Brukerprofil per bruker (nøkkel: userId). */
+    public static final String USER = "user";
+
+    /** Journalen per bruker (nøkkel: userId). */
+    public static final String JOURNAL = "journal";
+
+    /** Forsikringsdata (profil og snapshot) per bruker (nøkkel: userId). */
+    public static final String INSURANCE = "insurance";
+
+    private CacheRegions() {
+    }
+}
@@ -0,0 +1,190 @@
+package io.ltj.restructuring.cache;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Carries cache invalidations between nodes over PostgreSQL {@code LISTEN/NOTIFY}.
+ * <p>
+ * One background thread owns a dedicated connection outside the Hikari pool (the pool is
+ * tiny in prod). Each loop it sends everything {@link CacheInvalidationBus} has queued as
+ * one or a few {@code pg_notify} calls, then waits up to {@code pollInterval} for
+ * notifications from other nodes. The poll interval is also the coalescing window.
+ * After a reconnect every local cache is cleared, since notifications may have been missed.
+ */
+public class PgNotifyInvalidationChannel implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(PgNotifyInvalidationChannel.class);
+
+    /** NOTIFY-payload må være under 8000 byte. */
+    static final int MAX_PAYLOAD_BYTES = 7_500;
+
+    private final CacheInvalidationBus bus;
+    private final CacheInvalidationProperties properties;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public PgNotifyInvalidationChannel(
+            CacheInvalidationBus bus,
+            CacheInvalidationProperties properties,
+            String url,
+            String username,
+            String password
+    ) {
+        this.bus = bus;
+        this.properties = properties;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        bus.attachRemote();
+        worker = new Thread(this::runLoop, "cache-invalidation");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        bus.detachRemote();
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runLoop() {
+        long backoffMillis = 500;
+        boolean firstConnect = true;
+
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + properties.getChannel());
+                }
+                if (!firstConnect) {
+                    bus.evictAllLocal();
+                    log.atInfo().log("Cache invalidation listener reconnected, local caches cleared");
+                }
+                firstConnect = false;
+                backoffMillis = 500;
+
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    send(connection, bus.drainPending());
+                    receive(pg.getNotifications((int) properties.getPollInterval().toMillis()));
+                }
+            } catch (SQLException ex) {
+                if (!running) {
+                    return;
+                }
+                log.atWarn()
+                        .addKeyValue("reason", ex.getMessage())
+                        .addKeyValue("retryInMs", backoffMillis)
+                        .log("Cache invalidation listener lost its connection");
+                if (!sleep(backoffMillis)) {
+                    return;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, properties.getMaxReconnectDelay().toMillis());
+            }
+        }
+    }
+
+    private void send(Connection connection, List<CacheInvalidation> invalidations) throws SQLException {
+        if (invalidations.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement ps = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            for (String payload : payloads(nodeId, invalidations)) {
+                ps.setString(1, properties.getChannel());
+                ps.setString(2, payload);
+                ps.execute();
+            }
+        } catch (SQLException ex) {
+            bus.requeue(invalidations);
+            throw ex;
+        }
+    }
+
+    private void receive(PGNotification[] notifications) {
+        if (notifications == null || notifications.length == 0) {
+            return;
+        }
+
+        List<CacheInvalidation> received = new ArrayList<>();
+        for (PGNotification notification : notifications) {
+            String[] lines = notification.getParameter().split("\n");
+            if (lines.length == 0 || nodeId.equals(lines[0])) {
+                continue;   // egne meldinger er allerede evictet lokalt
+            }
+            for (int i = 1; i < lines.length; i++) {
+                CacheInvalidation invalidation = CacheInvalidation.decode(lines[i]);
+                if (invalidation != null) {
+                    received.add(invalidation);
+                }
+            }
+        }
+        bus.applyRemote(received);
+    }
+
+    /** Packs invalidations into payloads: first line is the sender, then one line each. */
+    static List<String> payloads(String nodeId, List<CacheInvalidation> invalidations) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder current = new StringBuilder(nodeId);
+        int currentBytes = nodeId.length();
+
+        for (CacheInvalidation invalidation : invalidations) {
+            String line = invalidation.encode();
+            int lineBytes = line.getBytes(StandardCharsets.UTF_8).length + 1;
+            if (currentBytes + lineBytes > MAX_PAYLOAD_BYTES && current.length() > nodeId.length()) {
+                payloads.add(current.toString());
+                current = new StringBuilder(nodeId);
+                currentBytes = nodeId.length();
+            }
+            current.append('\n').append(line);
+            currentBytes += lineBytes;
+        }
+        payloads.add(current.toString());
+        return payloads;
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
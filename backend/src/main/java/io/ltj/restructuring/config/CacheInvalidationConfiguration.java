@@ -0,0 +1,37 @@
+package io.ltj.restructuring.config;
+
+import io.ltj.restructuring.cache.CacheInvalidationBus;
+import io.ltj.restructuring.cache.CacheInvalidationProperties;
+import io.ltj.restructuring.cache.PgNotifyInvalidationChannel;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cross-node cache invalidation. The channel only starts against PostgreSQL;
+ * on H2 (tests) the bus evicts locally only.
+ */
+@Configuration
+@EnableConfigurationProperties(CacheInvalidationProperties.class)
+public class CacheInvalidationConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "cache-invalidation", name = "enabled", havingValue = "true", matchIfMissing = true)
+    @ConditionalOnExpression("'${spring.datasource.url:}'.startsWith('jdbc:postgresql:')")
+    public PgNotifyInvalidationChannel pgNotifyInvalidationChannel(
+            CacheInvalidationBus bus,
+            CacheInvalidationProperties properties,
+            DataSourceProperties dataSourceProperties
+    ) {
+        return new PgNotifyInvalidationChannel(
+                bus,
+                properties,
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword()
+        );
+    }
+}
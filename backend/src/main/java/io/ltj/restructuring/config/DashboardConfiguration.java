@@ -0,0 +1,88 @@
+package io.ltj.restructuring.config;
+
+import io.ltj.restructuring.application.dashboard.DashboardProperties;
+import io.ltj.restructuring.application.dashboard.DashboardService;
+import io.ltj.restructuring.application.insurance.CoverageLossAnalysisService;
+import io.ltj.restructuring.application.insurance.InsuranceSnapshotService;
+import io.ltj.restructuring.application.insurance.UserInsuranceProfileService;
+import io.ltj.restructuring.application.journal.JournalService;
+import io.ltj.restructuring.application.plan.UserPlanApplicationService;
+import io.ltj.restructuring.application.user.UserApplicationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dashboard fan-out. The executor is created here and handed to the service rather than
+ * exposed as a bean, so it does not replace Boot's default task executor.
+ */
+@Configuration
+@EnableConfigurationProperties(DashboardProperties.class)
+public class DashboardConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardConfiguration.class);
+
+    @Bean
+    public DashboardService dashboardService(
+            DashboardProperties properties,
+            ObjectProvider<DataSource> dataSource,
+            UserApplicationService userApplicationService,
+            UserPlanApplicationService userPlanApplicationService,
+            UserInsuranceProfileService userInsuranceProfileService,
+            InsuranceSnapshotService insuranceSnapshotService,
+            CoverageLossAnalysisService coverageLossAnalysisService,
+            JournalService journalService
+    ) {
+        int budget = properties.getMaxConnections() > 0
+                ? properties.getMaxConnections()
+                : Math.max(1, ResilienceConfiguration.poolSize(dataSource.getIfAvailable()) / 2);
+
+        log.atInfo()
+                .addKeyValue("maxConnections", budget)
+                .log("Dashboard fan-out configured");
+
+        AtomicInteger threads = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                budget,
+                budget,
+                60,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                r -> {
+                    Thread thread = new Thread(r, "dashboard-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // Full kø: delen meldes som "busy"; request-tråden skal ikke ta en egen tilkobling
+                new ThreadPoolExecutor.AbortPolicy()
+        ) {
+            @Override
+            public void execute(Runnable command) {
+                // Replika-rutingen leser brukeren fra SecurityContext, så den må følge med oppgaven
+                super.execute(DelegatingSecurityContextRunnable.create(command, null));
+            }
+        };
+        executor.allowCoreThreadTimeOut(true);
+
+        return new DashboardService(
+                userApplicationService,
+                userPlanApplicationService,
+                userInsuranceProfileService,
+                insuranceSnapshotService,
+                coverageLossAnalysisService,
+                journalService,
+                executor,
+                properties.getTimeout()
+        );
+    }
+}
@@ -0,0 +1,104 @@
+package io.ltj.restructuring.config;
+
+import io.ltj.restructuring.resilience.CircuitBreaker;
+import io.ltj.restructuring.resilience.CircuitBreakingDataSource;
+import io.ltj.restructuring.resilience.DatabaseCircuitBreakers;
+import io.ltj.restructuring.resilience.DatabaseCircuitBreakerProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wraps every DataSource bean in a {@link CircuitBreakingDataSource}.
+ */
+@Configuration
+@EnableConfigurationProperties(DatabaseCircuitBreakerProperties.class)
+public class DatabaseResilienceConfiguration {
+
+    @Bean
+    public static BeanPostProcessor circuitBreakingDataSourcePostProcessor(
+            ObjectProvider<DatabaseCircuitBreakerProperties> properties,
+            ObjectProvider<Clock> clock
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || isComposite(bean)) {
+                    return bean;
+                }
+
+                DatabaseCircuitBreakerProperties props = properties.getObject();
+                if (!props.isEnabled()) {
+                    return bean;
+                }
+
+                CircuitBreaker breaker = props.newBreaker(beanName, clock.getIfAvailable(Clock::systemUTC));
+                return new CircuitBreakingDataSource(dataSource, breaker);
+            }
+        };
+    }
+
+    @Bean
+    public DatabaseCircuitBreakers databaseCircuitBreakers(Map<String, DataSource> dataSources) {
+        List<CircuitBreaker> breakers = new ArrayList<>();
+        dataSources.values().forEach(dataSource -> {
+            CircuitBreaker breaker = breakerOf(dataSource);
+            if (breaker != null) {
+                breakers.add(breaker);
+            }
+        });
+        return new DatabaseCircuitBreakers(breakers);
+    }
+
+    @Bean
+    public MeterBinder databaseCircuitBreakerMetrics(Map<String, DataSource> dataSources) {
+        return registry -> dataSources.forEach((name, dataSource) -> {
+            CircuitBreaker breaker = breakerOf(dataSource);
+            if (breaker == null) {
+                return;
+            }
+            Gauge.builder("db.circuit.open", breaker, b -> b.getState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                    .description("1 while the database circuit breaker is open or half-open")
+                    .tag("datasource", name)
+                    .register(registry);
+        });
+    }
+
+    /**
+     * Proxies and routing DataSources delegate to pools that are wrapped themselves;
+     * wrapping them again would trip one breaker for both primary and replica.
+     */
+    private static boolean isComposite(Object bean) {
+        return bean instanceof CircuitBreakingDataSource
+                || bean instanceof DelegatingDataSource
+                || bean instanceof AbstractRoutingDataSource;
+    }
+
+    private static CircuitBreaker breakerOf(DataSource dataSource) {
+        if (!(dataSource instanceof CircuitBreakingDataSource) && isComposite(dataSource)) {
+            // Routing-proxyen deler breaker med poolene den ruter til
+            return null;
+        }
+        try {
+            if (dataSource.isWrapperFor(CircuitBreakingDataSource.class)) {
+                return dataSource.unwrap(CircuitBreakingDataSource.class).getBreaker();
+            }
+        } catch (SQLException ignored) {
+            // Not wrapped
+        }
+        return null;
+    }
+}
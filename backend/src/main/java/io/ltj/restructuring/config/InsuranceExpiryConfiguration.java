@@ -0,0 +1,46 @@
+package io.ltj.restructuring.config;
+
+import io.ltj.restructuring.application.insurance.InsuranceExpiryProperties;
+import io.ltj.restructuring.application.insurance.InsuranceExpirySweeper;
+import io.ltj.restructuring.cache.CacheInvalidationBus;
+import io.ltj.restructuring.persistence.DatabaseProduct;
+import io.ltj.restructuring.scheduling.JobLeadership;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(InsuranceExpiryProperties.class)
+public class InsuranceExpiryConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "insurance.expiry", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public InsuranceExpirySweeper insuranceExpirySweeper(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            DatabaseProduct databaseProduct,
+            CacheInvalidationBus cacheInvalidationBus,
+            ApplicationEventPublisher eventPublisher,
+            Clock clock,
+            JobLeadership jobLeadership,
+            InsuranceExpiryProperties properties
+    ) {
+        return new InsuranceExpirySweeper(
+                jdbcTemplate,
+                new TransactionTemplate(transactionManager),
+                databaseProduct,
+                cacheInvalidationBus,
+                eventPublisher,
+                clock,
+                jobLeadership,
+                properties
+        );
+    }
+}
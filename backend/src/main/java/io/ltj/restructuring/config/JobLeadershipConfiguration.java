@@ -0,0 +1,57 @@
+package io.ltj.restructuring.config;
+
+import io.ltj.restructuring.scheduling.JobLeadership;
+import io.ltj.restructuring.scheduling.JobLeadershipProperties;
+import io.ltj.restructuring.scheduling.LocalJobLeadership;
+import io.ltj.restructuring.scheduling.PgAdvisoryLockJobLeadership;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Leader election for cluster-wide scheduled jobs. Against PostgreSQL each job is led by
+ * whichever node holds its advisory lock; on H2 (tests) or when switched off, this node
+ * leads everything.
+ */
+@Configuration
+@EnableConfigurationProperties(JobLeadershipProperties.class)
+public class JobLeadershipConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "job-leadership", name = "enabled", havingValue = "true", matchIfMissing = true)
+    @ConditionalOnExpression("'${spring.datasource.url:}'.startsWith('jdbc:postgresql:')")
+    public PgAdvisoryLockJobLeadership pgAdvisoryLockJobLeadership(
+            JobLeadershipProperties properties,
+            JdbcTemplate jdbcTemplate,
+            DataSourceProperties dataSourceProperties
+    ) {
+        return new PgAdvisoryLockJobLeadership(
+                properties,
+                jdbcTemplate,
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword(),
+                nodeId(properties)
+        );
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(JobLeadership.class)
+    public LocalJobLeadership localJobLeadership(JobLeadershipProperties properties) {
+        return new LocalJobLeadership(nodeId(properties));
+    }
+
+    private static String nodeId(JobLeadershipProperties properties) {
+        String configured = properties.getNodeId();
+        return configured == null || configured.isBlank()
+                ? ManagementFactory.getRuntimeMXBean().getName()
+                : configured;
+    }
+}
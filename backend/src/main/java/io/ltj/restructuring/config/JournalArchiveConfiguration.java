@@ -0,0 +1,50 @@
+package io.ltj.restructuring.config;
+
+import io.ltj.restructuring.application.journal.JournalArchiveProperties;
+import io.ltj.restructuring.application.journal.JournalArchiveStore;
+import io.ltj.restructuring.application.journal.JournalArchiver;
+import io.ltj.restructuring.persistence.DatabaseProduct;
+import io.ltj.restructuring.scheduling.JobLeadership;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+
+/**
+ * Journal cold tier. The store is always present so reads find entries archived earlier;
+ * the archiver that moves entries runs only with {@code journal.archive.enabled=true}.
+ */
+@Configuration
+@EnableConfigurationProperties(JournalArchiveProperties.class)
+public class JournalArchiveConfiguration {
+
+    @Bean
+    public JournalArchiveStore journalArchiveStore(JournalArchiveProperties properties) {
+        return new JournalArchiveStore(Path.of(properties.getDirectory()), properties.getReadCacheEntries());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "journal.archive", name = "enabled", havingValue = "true")
+    public JournalArchiver journalArchiver(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            DatabaseProduct databaseProduct,
+            JournalArchiveStore journalArchiveStore,
+            JournalArchiveProperties properties,
+            JobLeadership jobLeadership
+    ) {
+        return new JournalArchiver(
+                jdbcTemplate,
+                new TransactionTemplate(transactionManager),
+                databaseProduct,
+                journalArchiveStore,
+                properties,
+                jobLeadership
+        );
+    }
+}
@@ -0,0 +1,30 @@
+package io.ltj.restructuring.config;
+
+import io.ltj.restructuring.application.journal.JournalEntryRepository;
+import io.ltj.restructuring.application.journal.JournalGroupCommitProperties;
+import io.ltj.restructuring.application.journal.JournalGroupCommitWriter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Group commit for journal inserts. Off unless {@code journal.group-commit.enabled=true};
+ * without the writer, {@code JournalService} saves each entry in its own transaction.
+ */
+@Configuration
+@EnableConfigurationProperties(JournalGroupCommitProperties.class)
+public class JournalGroupCommitConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "journal.group-commit", name = "enabled", havingValue = "true")
+    public JournalGroupCommitWriter journalGroupCommitWriter(
+            JournalEntryRepository repository,
+            PlatformTransactionManager transactionManager,
+            JournalGroupCommitProperties properties
+    ) {
+        return new JournalGroupCommitWriter(repository, new TransactionTemplate(transactionManager), properties);
+    }
+}
@@ -0,0 +1,23 @@
+package io.ltj.restructuring.config;
+
+import io.ltj.restructuring.security.LoginThrottle;
+import io.ltj.restructuring.security.LoginThrottleProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Per-account and per-IP throttling of login and registration. Without the bean
+ * ({@code login-throttle.enabled=false}) {@code AuthController} does not throttle.
+ */
+@Configuration
+@EnableConfigurationProperties(LoginThrottleProperties.class)
+public class LoginThrottleConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "login-throttle", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public LoginThrottle loginThrottle(LoginThrottleProperties properties) {
+        return new LoginThrottle(properties);
+    }
+}
@@ -0,0 +1,10 @@
+package io.ltj.restructuring.config;
+
+import io.ltj.restructuring.persistence.PartitionMaintenanceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(PartitionMaintenanceProperties.class)
+public class PartitionMaintenanceConfiguration {
+}
@@ -0,0 +1,30 @@
+package io.ltj.restructuring.config;
+
+import io.ltj.restructuring.security.PasswordHashCostStats;
+import io.ltj.restructuring.security.PasswordHashPolicy;
+import io.ltj.restructuring.security.PasswordHashingBulkhead;
+import io.ltj.restructuring.security.PasswordHashingProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+@EnableConfigurationProperties(PasswordHashingProperties.class)
+public class PasswordHashingConfiguration {
+
+    @Bean
+    public PasswordHashingBulkhead passwordHashingBulkhead(PasswordHashingProperties properties) {
+        return new PasswordHashingBulkhead(properties);
+    }
+
+    @Bean
+    public PasswordHashPolicy passwordHashPolicy(PasswordHashingProperties properties) {
+        return new PasswordHashPolicy(properties);
+    }
+
+    @Bean
+    public PasswordHashCostStats passwordHashCostStats(JdbcTemplate jdbcTemplate, PasswordHashPolicy passwordHashPolicy) {
+        return new PasswordHashCostStats(jdbcTemplate, passwordHashPolicy);
+    }
+}
@@ -0,0 +1,92 @@
+package io.ltj.restructuring.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.ltj.restructuring.persistence.ReadYourWritesGuard;
+import io.ltj.restructuring.persistence.ReplicaDataSourceProperties;
+import io.ltj.restructuring.persistence.ReplicaRoutingDataSource;
+import io.ltj.restructuring.persistence.ReplicationLagMonitor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+
+/**
+ * Primary/replica routing. Active only when {@code replica-datasource.url} is set;
+ * otherwise Spring Boot's single auto-configured DataSource is used unchanged.
+ * <p>
+ * For local testing point {@code replica-datasource.url} at a second database
+ * (e.g. restructuring_dev_replica) — no streaming replication is required.
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+@ConditionalOnProperty(prefix = "replica-datasource", name = "url")
+public class ReplicaRoutingConfiguration {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(ReplicaDataSourceProperties properties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(properties.getUrl());
+        dataSource.setUsername(properties.getUsername());
+        dataSource.setPassword(properties.getPassword());
+        if (properties.getDriverClassName() != null) {
+            dataSource.setDriverClassName(properties.getDriverClassName());
+        }
+        dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+        dataSource.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+        dataSource.setInitializationFailTimeout(0);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesGuard readYourWritesGuard(ReplicaDataSourceProperties properties, Clock clock) {
+        return new ReadYourWritesGuard(clock, properties.getReadYourWritesWindow(), properties.getMaxLag());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            ReadYourWritesGuard guard
+    ) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, guard));
+    }
+
+    @Bean
+    public ReplicationLagMonitor replicationLagMonitor(
+            @Qualifier("replicaDataSource") DataSource replica,
+            ReadYourWritesGuard guard
+    ) {
+        return new ReplicationLagMonitor(new JdbcTemplate(replica), guard);
+    }
+
+    @Bean
+    public MeterBinder replicationLagMetrics(ReadYourWritesGuard guard) {
+        return registry -> Gauge.builder("db.replica.lag.seconds", guard, g -> g.getCurrentLag().toMillis() / 1000.0)
+                .description("Measured replay lag of the read replica")
+                .register(registry);
+    }
+}
@@ -0,0 +1,105 @@
+package io.ltj.restructuring.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.ltj.restructuring.resilience.AdaptiveConcurrencyLimiter;
+import io.ltj.restructuring.resilience.ConcurrencyLimitFilter;
+import io.ltj.restructuring.resilience.ConcurrencyLimitProperties;
+import io.ltj.restructuring.resilience.RequestPriority;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(prefix = "concurrency-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ResilienceConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(ResilienceConfiguration.class);
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(
+            ConcurrencyLimitProperties properties,
+            ObjectProvider<DataSource> dataSource
+    ) {
+        int poolSize = poolSize(dataSource.getIfAvailable());
+
+        // Requests hold a connection only part of the time, so allow some overlap above the pool size
+        int initial = properties.getInitialLimit() > 0 ? properties.getInitialLimit() : poolSize * 2;
+        int max = properties.getMaxLimit() > 0 ? properties.getMaxLimit() : poolSize * 8;
+        int min = Math.min(properties.getMinLimit(), max);
+
+        log.atInfo()
+                .addKeyValue("poolSize", poolSize)
+                .addKeyValue("initialLimit", initial)
+                .addKeyValue("maxLimit", max)
+                .log("Concurrency limiter configured");
+
+        return new AdaptiveConcurrencyLimiter(initial, min, max);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            AdaptiveConcurrencyLimiter limiter,
+            ObjectMapper objectMapper,
+            ConcurrencyLimitProperties properties
+    ) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(limiter, objectMapper, properties));
+        // Før Spring Security: avviste kall koster ingen JWT-parsing eller DB-oppslag
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 10);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    @Bean
+    public MeterBinder concurrencyLimiterMetrics(AdaptiveConcurrencyLimiter limiter) {
+        return registry -> {
+            Gauge.builder("http.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .register(registry);
+            Gauge.builder("http.limiter.inflight", limiter, AdaptiveConcurrencyLimiter::getInflight)
+                    .description("Requests currently holding a permit")
+                    .register(registry);
+
+            for (RequestPriority priority : RequestPriority.values()) {
+                String tag = priority.name().toLowerCase();
+                Gauge.builder("http.limiter.waiting", limiter, l -> l.getWaiting(priority))
+                        .tag("priority", tag)
+                        .register(registry);
+                FunctionCounter.builder("http.limiter.rejected", limiter, l -> l.getRejected(priority))
+                        .tag("priority", tag)
+                        .register(registry);
+            }
+        };
+    }
+
+    static int poolSize(DataSource dataSource) {
+        try {
+            // DataSource kan være pakket inn (circuit breaker), så bruk unwrap
+            if (dataSource != null && dataSource.isWrapperFor(HikariDataSource.class)) {
+                int max = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+                if (max > 0) {
+                    return max;
+                }
+            }
+        } catch (SQLException ignored) {
+            // Fall back to the Hikari default below
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+}
@@ -1,6 +1,9 @@
 package io.ltj.restructuring.config;
 
+import io.ltj.restructuring.security.BulkheadPasswordEncoder;
 import io.ltj.restructuring.security.JwtAuthenticationFilter;
+import io.ltj.restructuring.security.PasswordHashPolicy;
+import io.ltj.restructuring.security.PasswordHashingBulkhead;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,7 +13,6 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -112,8 +114,12 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            PasswordHashPolicy passwordHashPolicy,
+            PasswordHashingBulkhead passwordHashingBulkhead
+    ) {
+        // BCrypt kjøres på egen, begrenset trådpool (ikke på request-trådene)
+        return new BulkheadPasswordEncoder(passwordHashPolicy.encoder(), passwordHashingBulkhead);
     }
 
     @Bean
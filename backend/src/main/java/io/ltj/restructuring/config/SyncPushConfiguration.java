@@ -0,0 +1,10 @@
+package io.ltj.restructuring.config;
+
+import io.ltj.restructuring.application.sync.SyncPushProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SyncPushProperties.class)
+public class SyncPushConfiguration {
+}
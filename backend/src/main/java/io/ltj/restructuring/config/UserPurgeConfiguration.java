@@ -0,0 +1,10 @@
+package io.ltj.restructuring.config;
+
+import io.ltj.restructuring.application.purge.UserPurgeProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(UserPurgeProperties.class)
+public class UserPurgeConfiguration {
+}
@@ -0,0 +1,17 @@
+package io.ltj.restructuring.domain.insurance;
+
+import java.time.LocalDate;
+
+/**
+ * Projection of an active {@link UserInsuranceProfile}. Holds only the columns covered by
+ * {@code ix_user_insurance_profile_active} so the lookup can be served by an index-only scan.
+ */
+public record ActiveCoverage(
+        Long id,
+        UserInsuranceProfile.Source source,
+        String providerName,
+        String productName,
+        LocalDate validFrom,
+        LocalDate validTo
+) {
+}
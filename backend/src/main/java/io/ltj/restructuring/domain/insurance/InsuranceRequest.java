@@ -9,7 +9,8 @@ import java.time.LocalDateTime;
 public class InsuranceRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "insurance_request_seq")
+    @SequenceGenerator(name = "insurance_request_seq", sequenceName = "insurance_request_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -10,7 +10,8 @@ import java.util.Set;
 public class InsuranceSnapshotEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "res_insurance_snapshot_seq")
+    @SequenceGenerator(name = "res_insurance_snapshot_seq", sequenceName = "res_insurance_snapshot_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -9,7 +9,8 @@ import java.time.LocalDate;
 public class UserInsuranceProfile {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "res_user_insurance_profile_seq")
+    @SequenceGenerator(name = "res_user_insurance_profile_seq", sequenceName = "res_user_insurance_profile_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
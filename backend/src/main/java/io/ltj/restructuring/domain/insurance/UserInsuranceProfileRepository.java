@@ -1,10 +1,27 @@
 package io.ltj.restructuring.domain.insurance;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
 import java.util.List;
 
 public interface UserInsuranceProfileRepository
         extends JpaRepository<UserInsuranceProfile, Long> {
 
     List<UserInsuranceProfile> findByUserIdOrderByIdDesc(Long userId);
+
+    // Kun kolonner fra ix_user_insurance_profile_active (V30) -> index-only scan
+    @Query("""
+            SELECT new io.ltj.restructuring.domain.insurance.ActiveCoverage(
+                       p.id, p.source, p.providerName, p.productName, p.validFrom, p.validTo)
+            FROM UserInsuranceProfile p
+            WHERE p.userId = :userId
+              AND p.active = true
+              AND (p.validFrom IS NULL OR p.validFrom <= :today)
+              AND (p.validTo IS NULL OR p.validTo >= :today)
+            ORDER BY p.id DESC
+            """)
+    List<ActiveCoverage> findActiveCoverage(@Param("userId") Long userId, @Param("today") LocalDate today);
 }
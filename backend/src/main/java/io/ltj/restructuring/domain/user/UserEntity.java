@@ -10,7 +10,8 @@ import java.time.Instant;
 public class UserEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "res_users_seq")
+    @SequenceGenerator(name = "res_users_seq", sequenceName = "res_users_seq", allocationSize = 50)
     private Long id;
 
     @Column(length = 320, nullable = false, unique = true)
@@ -12,7 +12,8 @@ import java.time.Instant;
 public class UserPlanEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "res_user_plans_seq")
+    @SequenceGenerator(name = "res_user_plans_seq", sequenceName = "res_user_plans_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -0,0 +1,186 @@
+package io.ltj.restructuring.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.encoder.EncoderBase;
+import org.slf4j.event.KeyValuePair;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Logback encoder that writes one JSON object per line.
+ * <p>
+ * SLF4J key-values ({@code log.atInfo().addKeyValue(...)}) and MDC entries are written
+ * as top-level fields, so they survive into the log platform instead of being dropped
+ * by a pattern layout. Keys that clash with the fixed fields ({@code ts}, {@code level},
+ * {@code msg}, ...) are written with a {@code kv_} prefix instead of duplicating them, and
+ * non-finite numbers are written as strings so every line stays valid JSON.
+ * <p>
+ * The encoder reuses a per-thread buffer; per event it allocates the final String and its
+ * UTF-8 byte array.
+ */
+public class JsonLogEncoder extends EncoderBase<ILoggingEvent> {
+
+    private static final byte[] EMPTY = new byte[0];
+    private static final int INITIAL_CAPACITY = 512;
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final Set<String> RESERVED_KEYS = Set.of("ts", "level", "logger", "thread", "msg", "stack_trace");
+    private static final String RESERVED_PREFIX = "kv_";
+
+    private final ThreadLocal<StringBuilder> buffers =
+            ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_CAPACITY));
+
+    private boolean includeThreadName = true;
+    private boolean includeMdc = true;
+
+    @Override
+    public byte[] headerBytes() {
+        return EMPTY;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        StringBuilder sb = buffers.get();
+        sb.setLength(0);
+
+        sb.append("{\"ts\":\"");
+        DateTimeFormatter.ISO_INSTANT.formatTo(event.getInstant(), sb);
+        sb.append("\",\"level\":\"").append(event.getLevel().levelStr).append('"');
+        field(sb, "logger", event.getLoggerName());
+        if (includeThreadName) {
+            field(sb, "thread", event.getThreadName());
+        }
+        field(sb, "msg", event.getFormattedMessage());
+
+        List<KeyValuePair> keyValuePairs = event.getKeyValuePairs();
+        if (keyValuePairs != null) {
+            for (KeyValuePair kv : keyValuePairs) {
+                sb.append(',');
+                string(sb, key(kv.key));
+                sb.append(':');
+                value(sb, kv.value);
+            }
+        }
+
+        if (includeMdc) {
+            Map<String, String> mdc = event.getMDCPropertyMap();
+            if (mdc != null) {
+                for (Map.Entry<String, String> entry : mdc.entrySet()) {
+                    field(sb, key(entry.getKey()), entry.getValue());
+                }
+            }
+        }
+
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            field(sb, "stack_trace", ThrowableProxyUtil.asString(throwable));
+        }
+
+        sb.append('}').append('\n');
+
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        if (sb.capacity() > MAX_RETAINED_CAPACITY) {
+            // Ikke hold på en stor buffer etter en enkelt stor stacktrace
+            buffers.set(new StringBuilder(INITIAL_CAPACITY));
+        }
+        return bytes;
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return EMPTY;
+    }
+
+    public void setIncludeThreadName(boolean includeThreadName) {
+        this.includeThreadName = includeThreadName;
+    }
+
+    public void setIncludeMdc(boolean includeMdc) {
+        this.includeMdc = includeMdc;
+    }
+
+    // Faste felt kan ikke overskrives; duplikate nøkler gir tvetydig JSON
+    private static String key(String key) {
+        if (key == null) {
+            return RESERVED_PREFIX + "null";
+        }
+        return RESERVED_KEYS.contains(key) ? RESERVED_PREFIX + key : key;
+    }
+
+    private static void field(StringBuilder sb, String key, String value) {
+        if (value == null) {
+            return;
+        }
+        sb.append(',');
+        string(sb, key);
+        sb.append(':');
+        string(sb, value);
+    }
+
+    private static void value(StringBuilder sb, Object value) {
+        if (value == null) {
+            sb.append("null");
+        } else if (value instanceof Double d && !Double.isFinite(d)
+                || value instanceof Float f && !Float.isFinite(f)) {
+            // NaN og Infinity finnes ikke i JSON
+            string(sb, String.valueOf(value));
+        } else if (value instanceof Number || value instanceof Boolean) {
+            sb.append(value);
+        } else if (value instanceof Map<?, ?> map) {
+            sb.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                string(sb, String.valueOf(entry.getKey()));
+                sb.append(':');
+                value(sb, entry.getValue());
+            }
+            sb.append('}');
+        } else if (value instanceof Iterable<?> iterable) {
+            sb.append('[');
+            boolean first = true;
+            for (Object item : iterable) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                value(sb, item);
+            }
+            sb.append(']');
+        } else {
+            string(sb, String.valueOf(value));
+        }
+    }
+
+    private static void string(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
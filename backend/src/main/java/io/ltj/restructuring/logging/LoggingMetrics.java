@@ -0,0 +1,59 @@
+package io.ltj.restructuring.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+
+/**
+ * Exposes queue depth and dropped-event counters for every {@link MeteredAsyncAppender}
+ * attached to the root logger (see logback-spring.xml).
+ * <p>
+ * Metrics: {@code logging.async.queue.depth}, {@code logging.async.queue.capacity},
+ * {@code logging.async.dropped}, tagged with the appender name.
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        Iterator<Appender<ILoggingEvent>> appenders = root.iteratorForAppenders();
+        while (appenders.hasNext()) {
+            if (appenders.next() instanceof MeteredAsyncAppender appender) {
+                bind(registry, appender);
+            }
+        }
+    }
+
+    private void bind(MeterRegistry registry, MeteredAsyncAppender appender) {
+        String name = appender.getName();
+
+        Gauge.builder("logging.async.queue.depth", appender, MeteredAsyncAppender::getNumberOfElementsInQueue)
+                .description("Log events waiting in the async appender queue")
+                .tag("appender", name)
+                .register(registry);
+
+        Gauge.builder("logging.async.queue.capacity", appender, MeteredAsyncAppender::getQueueSize)
+                .description("Configured size of the async appender queue")
+                .tag("appender", name)
+                .register(registry);
+
+        FunctionCounter.builder("logging.async.dropped", appender, MeteredAsyncAppender::getDroppedEvents)
+                .description("Log events discarded because the queue was under pressure")
+                .tag("appender", name)
+                .register(registry);
+    }
+}
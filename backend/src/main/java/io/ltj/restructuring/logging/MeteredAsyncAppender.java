@@ -0,0 +1,33 @@
+package io.ltj.restructuring.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded asynchronous appender that counts the events it drops.
+ * <p>
+ * Drop policy is inherited from logback: when the queue has less than
+ * {@code discardingThreshold} free slots, TRACE/DEBUG/INFO events are discarded,
+ * while WARN and ERROR are always enqueued (blocking briefly if the queue is full,
+ * as long as {@code neverBlock} is false).
+ */
+public class MeteredAsyncAppender extends AsyncAppender {
+
+    private final LongAdder droppedEvents = new LongAdder();
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        // Kalles kun når køen allerede er under terskelen, så true = faktisk droppet
+        boolean discardable = super.isDiscardable(event);
+        if (discardable) {
+            droppedEvents.increment();
+        }
+        return discardable;
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+}
@@ -0,0 +1,6 @@
+package io.ltj.restructuring.persistence;
+
+public enum DataSourceRole {
+    PRIMARY,
+    REPLICA
+}
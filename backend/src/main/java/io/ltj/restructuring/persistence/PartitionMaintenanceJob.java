@@ -0,0 +1,101 @@
+package io.ltj.restructuring.persistence;
+
+import io.ltj.restructuring.scheduling.JobLeadership;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the monthly partitions of {@code res_journal_entry} and {@code insurance_request}
+ * (V27) in shape: creates the coming months ahead of time so inserts never land in the
+ * default partition, and detaches months older than the retention into the {@code archive}
+ * schema. Detached partitions are not deleted; they can be dumped and dropped separately.
+ * Rows that landed in the default partition while a month was missing are moved into that
+ * month's partition when it is created (V35); anything still left there is logged as a warning.
+ * <p>
+ * Runs at startup and nightly, on whichever node leads the job ({@link JobLeadership}).
+ * No-op on H2 (test profile), where the tables are not partitioned.
+ */
+@Component
+public class PartitionMaintenanceJob {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionMaintenanceJob.class);
+
+    static final String JOB = "partition-maintenance";
+
+    static final String JOURNAL = "res_journal_entry";
+    static final String INSURANCE_REQUEST = "insurance_request";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseProduct databaseProduct;
+    private final PartitionMaintenanceProperties properties;
+    private final JobLeadership jobLeadership;
+
+    public PartitionMaintenanceJob(
+            JdbcTemplate jdbcTemplate,
+            DatabaseProduct databaseProduct,
+            PartitionMaintenanceProperties properties,
+            JobLeadership jobLeadership
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseProduct = databaseProduct;
+        this.properties = properties;
+        this.jobLeadership = jobLeadership;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        run();
+    }
+
+    @Scheduled(cron = "${partition-maintenance.cron:0 15 2 * * *}")
+    public void run() {
+        if (!properties.isEnabled() || !databaseProduct.isPostgres() || !jobLeadership.isLeader(JOB)) {
+            return;
+        }
+        try {
+            maintain(JOURNAL, properties.getJournalRetentionMonths());
+            maintain(INSURANCE_REQUEST, properties.getInsuranceRequestRetentionMonths());
+        } catch (Exception ex) {
+            // Neste kjøring prøver igjen; default-partisjonen tar imot rader i mellomtiden
+            log.atError().setCause(ex).log("Partition maintenance failed");
+        }
+    }
+
+    private void maintain(String table, int retentionMonths) {
+        Integer created = jdbcTemplate.queryForObject(
+                "SELECT ensure_monthly_partitions(?, ?)", Integer.class, table, properties.getMonthsAhead());
+        Integer archived = jdbcTemplate.queryForObject(
+                "SELECT archive_monthly_partitions(?, ?)", Integer.class, table, retentionMonths);
+
+        if (JOURNAL.equals(table) && archived != null && archived > 0) {
+            // Klient-id-ene til arkiverte innlegg trengs ikke lenger for dedupe
+            jdbcTemplate.update(
+                    "DELETE FROM res_journal_client_id " +
+                            "WHERE created_at < date_trunc('month', now()) - make_interval(months => ?)",
+                    retentionMonths
+            );
+        }
+
+        Long stranded = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM " + table + "_default", Long.class);
+        if (stranded != null && stranded > 0) {
+            log.atWarn()
+                    .addKeyValue("table", table)
+                    .addKeyValue("rows", stranded)
+                    .log("Rows left in default partition");
+        }
+
+        if ((created != null && created > 0) || (archived != null && archived > 0)) {
+            log.atInfo()
+                    .addKeyValue("table", table)
+                    .addKeyValue("created", created)
+                    .addKeyValue("archived", archived)
+                    .log("Partition maintenance");
+        }
+    }
+}
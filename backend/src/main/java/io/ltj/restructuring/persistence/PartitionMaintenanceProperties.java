@@ -0,0 +1,53 @@
+package io.ltj.restructuring.persistence;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for {@link PartitionMaintenanceJob}.
+ */
+@ConfigurationProperties(prefix = "partition-maintenance")
+public class PartitionMaintenanceProperties {
+
+    private boolean enabled = true;
+
+    /** Antall måneder frem i tid som skal ha ferdige partisjoner. */
+    private int monthsAhead = 3;
+
+    /** Hele måneder som beholdes i res_journal_entry; eldre kobles fra til skjemaet archive. 0 = behold alt. */
+    private int journalRetentionMonths = 0;
+
+    /** Som over, for insurance_request. */
+    private int insuranceRequestRetentionMonths = 0;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMonthsAhead() {
+        return monthsAhead;
+    }
+
+    public void setMonthsAhead(int monthsAhead) {
+        this.monthsAhead = monthsAhead;
+    }
+
+    public int getJournalRetentionMonths() {
+        return journalRetentionMonths;
+    }
+
+    public void setJournalRetentionMonths(int journalRetentionMonths) {
+        this.journalRetentionMonths = journalRetentionMonths;
+    }
+
+    public int getInsuranceRequestRetentionMonths() {
+        return insuranceRequestRetentionMonths;
+    }
+
+    public void setInsuranceRequestRetentionMonths(int insuranceRequestRetentionMonths) {
+        this.insuranceRequestRetentionMonths = insuranceRequestRetentionMonths;
+    }
+}
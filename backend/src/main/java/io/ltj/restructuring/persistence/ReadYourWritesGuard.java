@@ -0,0 +1,87 @@
+package io.ltj.restructuring.persistence;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides whether a read-only transaction may use the replica.
+ * <p>
+ * After a user's own committed write, that user's reads stay on the primary for
+ * {@code window} (or the measured replication lag, if larger) so they never see their
+ * update "disappear". When the replica is unreachable or lags more than {@code maxLag},
+ * every read goes to the primary.
+ */
+public class ReadYourWritesGuard {
+
+    private static final int MAX_TRACKED_USERS = 100_000;
+
+    private final Clock clock;
+    private final Duration window;
+    private final Duration maxLag;
+    private final ConcurrentHashMap<Long, Long> lastWriteMillis = new ConcurrentHashMap<>();
+
+    private volatile Duration currentLag = Duration.ZERO;
+    private volatile boolean replicaAvailable = true;
+
+    public ReadYourWritesGuard(Clock clock, Duration window, Duration maxLag) {
+        this.clock = clock;
+        this.window = window;
+        this.maxLag = maxLag;
+    }
+
+    public void recordWrite(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        if (lastWriteMillis.size() >= MAX_TRACKED_USERS) {
+            purgeExpired();
+        }
+        lastWriteMillis.put(userId, clock.millis());
+    }
+
+    public boolean allowReplicaRead(Long userId) {
+        if (!replicaAvailable || currentLag.compareTo(maxLag) > 0) {
+            return false;
+        }
+        if (userId == null) {
+            return true;
+        }
+
+        Long lastWrite = lastWriteMillis.get(userId);
+        if (lastWrite == null) {
+            return true;
+        }
+        if (clock.millis() - lastWrite < effectiveWindowMillis()) {
+            return false;
+        }
+        lastWriteMillis.remove(userId, lastWrite);
+        return true;
+    }
+
+    public void updateLag(Duration lag) {
+        this.currentLag = lag;
+        this.replicaAvailable = true;
+    }
+
+    public void markReplicaUnavailable() {
+        this.replicaAvailable = false;
+    }
+
+    public Duration getCurrentLag() {
+        return currentLag;
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    private long effectiveWindowMillis() {
+        return Math.max(window.toMillis(), currentLag.toMillis());
+    }
+
+    private void purgeExpired() {
+        long cutoff = clock.millis() - effectiveWindowMillis();
+        lastWriteMillis.values().removeIf(writtenAt -> writtenAt < cutoff);
+    }
+}
@@ -0,0 +1,82 @@
+package io.ltj.restructuring.persistence;
+
+import io.ltj.restructuring.security.JwtUserDetails;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends {@code @Transactional(readOnly = true)} work to the replica and everything else
+ * to the primary.
+ * <p>
+ * Must be wrapped in a {@code LazyConnectionDataSourceProxy}: the JPA transaction manager
+ * asks for a connection before the read-only flag is bound to the thread, and the lazy proxy
+ * defers the routing decision to the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Object WRITE_TRACKING_KEY = new Object();
+
+    private final ReadYourWritesGuard guard;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReadYourWritesGuard guard) {
+        this.guard = guard;
+        setTargetDataSources(Map.of(
+                DataSourceRole.PRIMARY, primary,
+                DataSourceRole.REPLICA, replica
+        ));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return DataSourceRole.PRIMARY;
+        }
+
+        Long userId = currentUserId();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite(userId);
+            return DataSourceRole.PRIMARY;
+        }
+
+        return guard.allowReplicaRead(userId) ? DataSourceRole.REPLICA : DataSourceRole.PRIMARY;
+    }
+
+    /** Records the user's write once the transaction actually commits. */
+    private void trackWrite(Long userId) {
+        if (userId == null
+                || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(WRITE_TRACKING_KEY)) {
+            return;
+        }
+
+        TransactionSynchronizationManager.bindResource(WRITE_TRACKING_KEY, userId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                guard.recordWrite(userId);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(WRITE_TRACKING_KEY);
+            }
+        });
+    }
+
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof JwtUserDetails user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,51 @@
+package io.ltj.restructuring.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+
+/**
+ * Polls the replica for its replay lag and feeds it to {@link ReadYourWritesGuard}.
+ * <p>
+ * A server that is not in recovery (e.g. two independent local databases during testing)
+ * reports zero lag.
+ */
+public class ReplicationLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicationLagMonitor.class);
+
+    private static final String LAG_SQL = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())
+                   END
+            """;
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final ReadYourWritesGuard guard;
+
+    public ReplicationLagMonitor(JdbcTemplate replicaJdbcTemplate, ReadYourWritesGuard guard) {
+        this.replicaJdbcTemplate = replicaJdbcTemplate;
+        this.guard = guard;
+    }
+
+    @Scheduled(fixedDelayString = "${replica-datasource.lag-check-interval-ms:5000}")
+    public void checkLag() {
+        try {
+            Double seconds = replicaJdbcTemplate.queryForObject(LAG_SQL, Double.class);
+            Duration lag = Duration.ofMillis(seconds == null ? 0 : (long) (seconds * 1000));
+            guard.updateLag(lag);
+        } catch (Exception ex) {
+            if (guard.isReplicaAvailable()) {
+                log.atWarn()
+                        .addKeyValue("reason", ex.getMessage())
+                        .log("Replica unavailable, routing all reads to primary");
+            }
+            guard.markReplicaUnavailable();
+        }
+    }
+}
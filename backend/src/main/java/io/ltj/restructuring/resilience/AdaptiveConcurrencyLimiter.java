@@ -0,0 +1,224 @@
+package io.ltj.restructuring.resilience;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Vegas-style adaptive concurrency limiter with strict priority classes.
+ * <p>
+ * The limit grows while observed latency stays close to the lowest latency seen
+ * (no queueing downstream) and shrinks when latency climbs or requests fail. Each
+ * {@link RequestPriority} may only use its share of the limit, and a waiting request
+ * blocks every lower class while its own share has room, so admin/export bursts cannot
+ * starve interactive calls. A class queued only because its share is used up (a login storm
+ * at the AUTH cap) does not hold back lower classes from the rest of the limit.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /** Re-sample the no-load latency every N samples so the baseline can drift upwards. */
+    private static final int PROBE_INTERVAL = 1000;
+
+    private static final RequestPriority[] PRIORITIES = RequestPriority.values();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition[] available = new Condition[PRIORITIES.length];
+    private final int[] waiting = new int[PRIORITIES.length];
+    private final LongAdder[] rejected = new LongAdder[PRIORITIES.length];
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private double limit;
+    private int inflight;
+    private long minRttNanos = Long.MAX_VALUE;
+    private long samples;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limits: min=" + minLimit + ", max=" + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            available[i] = lock.newCondition();
+            rejected[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Acquires a permit for the given class, queueing up to {@link RequestPriority#maxWait()}.
+     * Returns empty when the request should be shed.
+     */
+    public Optional<Permit> acquire(RequestPriority priority) throws InterruptedException {
+        int p = priority.ordinal();
+        lock.lock();
+        try {
+            if (canAcquire(p)) {
+                return Optional.of(grant());
+            }
+
+            if (waiting[p] >= priority.maxQueued() || priority.maxWait().isZero()) {
+                rejected[p].increment();
+                return Optional.empty();
+            }
+
+            waiting[p]++;
+            try {
+                long remaining = priority.maxWait().toNanos();
+                while (!canAcquire(p)) {
+                    if (remaining <= 0) {
+                        rejected[p].increment();
+                        return Optional.empty();
+                    }
+                    remaining = available[p].awaitNanos(remaining);
+                }
+                return Optional.of(grant());
+            } finally {
+                // Også ved timeout/avbrudd: lavere klasser kan ha ventet på at denne gikk ut av køen
+                waiting[p]--;
+                signalNext();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInflight() {
+        lock.lock();
+        try {
+            return inflight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting(RequestPriority priority) {
+        lock.lock();
+        try {
+            return waiting[priority.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejected(RequestPriority priority) {
+        return rejected[priority.ordinal()].sum();
+    }
+
+    private boolean canAcquire(int p) {
+        for (int higher = 0; higher < p; higher++) {
+            // En høyere klasse som står i kø fordi egen andel er brukt opp, kan ikke ta permiten uansett
+            if (waiting[higher] > 0 && inflight < allowed(higher)) {
+                return false;
+            }
+        }
+        return inflight < allowed(p);
+    }
+
+    private int allowed(int p) {
+        return Math.max(1, (int) (limit * PRIORITIES[p].share()));
+    }
+
+    private Permit grant() {
+        inflight++;
+        return new Permit(System.nanoTime());
+    }
+
+    /**
+     * Wakes the highest waiting class that can take a permit. The woken waiter signals again
+     * when it leaves the queue, so further permits are handed down one at a time.
+     */
+    private void signalNext() {
+        for (int p = 0; p < PRIORITIES.length; p++) {
+            if (waiting[p] > 0 && canAcquire(p)) {
+                available[p].signal();
+                return;
+            }
+        }
+    }
+
+    private void release(long rttNanos, boolean dropped) {
+        lock.lock();
+        try {
+            int inflightAtSample = inflight;
+            inflight--;
+            onSample(rttNanos, dropped, inflightAtSample);
+            signalNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onSample(long rttNanos, boolean dropped, int inflightAtSample) {
+        long rtt = Math.max(1, rttNanos);
+        samples++;
+        if (samples % PROBE_INTERVAL == 0 || rtt < minRttNanos) {
+            minRttNanos = rtt;
+        }
+
+        double logLimit = Math.log10(Math.max(2, limit));
+        double step = Math.max(1, logLimit);
+
+        if (dropped) {
+            limit = Math.max(minLimit, limit - step);
+            return;
+        }
+
+        // Ikke øk grensen når den ikke faktisk er i bruk
+        if (inflightAtSample * 2 < limit) {
+            return;
+        }
+
+        double alpha = Math.max(1, 3 * logLimit);
+        double beta = Math.max(2, 6 * logLimit);
+        double queue = limit * (1 - (double) minRttNanos / rtt);
+
+        if (queue < alpha) {
+            limit = Math.min(maxLimit, limit + step);
+        } else if (queue > beta) {
+            limit = Math.max(minLimit, limit - step);
+        }
+    }
+
+    /**
+     * A held concurrency slot. Must be released exactly once.
+     */
+    public final class Permit {
+
+        private final long startNanos;
+        private boolean released;
+
+        private Permit(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        public void release() {
+            release(false);
+        }
+
+        /** Releases the slot and reports the request as failed/overloaded. */
+        public void releaseDropped() {
+            release(true);
+        }
+
+        private void release(boolean dropped) {
+            if (released) {
+                return;
+            }
+            released = true;
+            AdaptiveConcurrencyLimiter.this.release(System.nanoTime() - startNanos, dropped);
+        }
+    }
+}
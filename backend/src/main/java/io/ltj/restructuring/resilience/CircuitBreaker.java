@@ -0,0 +1,162 @@
+package io.ltj.restructuring.resilience;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Count-based circuit breaker.
+ * <p>
+ * CLOSED: outcomes are recorded in a sliding window; the breaker opens when the share of
+ * failed or slow calls reaches the threshold. OPEN: calls are rejected until
+ * {@code openDuration} has passed. HALF_OPEN: only {@code halfOpenMaxCalls} probe calls
+ * are let through; if they all succeed the breaker closes, any failure re-opens it.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final Clock clock;
+    private final Duration slowCallThreshold;
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final Duration openDuration;
+    private final int halfOpenMaxCalls;
+
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAtMillis;
+    private int halfOpenAdmitted;
+    private int halfOpenSucceeded;
+
+    public CircuitBreaker(
+            String name,
+            Clock clock,
+            int windowSize,
+            int minimumCalls,
+            double failureRateThreshold,
+            Duration slowCallThreshold,
+            Duration openDuration,
+            int halfOpenMaxCalls
+    ) {
+        this.name = name;
+        this.clock = clock;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallThreshold = slowCallThreshold;
+        this.openDuration = openDuration;
+        this.halfOpenMaxCalls = Math.max(1, halfOpenMaxCalls);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns true if a call may proceed. Every permitted call must be followed by
+     * {@link #onSuccess(Duration)} or {@link #onFailure()}.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.millis() - openedAtMillis < openDuration.toMillis()) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenAdmitted = 0;
+            halfOpenSucceeded = 0;
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (halfOpenAdmitted >= halfOpenMaxCalls) {
+                return false;
+            }
+            halfOpenAdmitted++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess(Duration elapsed) {
+        boolean slow = elapsed.compareTo(slowCallThreshold) > 0;
+
+        if (state == State.HALF_OPEN) {
+            if (slow) {
+                open();
+            } else if (++halfOpenSucceeded >= halfOpenMaxCalls) {
+                close();
+            }
+            return;
+        }
+        record(slow);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /** Time until an OPEN breaker lets probes through again (zero when not open). */
+    public synchronized Duration remainingOpen() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+        long remaining = openDuration.toMillis() - (clock.millis() - openedAtMillis);
+        return Duration.ofMillis(Math.max(0, remaining));
+    }
+
+    private void record(boolean failed) {
+        if (state == State.OPEN) {
+            return;
+        }
+
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failed;
+        if (failed) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+
+        if (windowCount >= minimumCalls
+                && (double) windowFailures / windowCount >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtMillis = clock.millis();
+        resetWindow();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        windowIndex = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+}
@@ -0,0 +1,62 @@
+package io.ltj.restructuring.resilience;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Guards connection acquisition with a {@link CircuitBreaker}.
+ * <p>
+ * Both JPA and JdbcTemplate obtain connections through the DataSource, so this covers every
+ * access path. A connection timeout or an acquisition slower than the breaker's slow-call
+ * threshold counts against the database; while the breaker is open callers fail
+ * immediately instead of queueing on the pool for {@code connectionTimeout}.
+ */
+public class CircuitBreakingDataSource extends DelegatingDataSource {
+
+    private final CircuitBreaker breaker;
+
+    public CircuitBreakingDataSource(DataSource target, CircuitBreaker breaker) {
+        super(target);
+        this.breaker = breaker;
+    }
+
+    public CircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return guarded(() -> obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return guarded(() -> obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection guarded(ConnectionSupplier supplier) throws SQLException {
+        if (!breaker.tryAcquire()) {
+            throw new DatabaseUnavailableException(breaker.getName());
+        }
+
+        long start = System.nanoTime();
+        Connection connection;
+        try {
+            connection = supplier.get();
+        } catch (SQLException | RuntimeException ex) {
+            breaker.onFailure();
+            throw ex;
+        }
+        breaker.onSuccess(Duration.ofNanos(System.nanoTime() - start));
+        return connection;
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
@@ -0,0 +1,95 @@
+package io.ltj.restructuring.resilience;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.ltj.restructuring.api.error.ApiErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Servlet filter in front of Spring Security that admits requests through
+ * {@link AdaptiveConcurrencyLimiter}. Shed requests get 503 with Retry-After
+ * before any JWT parsing or DB work happens.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ObjectMapper objectMapper;
+    private final long retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(
+            AdaptiveConcurrencyLimiter limiter,
+            ObjectMapper objectMapper,
+            ConcurrencyLimitProperties properties
+    ) {
+        this.limiter = limiter;
+        this.objectMapper = objectMapper;
+        this.retryAfterSeconds = Math.max(1, properties.getRetryAfter().toSeconds());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        RequestPriority priority = RequestPriority.classify(request);
+        if (priority == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Optional<AdaptiveConcurrencyLimiter.Permit> permit;
+        try {
+            permit = limiter.acquire(priority);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            permit = Optional.empty();
+        }
+
+        if (permit.isEmpty()) {
+            log.atDebug()
+                    .addKeyValue("priority", priority)
+                    .addKeyValue("path", request.getRequestURI())
+                    .addKeyValue("limit", limiter.getLimit())
+                    .log("Request shed by concurrency limiter");
+            reject(response);
+            return;
+        }
+
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(request, response);
+            dropped = response.getStatus() >= 500;
+        } finally {
+            if (dropped) {
+                permit.get().releaseDropped();
+            } else {
+                permit.get().release();
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(
+                response.getOutputStream(),
+                new ApiErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server is busy, try again shortly")
+        );
+    }
+}
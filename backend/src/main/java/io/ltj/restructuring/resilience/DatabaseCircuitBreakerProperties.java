@@ -0,0 +1,90 @@
+package io.ltj.restructuring.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Settings for the circuit breaker around the application DataSource.
+ */
+@ConfigurationProperties(prefix = "db-circuit-breaker")
+public class DatabaseCircuitBreakerProperties {
+
+    private boolean enabled = true;
+    private int windowSize = 20;
+    private int minimumCalls = 5;
+    private double failureRateThreshold = 0.5;
+    private Duration slowCallThreshold = Duration.ofMillis(500);
+    private Duration openDuration = Duration.ofSeconds(10);
+    private int halfOpenMaxCalls = 2;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public void setMinimumCalls(int minimumCalls) {
+        this.minimumCalls = minimumCalls;
+    }
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(double failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public Duration getSlowCallThreshold() {
+        return slowCallThreshold;
+    }
+
+    public void setSlowCallThreshold(Duration slowCallThreshold) {
+        this.slowCallThreshold = slowCallThreshold;
+    }
+
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    public void setOpenDuration(Duration openDuration) {
+        this.openDuration = openDuration;
+    }
+
+    public int getHalfOpenMaxCalls() {
+        return halfOpenMaxCalls;
+    }
+
+    public void setHalfOpenMaxCalls(int halfOpenMaxCalls) {
+        this.halfOpenMaxCalls = halfOpenMaxCalls;
+    }
+
+    public CircuitBreaker newBreaker(String name, Clock clock) {
+        return new CircuitBreaker(
+                name,
+                clock,
+                windowSize,
+                minimumCalls,
+                failureRateThreshold,
+                slowCallThreshold,
+                openDuration,
+                halfOpenMaxCalls
+        );
+    }
+}
@@ -0,0 +1,39 @@
+package io.ltj.restructuring.resilience;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The circuit breakers guarding the application's DataSources (primary and, if configured,
+ * the read replica), for callers that need to know how long the database stays unavailable.
+ */
+public class DatabaseCircuitBreakers {
+
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(5);
+
+    private final List<CircuitBreaker> breakers;
+
+    public DatabaseCircuitBreakers(List<CircuitBreaker> breakers) {
+        this.breakers = List.copyOf(breakers);
+    }
+
+    public List<CircuitBreaker> all() {
+        return breakers;
+    }
+
+    /**
+     * Time until the longest-open breaker lets probes through again, rounded up to whole
+     * seconds. Falls back to five seconds when no breaker is open (a pool timeout rather than
+     * an open circuit).
+     */
+    public Duration retryAfter() {
+        long millis = 0;
+        for (CircuitBreaker breaker : breakers) {
+            millis = Math.max(millis, breaker.remainingOpen().toMillis());
+        }
+        if (millis == 0) {
+            return DEFAULT_RETRY_AFTER;
+        }
+        return Duration.ofSeconds((millis + 999) / 1000);
+    }
+}
@@ -0,0 +1,16 @@
+package io.ltj.restructuring.resilience;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Thrown instead of waiting for a pool connection while the database circuit breaker is open.
+ * <p>
+ * Extends {@link SQLTransientConnectionException} so Spring and Hibernate translate it the same
+ * way as a Hikari connection timeout.
+ */
+public class DatabaseUnavailableException extends SQLTransientConnectionException {
+
+    public DatabaseUnavailableException(String breakerName) {
+        super("Database circuit breaker '" + breakerName + "' is open");
+    }
+}
@@ -0,0 +1,78 @@
+package io.ltj.restructuring.resilience;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.Duration;
+
+/**
+ * Priority classes used by {@link AdaptiveConcurrencyLimiter}, highest priority first.
+ * <p>
+ * {@code share} is the fraction of the current limit a class may occupy, {@code maxWait}
+ * how long a request may queue for a permit and {@code maxQueued} how many may queue at once.
+ */
+public enum RequestPriority {
+
+    // Halv andel: en login-storm (BCrypt) kan ikke ta alle permits fra resten av API-et
+    AUTH(0.5, Duration.ofMillis(1000), 50),
+    INTERACTIVE(1.0, Duration.ofMillis(1000), 100),
+    ADMIN(0.5, Duration.ofMillis(250), 10),
+    LOGS(0.25, Duration.ZERO, 0);
+
+    private final double share;
+    private final Duration maxWait;
+    private final int maxQueued;
+
+    RequestPriority(double share, Duration maxWait, int maxQueued) {
+        this.share = share;
+        this.maxWait = maxWait;
+        this.maxQueued = maxQueued;
+    }
+
+    public double share() {
+        return share;
+    }
+
+    public Duration maxWait() {
+        return maxWait;
+    }
+
+    public int maxQueued() {
+        return maxQueued;
+    }
+
+    /**
+     * Classifies a request by path. Returns {@code null} for requests that are not limited
+     * (CORS preflight, actuator probes, swagger, static files, long-lived event streams).
+     */
+    public static RequestPriority classify(HttpServletRequest request) {
+        if ("OPTIONS".equalsIgnoreCase(request.getMethod())) {
+            return null;
+        }
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+
+        if (!path.startsWith("/api/")) {
+            return null;
+        }
+        if (path.equals("/api/sync/stream")) {
+            // Holdes åpen i minutter uten å bruke DB; ville ellers spist en permit hver
+            return null;
+        }
+        if (path.startsWith("/api/auth/")) {
+            return AUTH;
+        }
+        if (path.equals("/api/log")) {
+            return LOGS;
+        }
+        if (path.startsWith("/api/system/")
+                || path.startsWith("/api/admin/")
+                || path.equals("/api/insurance/send")
+                || path.equals("/api/config")
+                || path.equals("/api/dbinfo")
+                || path.equals("/api/dbversion")
+                || path.endsWith("/pdf")) {
+            return ADMIN;
+        }
+        return INTERACTIVE;
+    }
+}
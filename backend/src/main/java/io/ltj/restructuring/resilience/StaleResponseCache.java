@@ -0,0 +1,129 @@
+package io.ltj.restructuring.resilience;
+
+import io.ltj.restructuring.cache.CacheInvalidation;
+import io.ltj.restructuring.cache.CacheInvalidationListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Last-known-good responses for read endpoints, served while the database is unavailable.
+ * <p>
+ * Every successful response passes through {@link #serve}; when the loader fails because the
+ * database cannot be reached (breaker open, pool timeout) the previous response is returned
+ * with {@code Age} and {@code Warning: 110} headers instead of an error. Entries are kept in
+ * a bounded LRU map, and dropped on every node when the underlying data changes
+ * (see {@code CacheInvalidationBus}).
+ */
+@Component
+public class StaleResponseCache implements CacheInvalidationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(StaleResponseCache.class);
+
+    private static final int MAX_ENTRIES = 10_000;
+    private static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    private final Clock clock;
+    private final Map<CacheKey, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    public StaleResponseCache(Clock clock) {
+        this.clock = clock;
+    }
+
+    public <T> ResponseEntity<T> serve(String region, Object key, Supplier<ResponseEntity<T>> loader) {
+        CacheKey cacheKey = new CacheKey(region, String.valueOf(key));
+        ResponseEntity<T> response;
+        try {
+            response = loader.get();
+        } catch (RuntimeException ex) {
+            if (!DatabaseFailures.isUnavailable(ex)) {
+                throw ex;
+            }
+            ResponseEntity<T> stale = stale(cacheKey);
+            if (stale == null) {
+                throw ex;
+            }
+            log.atWarn()
+                    .addKeyValue("region", region)
+                    .addKeyValue("reason", ex.getMessage())
+                    .log("Serving stale response while database is unavailable");
+            return stale;
+        }
+
+        if (response.getStatusCode().is2xxSuccessful()) {
+            synchronized (entries) {
+                entries.put(cacheKey, new Entry(response, clock.instant()));
+            }
+        }
+        return response;
+    }
+
+    public void evict(String region, Object key) {
+        synchronized (entries) {
+            entries.remove(new CacheKey(region, String.valueOf(key)));
+        }
+    }
+
+    public void evictRegion(String region) {
+        synchronized (entries) {
+            entries.keySet().removeIf(k -> k.region().equals(region));
+        }
+    }
+
+    @Override
+    public void evict(CacheInvalidation invalidation) {
+        if (invalidation.isWholeRegion()) {
+            evictRegion(invalidation.region());
+        } else {
+            evict(invalidation.region(), invalidation.key());
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> stale(CacheKey key) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            return null;
+        }
+
+        long ageSeconds = Duration.between(entry.storedAt(), clock.instant()).toSeconds();
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(entry.response().getHeaders());
+        headers.set(HttpHeaders.AGE, String.valueOf(Math.max(0, ageSeconds)));
+        headers.set(HttpHeaders.WARNING, STALE_WARNING);
+
+        return (ResponseEntity<T>) new ResponseEntity<>(
+                entry.response().getBody(),
+                headers,
+                entry.response().getStatusCode()
+        );
+    }
+
+    private record CacheKey(String region, String key) { }
+
+    private record Entry(ResponseEntity<?> response, Instant storedAt) { }
+}
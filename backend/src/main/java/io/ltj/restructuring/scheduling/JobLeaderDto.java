@@ -0,0 +1,16 @@
+package io.ltj.restructuring.scheduling;
+
+import java.time.LocalDateTime;
+
+/**
+ * Leader of one scheduled job. {@code stale} means the leader has missed several heartbeats
+ * and the job is about to move to another node.
+ */
+public record JobLeaderDto(
+        String job,
+        String nodeId,
+        LocalDateTime acquiredAt,
+        LocalDateTime heartbeatAt,
+        boolean stale
+) {
+}
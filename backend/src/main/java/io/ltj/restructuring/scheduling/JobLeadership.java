@@ -0,0 +1,23 @@
+package io.ltj.restructuring.scheduling;
+
+import java.util.List;
+
+/**
+ * Decides which node runs a cluster-wide scheduled job.
+ * <p>
+ * Every node keeps its {@code @Scheduled} triggers; a job body starts with
+ * {@code if (!jobLeadership.isLeader(JOB)) return;} so only the current leader does the work.
+ */
+public interface JobLeadership {
+
+    /**
+     * Whether this node currently leads {@code job}. The first call for a job also makes this
+     * node compete for it, and waits briefly for that first attempt.
+     */
+    boolean isLeader(String job);
+
+    /** Current leader of every known job, as seen by this node. */
+    List<JobLeaderDto> leaders();
+
+    String nodeId();
+}
@@ -0,0 +1,68 @@
+package io.ltj.restructuring.scheduling;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for leader election of scheduled jobs. Only used against PostgreSQL.
+ */
+@ConfigurationProperties(prefix = "job-leadership")
+public class JobLeadershipProperties {
+
+    private boolean enabled = true;
+
+    /** Tom = pid@vert fra JVM-en. */
+    private String nodeId = "";
+
+    /** Hvor ofte låsene forsøkes tatt og lederskapet bekreftes. */
+    private Duration heartbeat = Duration.ofSeconds(5);
+
+    /**
+     * Uten vellykket heartbeat så lenge regnes noden ikke lenger som leder, og Postgres
+     * avslutter sesjonen (idle_session_timeout) slik at låsene går videre.
+     */
+    private Duration leaseTimeout = Duration.ofSeconds(20);
+
+    private Duration maxReconnectDelay = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public Duration getHeartbeat() {
+        return heartbeat;
+    }
+
+    public void setHeartbeat(Duration heartbeat) {
+        this.heartbeat = heartbeat;
+    }
+
+    public Duration getLeaseTimeout() {
+        return leaseTimeout;
+    }
+
+    public void setLeaseTimeout(Duration leaseTimeout) {
+        this.leaseTimeout = leaseTimeout;
+    }
+
+    public Duration getMaxReconnectDelay() {
+        return maxReconnectDelay;
+    }
+
+    public void setMaxReconnectDelay(Duration maxReconnectDelay) {
+        this.maxReconnectDelay = maxReconnectDelay;
+    }
+}
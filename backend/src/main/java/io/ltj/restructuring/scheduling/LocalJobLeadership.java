@@ -0,0 +1,39 @@
+package io.ltj.restructuring.scheduling;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-node fallback (H2, or leader election switched off): this node leads every job.
+ */
+public class LocalJobLeadership implements JobLeadership {
+
+    private final String nodeId;
+    private final Map<String, LocalDateTime> jobs = new ConcurrentHashMap<>();
+
+    public LocalJobLeadership(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public boolean isLeader(String job) {
+        jobs.putIfAbsent(job, LocalDateTime.now());
+        return true;
+    }
+
+    @Override
+    public List<JobLeaderDto> leaders() {
+        LocalDateTime now = LocalDateTime.now();
+        return jobs.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(e -> new JobLeaderDto(e.getKey(), nodeId, e.getValue(), now, false))
+                .toList();
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+}
@@ -0,0 +1,317 @@
+package io.ltj.restructuring.scheduling;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Leader election for scheduled jobs with PostgreSQL session-level advisory locks.
+ * <p>
+ * One background thread owns a dedicated connection outside the Hikari pool and holds one
+ * {@code pg_try_advisory_lock} per job it leads. Every heartbeat it tries to take the jobs it
+ * does not lead yet and stamps {@code res_job_leader} (V31) for the ones it does; a failed
+ * heartbeat means the connection, and with it every lock, is gone.
+ * <p>
+ * Failover: when a node dies its session ends and Postgres releases the locks; the next
+ * heartbeat on another node takes them. A node that hangs instead stops counting itself as
+ * leader once {@code leaseTimeout} passes without a heartbeat, and Postgres ends its idle
+ * session after the same timeout ({@code idle_session_timeout}, PostgreSQL 14+).
+ */
+public class PgAdvisoryLockJobLeadership implements JobLeadership, SmartLifecycle, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(PgAdvisoryLockJobLeadership.class);
+
+    /** Første nøkkel i pg_try_advisory_lock(int, int): skiller jobblåsene fra andre advisory locks. */
+    static final int LOCK_NAMESPACE = 0x52455354;   // "REST"
+
+    private static final long FIRST_ATTEMPT_WAIT_MILLIS = 3_000;
+
+    private final JobLeadershipProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String nodeId;
+
+    private final Set<String> wanted = ConcurrentHashMap.newKeySet();
+    private final Set<String> held = ConcurrentHashMap.newKeySet();
+    private final Object signal = new Object();
+    private long rounds;                      // guarded by signal
+    private volatile long leaseUntilNanos;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public PgAdvisoryLockJobLeadership(
+            JobLeadershipProperties properties,
+            JdbcTemplate jdbcTemplate,
+            String url,
+            String username,
+            String password,
+            String nodeId
+    ) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.nodeId = nodeId;
+    }
+
+    // ------------------------------------------------------
+    // JobLeadership
+    // ------------------------------------------------------
+
+    @Override
+    public boolean isLeader(String job) {
+        if (!running) {
+            return false;
+        }
+        if (wanted.add(job)) {
+            awaitAttempt();
+        }
+        return held.contains(job) && System.nanoTime() - leaseUntilNanos < 0;
+    }
+
+    @Override
+    public List<JobLeaderDto> leaders() {
+        return jdbcTemplate.query(
+                "SELECT job_name, node_id, acquired_at, heartbeat_at, " +
+                        "heartbeat_at < now() - make_interval(secs => ?) AS stale " +
+                        "FROM res_job_leader ORDER BY job_name",
+                (rs, rowNum) -> new JobLeaderDto(
+                        rs.getString("job_name"),
+                        rs.getString("node_id"),
+                        rs.getTimestamp("acquired_at").toLocalDateTime(),
+                        rs.getTimestamp("heartbeat_at").toLocalDateTime(),
+                        rs.getBoolean("stale")
+                ),
+                (double) properties.getLeaseTimeout().toSeconds()
+        );
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    // Ny jobb: vekk tråden og vent til en hel runde har tatt den med
+    private void awaitAttempt() {
+        long deadline = System.currentTimeMillis() + FIRST_ATTEMPT_WAIT_MILLIS;
+        synchronized (signal) {
+            long target = rounds + 2;
+            signal.notifyAll();
+            while (rounds < target && running) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return;
+                }
+                try {
+                    signal.wait(remaining);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // ------------------------------------------------------
+    // Livssyklus
+    // ------------------------------------------------------
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::runLoop, "job-leadership");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        if (worker != null) {
+            // Tråden lukker forbindelsen selv; det slipper låsene med en gang
+            try {
+                worker.join(5_000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Startes før og stoppes etter jobbene som spør
+        return Integer.MIN_VALUE + 1000;
+    }
+
+    // ------------------------------------------------------
+    // Heartbeat-tråd
+    // ------------------------------------------------------
+
+    private void runLoop() {
+        long backoffMillis = 500;
+
+        while (running) {
+            try (Connection connection = connect()) {
+                backoffMillis = 500;
+                while (running) {
+                    heartbeat(connection);
+                    pause(properties.getHeartbeat().toMillis());
+                }
+            } catch (SQLException ex) {
+                dropAll("connection lost");
+                if (!running) {
+                    break;
+                }
+                log.atWarn()
+                        .addKeyValue("reason", ex.getMessage())
+                        .addKeyValue("retryInMs", backoffMillis)
+                        .log("Job leadership lost its connection");
+                pause(backoffMillis);
+                backoffMillis = Math.min(backoffMillis * 2, properties.getMaxReconnectDelay().toMillis());
+            }
+        }
+        dropAll("shutdown");
+    }
+
+    private Connection connect() throws SQLException {
+        Properties info = new Properties();
+        if (username != null) {
+            info.setProperty("user", username);
+        }
+        if (password != null) {
+            info.setProperty("password", password);
+        }
+        info.setProperty("tcpKeepAlive", "true");
+        info.setProperty("ApplicationName", "restructuring-jobs " + nodeId);
+        Connection connection = DriverManager.getConnection(url, info);
+        connection.setAutoCommit(true);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET idle_session_timeout = " + properties.getLeaseTimeout().toMillis());
+        } catch (SQLException ex) {
+            // Før PostgreSQL 14: henger noden, slippes låsene først når TCP-forbindelsen dør
+            log.atDebug().addKeyValue("reason", ex.getMessage()).log("idle_session_timeout not available");
+        }
+        return connection;
+    }
+
+    private void heartbeat(Connection connection) throws SQLException {
+        long startedNanos = System.nanoTime();
+
+        for (String job : wanted) {
+            if (!held.contains(job) && tryLock(connection, job)) {
+                held.add(job);
+                claim(connection, job);
+                log.atInfo().addKeyValue("job", job).addKeyValue("node", nodeId).log("Took job leadership");
+            }
+        }
+
+        // Skriver til forbindelsen som holder låsene: lykkes dette, holdes de fortsatt
+        try (PreparedStatement ps = connection.prepareStatement(
+                "UPDATE res_job_leader SET heartbeat_at = now() WHERE job_name = ? AND node_id = ?")) {
+            for (String job : held) {
+                ps.setString(1, job);
+                ps.setString(2, nodeId);
+                if (ps.executeUpdate() == 0) {
+                    claim(connection, job);
+                }
+            }
+        }
+        if (held.isEmpty()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT 1");
+            }
+        }
+
+        leaseUntilNanos = startedNanos + properties.getLeaseTimeout().toNanos();
+        synchronized (signal) {
+            rounds++;
+            signal.notifyAll();
+        }
+    }
+
+    private static boolean tryLock(Connection connection, String job) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT pg_try_advisory_lock(?, hashtext(?))")) {
+            ps.setInt(1, LOCK_NAMESPACE);
+            ps.setString(2, job);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private void claim(Connection connection, String job) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO res_job_leader (job_name, node_id, acquired_at, heartbeat_at) " +
+                        "VALUES (?, ?, now(), now()) " +
+                        "ON CONFLICT (job_name) DO UPDATE SET node_id = EXCLUDED.node_id, " +
+                        "acquired_at = EXCLUDED.acquired_at, heartbeat_at = EXCLUDED.heartbeat_at")) {
+            ps.setString(1, job);
+            ps.setString(2, nodeId);
+            ps.executeUpdate();
+        }
+    }
+
+    private void dropAll(String reason) {
+        leaseUntilNanos = System.nanoTime();
+        if (held.isEmpty()) {
+            return;
+        }
+        List<String> dropped = new ArrayList<>(held);
+        held.clear();
+        log.atInfo().addKeyValue("jobs", dropped).addKeyValue("reason", reason).log("Gave up job leadership");
+    }
+
+    private void pause(long millis) {
+        synchronized (signal) {
+            if (!running) {
+                return;
+            }
+            try {
+                signal.wait(Math.max(1, millis));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("jobs.leadership.held", held, Set::size)
+                .description("Scheduled jobs this node currently leads")
+                .register(registry);
+    }
+}
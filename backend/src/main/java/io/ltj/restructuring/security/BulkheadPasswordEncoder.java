@@ -0,0 +1,33 @@
+package io.ltj.restructuring.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Runs {@code encode} and {@code matches} of the delegate on the {@link PasswordHashingBulkhead}.
+ */
+public class BulkheadPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingBulkhead bulkhead;
+
+    public BulkheadPasswordEncoder(PasswordEncoder delegate, PasswordHashingBulkhead bulkhead) {
+        this.delegate = delegate;
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return bulkhead.execute("encode", () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return bulkhead.execute("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Leser bare prefikset; ingen hashing
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -4,14 +4,17 @@ import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import io.ltj.restructuring.domain.user.UserEntity;
 import io.ltj.restructuring.domain.user.UserRepository;
+import io.ltj.restructuring.resilience.DatabaseFailures;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import jakarta.servlet.FilterChain;
@@ -57,27 +60,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         userId != null &&
                         SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                    Optional<UserEntity> userOpt = userRepository.findById(userId);
-                    if (userOpt.isEmpty() || !email.equalsIgnoreCase(userOpt.get().getEmail())) {
-                        log.atWarn()
-                                .addKeyValue("userId", userId)
-                                .addKeyValue("email", email)
-                                .log("JWT rejected because user no longer exists or email mismatch");
+                    JwtUserDetails userDetails = loadUserDetails(userId, email);
+                    if (userDetails == null) {
                         filterChain.doFilter(request, response);
                         return;
                     }
 
-                    String role = Optional.ofNullable(userOpt.get().getRole())
-                            .map(String::toUpperCase)
-                            .orElse("USER");
-                    String authority = role.startsWith("ROLE_") ? role : "ROLE_" + role;
-
-                    JwtUserDetails userDetails = new JwtUserDetails(
-                            userId,
-                            userOpt.get().getEmail(),
-                            List.of(new SimpleGrantedAuthority(authority))
-                    );
-
                     UsernamePasswordAuthenticationToken authentication =
                             new UsernamePasswordAuthenticationToken(
                                     userDetails,
@@ -106,4 +94,39 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private JwtUserDetails loadUserDetails(Long userId, String email) {
+        Optional<UserEntity> userOpt;
+        try {
+            userOpt = userRepository.findById(userId);
+        } catch (DataAccessException | TransactionException ex) {
+            if (!DatabaseFailures.isUnavailable(ex)) {
+                throw ex;
+            }
+            // DB utilgjengelig: stol på den signerte tokenen slik at lesing fra stale-cache fortsatt virker,
+            // men bare som USER; roles-claimet kan være utdatert (degradert admin) i hele tokenens levetid
+            log.atWarn()
+                    .addKeyValue("userId", userId)
+                    .log("Database unavailable, authenticating from JWT as USER only");
+            return new JwtUserDetails(userId, email, authorities(null));
+        }
+
+        if (userOpt.isEmpty() || !email.equalsIgnoreCase(userOpt.get().getEmail())) {
+            log.atWarn()
+                    .addKeyValue("userId", userId)
+                    .addKeyValue("email", email)
+                    .log("JWT rejected because user no longer exists or email mismatch");
+            return null;
+        }
+
+        return new JwtUserDetails(userId, userOpt.get().getEmail(), authorities(userOpt.get().getRole()));
+    }
+
+    private List<SimpleGrantedAuthority> authorities(String rawRole) {
+        String role = Optional.ofNullable(rawRole)
+                .map(String::toUpperCase)
+                .orElse("USER");
+        String authority = role.startsWith("ROLE_") ? role : "ROLE_" + role;
+        return List.of(new SimpleGrantedAuthority(authority));
+    }
 }
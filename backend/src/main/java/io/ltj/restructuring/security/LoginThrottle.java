@@ -0,0 +1,321 @@
+package io.ltj.restructuring.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory token buckets for {@code /api/auth/login} and {@code /api/auth/register}, one per
+ * normalised email and one per client IP.
+ * <p>
+ * Each attempt takes a token from the IP bucket and, for logins, from the account bucket; an
+ * empty bucket rejects with the time until the next token. Failed logins on an account also
+ * add a lockout that doubles per failure after {@code freeFailures}, so guessing one
+ * password gets slower and slower. The lockout applies to the account, so the real user
+ * waits it out too; a successful login afterwards resets the failure count.
+ * <p>
+ * Keys live in {@code stripes} access-ordered maps, each behind its own lock, so attempts
+ * for different keys rarely contend. A stripe drops its least recently used key when full,
+ * and keys idle longer than {@code idleTimeout} are dropped as the stripe is touched.
+ * Locked-out accounts are skipped when trimming (dropping one lifts its lockout), so a stripe
+ * may hold up to twice its share of {@code maxEntries}. Past that hard ceiling the least
+ * recently used keys go even if locked: a flood of failed logins across many accounts cannot
+ * grow memory further, at the price of an early unlock for the oldest lockouts
+ * ({@code auth.throttle.lockouts.evicted}). A rejected attempt costs a hash lookup under one
+ * lock, not a BCrypt.
+ */
+public class LoginThrottle implements MeterBinder {
+
+    private static final String ACCOUNT_PREFIX = "a:";
+    private static final String IP_PREFIX = "i:";
+
+    private final boolean trustForwardedFor;
+    private final int trustedProxies;
+    private final Stripe[] stripes;
+    private final int maxEntriesPerStripe;
+    private final long idleNanos;
+    private final Limit account;
+    private final Limit ip;
+    private final int freeFailures;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong rejectedAccount = new AtomicLong();
+    private final AtomicLong rejectedIp = new AtomicLong();
+    private final AtomicLong evictedLockouts = new AtomicLong();
+
+    public LoginThrottle(LoginThrottleProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    LoginThrottle(LoginThrottleProperties properties, LongSupplier nanoClock) {
+        this.trustForwardedFor = properties.isTrustForwardedFor();
+        this.trustedProxies = Math.max(1, properties.getTrustedProxies());
+        int stripeCount = Math.max(1, properties.getStripes());
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.maxEntriesPerStripe = Math.max(1, properties.getMaxEntries() / stripeCount);
+        this.idleNanos = properties.getIdleTimeout().toNanos();
+        this.account = new Limit(properties.getAccount());
+        this.ip = new Limit(properties.getIp());
+        this.freeFailures = Math.max(0, properties.getFreeFailures());
+        this.baseDelayNanos = properties.getBaseDelay().toNanos();
+        this.maxDelayNanos = properties.getMaxDelay().toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes one login attempt from the IP and the account budget.
+     *
+     * @throws LoginThrottledException if either is used up or the account is locked out
+     */
+    public void acquire(String email, String clientIp) {
+        acquireForIp(clientIp);
+        String key = ACCOUNT_PREFIX + normalise(email);
+        long waitNanos = take(key, account, true);
+        if (waitNanos > 0) {
+            rejectedAccount.incrementAndGet();
+            throw new LoginThrottledException(retryAfter(waitNanos));
+        }
+    }
+
+    /**
+     * Takes one attempt from the IP budget only (registration).
+     *
+     * @throws LoginThrottledException if the budget is used up
+     */
+    public void acquireForIp(String clientIp) {
+        if (clientIp == null || clientIp.isBlank()) {
+            return;
+        }
+        long waitNanos = take(IP_PREFIX + clientIp, ip, false);
+        if (waitNanos > 0) {
+            rejectedIp.incrementAndGet();
+            throw new LoginThrottledException(retryAfter(waitNanos));
+        }
+    }
+
+    /** Failed password for {@code email}: extends the lockout once past the free failures. */
+    public void recordFailure(String email) {
+        String key = ACCOUNT_PREFIX + normalise(email);
+        Stripe stripe = stripeFor(key);
+        long now = nanoClock.getAsLong();
+        synchronized (stripe) {
+            Entry entry = stripe.get(key, account, now);
+            evictedLockouts.addAndGet(stripe.trimTo(maxEntriesPerStripe, now, key));
+            entry.failures++;
+            int over = entry.failures - freeFailures;
+            if (over > 0) {
+                // base * 2^(over-1), uten overflyt
+                long delay = over > 40 ? maxDelayNanos : Math.min(maxDelayNanos, baseDelayNanos << (over - 1));
+                if (delay < 0) {
+                    delay = maxDelayNanos;
+                }
+                entry.blockedUntil = now + delay;
+            }
+        }
+    }
+
+    /** Successful login: the account's failure count and lockout are cleared. */
+    public void recordSuccess(String email) {
+        String key = ACCOUNT_PREFIX + normalise(email);
+        Stripe stripe = stripeFor(key);
+        long now = nanoClock.getAsLong();
+        synchronized (stripe) {
+            Entry entry = stripe.entries.get(key);
+            if (entry != null) {
+                entry.failures = 0;
+                entry.blockedUntil = now;
+            }
+        }
+    }
+
+    /**
+     * When X-Forwarded-For is trusted, the hop {@code trustedProxies} from the right: the address
+     * the outermost trusted proxy saw. Hops further left are client-supplied and ignored.
+     * Otherwise the socket peer.
+     */
+    public String clientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                String[] hops = forwarded.split(",");
+                // Færre ledd enn proxyer: alle er lagt til av proxyene, ta det ytterste
+                String hop = hops[Math.max(0, hops.length - trustedProxies)].trim();
+                if (!hop.isEmpty()) {
+                    return hop;
+                }
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    public static String normalise(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Returnerer 0 når forsøket er tillatt, ellers nanosekunder til neste
+    private long take(String key, Limit limit, boolean checkLockout) {
+        Stripe stripe = stripeFor(key);
+        long now = nanoClock.getAsLong();
+        synchronized (stripe) {
+            stripe.evictIdle(now, idleNanos);
+            Entry entry = stripe.get(key, limit, now);
+            evictedLockouts.addAndGet(stripe.trimTo(maxEntriesPerStripe, now, key));
+
+            if (checkLockout && entry.blockedUntil - now > 0) {
+                return entry.blockedUntil - now;
+            }
+            entry.refill(limit, now);
+            if (entry.tokens >= 1) {
+                entry.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - entry.tokens) * limit.refillNanos);
+        }
+    }
+
+    private Stripe stripeFor(String key) {
+        int h = key.hashCode();
+        return stripes[Math.floorMod(h ^ (h >>> 16), stripes.length)];
+    }
+
+    private static Duration retryAfter(long nanos) {
+        return Duration.ofSeconds(Math.max(1, (nanos + 999_999_999L) / 1_000_000_000L));
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.entries.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.throttle.rejected", rejectedAccount, AtomicLong::get)
+                .description("Login attempts rejected by the throttle")
+                .tag("scope", "account")
+                .register(registry);
+        FunctionCounter.builder("auth.throttle.rejected", rejectedIp, AtomicLong::get)
+                .description("Login attempts rejected by the throttle")
+                .tag("scope", "ip")
+                .register(registry);
+        FunctionCounter.builder("auth.throttle.lockouts.evicted", evictedLockouts, AtomicLong::get)
+                .description("Locked-out accounts dropped at the hard size ceiling before their lockout ended")
+                .register(registry);
+        Gauge.builder("auth.throttle.keys", this, LoginThrottle::size)
+                .description("Accounts and IPs currently tracked by the login throttle")
+                .register(registry);
+    }
+
+    // ------------------------------------------------------
+    // Interne typer
+    // ------------------------------------------------------
+
+    private record Limit(int capacity, long refillNanos) {
+
+        Limit(LoginThrottleProperties.Bucket bucket) {
+            this(Math.max(1, bucket.getCapacity()), Math.max(1, bucket.getRefill().toNanos()));
+        }
+    }
+
+    private static final class Entry {
+
+        double tokens;
+        long refilledAt;
+        long lastSeen;
+        int failures;
+        long blockedUntil;
+
+        Entry(Limit limit, long now) {
+            this.tokens = limit.capacity();
+            this.refilledAt = now;
+            this.lastSeen = now;
+            this.blockedUntil = now;   // nanoTime kan være negativ; 0 er ikke "aldri"
+        }
+
+        void refill(Limit limit, long now) {
+            long elapsed = now - refilledAt;
+            if (elapsed > 0) {
+                tokens = Math.min(limit.capacity(), tokens + (double) elapsed / limit.refillNanos());
+                refilledAt = now;
+            }
+        }
+    }
+
+    /** Access-ordered: first entry is the least recently used. */
+    private static final class Stripe {
+
+        final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        Entry get(String key, Limit limit, long now) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(limit, now);
+                entries.put(key, entry);
+            }
+            entry.lastSeen = now;
+            return entry;
+        }
+
+        void evictIdle(long now, long idleNanos) {
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Entry eldest = it.next().getValue();
+                if (now - eldest.lastSeen <= idleNanos || eldest.blockedUntil - now > 0) {
+                    return;
+                }
+                it.remove();
+            }
+        }
+
+        /**
+         * Trims to {@code max}, then hard to {@code 2 * max}; {@code keep} (the key being
+         * updated) is never dropped.
+         *
+         * @return locked-out entries dropped at the hard ceiling
+         */
+        int trimTo(int max, long now, String keep) {
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (entries.size() > max && it.hasNext()) {
+                Map.Entry<String, Entry> eldest = it.next();
+                // Kontoer med aktiv lockout blir stående, ellers kunne fulle striper nullstille den
+                if (eldest.getValue().blockedUntil - now <= 0 && !eldest.getKey().equals(keep)) {
+                    it.remove();
+                }
+            }
+
+            // Hardt tak: over 2 × max går de eldste uansett, så minnet holder seg begrenset
+            int evictedLocked = 0;
+            it = entries.entrySet().iterator();
+            while (entries.size() > 2 * max && it.hasNext()) {
+                Map.Entry<String, Entry> eldest = it.next();
+                if (eldest.getKey().equals(keep)) {
+                    continue;
+                }
+                if (eldest.getValue().blockedUntil - now > 0) {
+                    evictedLocked++;
+                }
+                it.remove();
+            }
+            return evictedLocked;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package io.ltj.restructuring.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link LoginThrottle}.
+ */
+@ConfigurationProperties(prefix = "login-throttle")
+public class LoginThrottleProperties {
+
+    private boolean enabled = true;
+
+    /** Les klient-IP fra X-Forwarded-For; bare når appen kun nås gjennom proxyen. Ellers remoteAddr. */
+    private boolean trustForwardedFor = false;
+
+    /**
+     * Antall proxyer foran appen som legger til i X-Forwarded-For. Klient-IP er adressen så mange
+     * ledd fra høyre; alt lenger til venstre kan klienten ha skrevet selv.
+     */
+    private int trustedProxies = 1;
+
+    /** Antall låser; nøklene fordeles på dem etter hash. */
+    private int stripes = 64;
+
+    /** Øvre grense for sporede nøkler (konto + IP); eldste kastes først. */
+    private int maxEntries = 100_000;
+
+    /** Nøkler uten forsøk så lenge glemmes. */
+    private Duration idleTimeout = Duration.ofMinutes(30);
+
+    private Bucket account = new Bucket(10, Duration.ofMinutes(1));
+
+    private Bucket ip = new Bucket(30, Duration.ofSeconds(2));
+
+    /** Feilede innlogginger på rad før kontoen får ventetid. */
+    private int freeFailures = 3;
+
+    /** Første ventetid; dobles for hver ny feil, opp til max-delay. */
+    private Duration baseDelay = Duration.ofSeconds(1);
+
+    private Duration maxDelay = Duration.ofMinutes(15);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isTrustForwardedFor() {
+        return trustForwardedFor;
+    }
+
+    public void setTrustForwardedFor(boolean trustForwardedFor) {
+        this.trustForwardedFor = trustForwardedFor;
+    }
+
+    public int getTrustedProxies() {
+        return trustedProxies;
+    }
+
+    public void setTrustedProxies(int trustedProxies) {
+        this.trustedProxies = trustedProxies;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Bucket getAccount() {
+        return account;
+    }
+
+    public void setAccount(Bucket account) {
+        this.account = account;
+    }
+
+    public Bucket getIp() {
+        return ip;
+    }
+
+    public void setIp(Bucket ip) {
+        this.ip = ip;
+    }
+
+    public int getFreeFailures() {
+        return freeFailures;
+    }
+
+    public void setFreeFailures(int freeFailures) {
+        this.freeFailures = freeFailures;
+    }
+
+    public Duration getBaseDelay() {
+        return baseDelay;
+    }
+
+    public void setBaseDelay(Duration baseDelay) {
+        this.baseDelay = baseDelay;
+    }
+
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    public void setMaxDelay(Duration maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+
+    /** Token bucket: {@code capacity} forsøk i en byge, ett nytt per {@code refill}. */
+    public static class Bucket {
+
+        private int capacity;
+        private Duration refill;
+
+        public Bucket() {
+        }
+
+        public Bucket(int capacity, Duration refill) {
+            this.capacity = capacity;
+            this.refill = refill;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public Duration getRefill() {
+            return refill;
+        }
+
+        public void setRefill(Duration refill) {
+            this.refill = refill;
+        }
+    }
+}
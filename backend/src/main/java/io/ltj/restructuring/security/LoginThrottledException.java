@@ -0,0 +1,21 @@
+package io.ltj.restructuring.security;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a login or registration attempt is over its account or IP budget.
+ * Mapped to 429 with Retry-After.
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public LoginThrottledException(Duration retryAfter) {
+        super("Too many attempts, try again later");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,79 @@
+package io.ltj.restructuring.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.List;
+
+/**
+ * Spread of stored password hashes by format and BCrypt cost, so it is visible how far the
+ * rehash-on-login has come after {@link PasswordHashPolicy} raised the strength.
+ * <p>
+ * Metrics: {@code auth.password.hashes} tagged with {@code format} (delegating | legacy) and
+ * {@code cost}, and {@code auth.password.strength} for the strength used for new hashes.
+ * Counted in SQL from the hash prefix; the hashes themselves are never read into memory.
+ */
+public class PasswordHashCostStats implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashCostStats.class);
+
+    // {bcrypt}$2a$12$... -> kostnad på posisjon 13-14; $2a$10$... -> posisjon 5-6
+    private static final String SPREAD_SQL =
+            "SELECT format, cost, COUNT(*) AS users FROM (" +
+                    "  SELECT CASE WHEN password LIKE '{bcrypt}%' THEN 'delegating' ELSE 'legacy' END AS format," +
+                    "         CASE WHEN password LIKE '{bcrypt}%' THEN SUBSTRING(password, 13, 2)" +
+                    "              ELSE SUBSTRING(password, 5, 2) END AS cost" +
+                    "  FROM res_users) h " +
+                    "GROUP BY format, cost ORDER BY format, cost";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordHashPolicy policy;
+
+    private volatile MultiGauge spread;
+
+    public PasswordHashCostStats(JdbcTemplate jdbcTemplate, PasswordHashPolicy policy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.policy = policy;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${password-hashing.cost-stats-interval:PT1H}")
+    public void refresh() {
+        MultiGauge gauge = spread;
+        if (gauge == null) {
+            return;
+        }
+        try {
+            List<MultiGauge.Row<?>> rows = jdbcTemplate.query(SPREAD_SQL, (rs, rowNum) -> MultiGauge.Row.of(
+                    Tags.of("format", rs.getString("format"), "cost", String.valueOf(rs.getString("cost"))),
+                    rs.getLong("users")
+            ));
+            gauge.register(rows, true);
+        } catch (RuntimeException ex) {
+            log.atWarn().addKeyValue("error", ex.getMessage()).log("Could not count password hash costs");
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.password.strength", policy, PasswordHashPolicy::strength)
+                .description("BCrypt strength used for new password hashes")
+                .register(registry);
+        spread = MultiGauge.builder("auth.password.hashes")
+                .description("Stored password hashes by format and BCrypt cost")
+                .register(registry);
+    }
+}
@@ -0,0 +1,137 @@
+package io.ltj.restructuring.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.IntToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Decides how new password hashes are made.
+ * <p>
+ * New hashes are {@code {bcrypt}}-prefixed BCrypt at {@link #strength()}. Unless
+ * {@code password-hashing.strength} is set, the strength is picked at startup: one hash is
+ * timed at {@code minStrength}, and since each step doubles the work, the highest strength
+ * whose estimate stays within {@code targetVerifyTime} wins (never below {@code minStrength}).
+ * <p>
+ * Old hashes keep working: unprefixed ones are verified as plain BCrypt. Hashes whose cost is
+ * at most {@link #strength()} (prefixed: below it) report {@code upgradeEncoding}, and Spring
+ * Security rehashes them on the next successful login through {@code UserDetailsPasswordService}.
+ * Higher-cost hashes are left alone, prefixed or not, so a slower host never weakens an
+ * existing hash; such legacy hashes simply keep their missing prefix.
+ */
+public class PasswordHashPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashPolicy.class);
+
+    static final String BCRYPT = "bcrypt";
+
+    private static final int BENCHMARK_RUNS = 3;
+    private static final String BENCHMARK_PASSWORD = "benchmark-password";
+
+    private final int strength;
+
+    public PasswordHashPolicy(PasswordHashingProperties properties) {
+        this(properties, PasswordHashPolicy::timeHash);
+    }
+
+    PasswordHashPolicy(PasswordHashingProperties properties, IntToLongFunction hashNanos) {
+        if (properties.getStrength() > 0) {
+            this.strength = properties.getStrength();
+            log.atInfo().addKeyValue("strength", strength).log("BCrypt strength set by configuration");
+        } else {
+            this.strength = chooseStrength(properties, hashNanos);
+        }
+    }
+
+    public int strength() {
+        return strength;
+    }
+
+    /** Encoder for new hashes; also verifies hashes made before the {@code {bcrypt}} prefix. */
+    public PasswordEncoder encoder() {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(
+                BCRYPT, Map.of(BCRYPT, new BCryptPasswordEncoder(strength)));
+        // Eldre hasher lagret uten {id}; BCrypt leser kostnaden fra selve hashen
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder(strength));
+        return new LegacyCostAware(encoder, strength);
+    }
+
+    static int chooseStrength(PasswordHashingProperties properties, IntToLongFunction hashNanos) {
+        int min = Math.max(4, properties.getMinStrength());
+        int max = Math.min(31, Math.max(min, properties.getMaxStrength()));
+        long targetNanos = properties.getTargetVerifyTime().toNanos();
+
+        long measured = Long.MAX_VALUE;
+        for (int i = 0; i < BENCHMARK_RUNS; i++) {
+            measured = Math.min(measured, hashNanos.applyAsLong(min));
+        }
+
+        int chosen = min;
+        long estimate = measured;
+        while (chosen < max && estimate * 2 <= targetNanos) {
+            chosen++;
+            estimate *= 2;
+        }
+
+        log.atInfo()
+                .addKeyValue("strength", chosen)
+                .addKeyValue("measuredAtMinMs", Duration.ofNanos(measured).toMillis())
+                .addKeyValue("minStrength", min)
+                .addKeyValue("estimatedMs", Duration.ofNanos(estimate).toMillis())
+                .addKeyValue("targetMs", properties.getTargetVerifyTime().toMillis())
+                .log("BCrypt strength chosen by benchmark");
+        return chosen;
+    }
+
+    /**
+     * DelegatingPasswordEncoder wants to rehash every unprefixed hash, also one with a higher
+     * cost than {@code strength}; this only lets it when the rehash is no weaker.
+     */
+    private static final class LegacyCostAware implements PasswordEncoder {
+
+        private static final Pattern LEGACY_BCRYPT = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+        private final PasswordEncoder delegate;
+        private final int strength;
+
+        LegacyCostAware(PasswordEncoder delegate, int strength) {
+            this.delegate = delegate;
+            this.strength = strength;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return delegate.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            if (encodedPassword != null) {
+                Matcher legacy = LEGACY_BCRYPT.matcher(encodedPassword);
+                if (legacy.find()) {
+                    return Integer.parseInt(legacy.group(1)) <= strength;
+                }
+            }
+            return delegate.upgradeEncoding(encodedPassword);
+        }
+    }
+
+    private static long timeHash(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long started = System.nanoTime();
+        encoder.encode(BENCHMARK_PASSWORD);
+        return System.nanoTime() - started;
+    }
+}
@@ -0,0 +1,137 @@
+package io.ltj.restructuring.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a small, bounded pool of its own.
+ * <p>
+ * BCrypt is deliberately CPU-heavy; on request threads a burst of logins takes every core and
+ * every Tomcat thread. Here at most {@code threads} hashes run at once and at most
+ * {@code queueCapacity} wait; anything beyond that fails immediately with
+ * {@link PasswordHashingBusyException} instead of queueing behind the storm. The calling
+ * request thread waits for its own hash, so the cost to other endpoints is a parked thread,
+ * not a busy core.
+ * <p>
+ * Metrics: {@code auth.hash.queue_wait}, {@code auth.hash.duration} (tagged with operation),
+ * {@code auth.hash.rejected}, {@code auth.hash.active} and {@code auth.hash.queued}.
+ */
+public class PasswordHashingBulkhead implements MeterBinder, DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitNanos;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private volatile MeterRegistry registry;
+
+    public PasswordHashingBulkhead(PasswordHashingProperties properties) {
+        int threads = properties.getThreads() > 0
+                ? properties.getThreads()
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        BlockingQueue<Runnable> queue = properties.getQueueCapacity() > 0
+                ? new ArrayBlockingQueue<>(properties.getQueueCapacity())
+                : new SynchronousQueue<>();
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0, TimeUnit.MILLISECONDS, queue,
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.maxWaitNanos = properties.getMaxWait().toNanos();
+    }
+
+    /**
+     * Runs {@code task} on the hashing pool and waits for the result.
+     *
+     * @throws PasswordHashingBusyException if the pool and queue are full, or the result
+     *                                      does not arrive within {@code maxWait}
+     */
+    public <T> T execute(String operation, Supplier<T> task) {
+        long submittedNanos = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedNanos = System.nanoTime();
+                record("auth.hash.queue_wait", operation, startedNanos - submittedNanos);
+                try {
+                    return task.get();
+                } finally {
+                    record("auth.hash.duration", operation, System.nanoTime() - startedNanos);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            rejected.incrementAndGet();
+            throw new PasswordHashingBusyException();
+        }
+
+        try {
+            return future.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            // Fortsatt i køen: fjern den så ingen hasher for en som har gitt opp
+            future.cancel(false);
+            rejected.incrementAndGet();
+            throw new PasswordHashingBusyException();
+        } catch (InterruptedException ex) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private void record(String name, String operation, long nanos) {
+        MeterRegistry current = registry;
+        if (current != null) {
+            Timer.builder(name)
+                    .tag("operation", operation)
+                    .register(current)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        FunctionCounter.builder("auth.hash.rejected", rejected, AtomicLong::get)
+                .description("Password hash requests rejected because the bulkhead was full")
+                .register(registry);
+        Gauge.builder("auth.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashes running")
+                .register(registry);
+        Gauge.builder("auth.hash.queued", executor, e -> e.getQueue().size())
+                .description("Password hashes waiting for a thread")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,12 @@
+package io.ltj.restructuring.security;
+
+/**
+ * Thrown when the password hashing bulkhead is full or the caller waited too long.
+ * Mapped to 503 with Retry-After.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException() {
+        super("Too many login attempts in progress, try again shortly");
+    }
+}
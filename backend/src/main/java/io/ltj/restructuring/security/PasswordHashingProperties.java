@@ -0,0 +1,88 @@
+package io.ltj.restructuring.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link PasswordHashingBulkhead} and {@link PasswordHashPolicy}.
+ */
+@ConfigurationProperties(prefix = "password-hashing")
+public class PasswordHashingProperties {
+
+    /** 0 = halvparten av CPU-ene (minst 1); resten er alltid ledig for andre endepunkter. */
+    private int threads = 0;
+
+    /** Hashinger som kan vente på en tråd; flere avvises med 503 med en gang. */
+    private int queueCapacity = 32;
+
+    /** Lengste tid et kall venter i kø + hashing før det gir opp. */
+    private Duration maxWait = Duration.ofSeconds(5);
+
+    /** BCrypt-kostnad for nye hasher; 0 = velg ved oppstart ut fra target-verify-time. */
+    private int strength = 0;
+
+    /** Ønsket tid for én verifisering på denne maskinen. */
+    private Duration targetVerifyTime = Duration.ofMillis(250);
+
+    /** Benchmarken går aldri under denne (sikkerhetsgulv) eller over max-strength. */
+    private int minStrength = 10;
+
+    private int maxStrength = 14;
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public void setStrength(int strength) {
+        this.strength = strength;
+    }
+
+    public Duration getTargetVerifyTime() {
+        return targetVerifyTime;
+    }
+
+    public void setTargetVerifyTime(Duration targetVerifyTime) {
+        this.targetVerifyTime = targetVerifyTime;
+    }
+
+    public int getMinStrength() {
+        return minStrength;
+    }
+
+    public void setMinStrength(int minStrength) {
+        this.minStrength = minStrength;
+    }
+
+    public int getMaxStrength() {
+        return maxStrength;
+    }
+
+    public void setMaxStrength(int maxStrength) {
+        this.maxStrength = maxStrength;
+    }
+}
@@ -1,18 +1,28 @@
 package io.ltj.restructuring.security.userdetails;
 
+import io.ltj.restructuring.domain.user.UserEntity;
 import io.ltj.restructuring.domain.user.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class ApplicationUserDetailsService implements UserDetailsService {
+public class ApplicationUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final Logger log = LoggerFactory.getLogger(ApplicationUserDetailsService.class);
 
     private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
 
-    public ApplicationUserDetailsService(UserRepository userRepository) {
+    public ApplicationUserDetailsService(UserRepository userRepository, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
@@ -21,4 +31,21 @@ public class ApplicationUserDetailsService implements UserDetailsService {
                 .map(UserPrincipal::new)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
+
+    /**
+     * Called by Spring Security after a successful login when the stored hash is older or
+     * weaker than {@code PasswordHashPolicy} wants; {@code newPassword} is already hashed.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserEntity entity = userRepository.findByEmail(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + user.getUsername()));
+        entity.setPassword(newPassword);
+        userRepository.save(entity);
+
+        meterRegistry.counter("auth.password.rehashed").increment();
+        log.atInfo().addKeyValue("userId", entity.getId()).log("Password hash upgraded on login");
+        return new UserPrincipal(entity);
+    }
 }
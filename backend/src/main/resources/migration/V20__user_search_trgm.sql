@@ -0,0 +1,14 @@
+-- ================================================
+-- V20__user_search_trgm.sql
+-- Trigram-indekser for admin-søk på e-post (prefiks) og navn (typo-tolerant)
+-- ================================================
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- E-post: dekker både LIKE 'prefix%' og similarity (%)
+CREATE INDEX IF NOT EXISTS ix_users_email_trgm
+    ON res_users USING gin (lower(email) gin_trgm_ops);
+
+-- Fullt navn: dekker word_similarity (<%)
+CREATE INDEX IF NOT EXISTS ix_users_name_trgm
+    ON res_users USING gin (lower(coalesce(first_name, '') || ' ' || coalesce(last_name, '')) gin_trgm_ops);
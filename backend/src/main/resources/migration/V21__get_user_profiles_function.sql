@@ -0,0 +1,113 @@
+-- Batched variant of get_user_profile (V12).
+-- Returns one row per existing user in p_user_ids with the same JSONB shape,
+-- built with one grouped pass per table instead of N correlated lookups.
+CREATE OR REPLACE FUNCTION get_user_profiles(p_user_ids bigint[])
+RETURNS TABLE (user_id bigint, profile jsonb)
+LANGUAGE sql
+STABLE
+AS $$
+WITH plan AS (
+    SELECT DISTINCT ON (p.user_id) p.*
+    FROM res_user_plans p
+    WHERE p.user_id = ANY (p_user_ids)
+    ORDER BY p.user_id, COALESCE(p.updated_at, p.created_at) DESC
+),
+journal AS (
+    SELECT j.user_id,
+           jsonb_agg(
+               jsonb_build_object(
+                   'id', j.id,
+                   'phase', j.phase,
+                   'content', j.content,
+                   'created_at', j.created_at
+               )
+               ORDER BY j.created_at DESC
+           ) AS journal_entries
+    FROM res_journal_entry j
+    WHERE j.user_id = ANY (p_user_ids)
+    GROUP BY j.user_id
+),
+insurance_requests AS (
+    SELECT i.user_id,
+           jsonb_agg(
+               jsonb_build_object(
+                   'id', i.id,
+                   'xml_content', i.xml_content,
+                   'status', i.status,
+                   'created_at', i.created_at
+               )
+               ORDER BY i.created_at DESC
+           ) AS requests
+    FROM res_insurance_request i
+    WHERE i.user_id = ANY (p_user_ids)
+    GROUP BY i.user_id
+),
+user_insurances AS (
+    SELECT up.user_id,
+           jsonb_agg(
+               jsonb_build_object(
+                   'id', up.id,
+                   'source', up.source,
+                   'provider_name', up.provider_name,
+                   'product_name', up.product_name,
+                   'notes', up.notes,
+                   'active', up.active,
+                   'valid_from', up.valid_from,
+                   'valid_to', up.valid_to
+               )
+               ORDER BY up.id DESC
+           ) AS insurances
+    FROM res_user_insurance_profile up
+    WHERE up.user_id = ANY (p_user_ids)
+    GROUP BY up.user_id
+),
+latest_snapshot AS (
+    SELECT DISTINCT ON (s.user_id) s.*
+    FROM res_insurance_snapshot s
+    WHERE s.user_id = ANY (p_user_ids)
+    ORDER BY s.user_id, s.created_at DESC
+),
+snapshot_types AS (
+    SELECT t.snapshot_id, array_agg(t.type ORDER BY t.type) AS types
+    FROM res_insurance_snapshot_types t
+    JOIN latest_snapshot ls ON ls.id = t.snapshot_id
+    GROUP BY t.snapshot_id
+),
+snapshot AS (
+    SELECT ls.user_id,
+           jsonb_build_object(
+               'id', ls.id,
+               'source', ls.source,
+               'uncertain', ls.uncertain,
+               'created_at', ls.created_at,
+               'types', st.types
+           ) AS snapshot
+    FROM latest_snapshot ls
+    LEFT JOIN snapshot_types st ON st.snapshot_id = ls.id
+)
+SELECT r.user_id, to_jsonb(r)
+FROM (
+    SELECT
+        u.id            AS user_id,
+        u.email         AS user_email,
+        u.created_at    AS user_created,
+        plan.id         AS plan_id,
+        plan.phase      AS plan_phase,
+        plan.persona    AS plan_persona,
+        plan.needs      AS plan_needs,
+        plan.diary      AS plan_diary,
+        plan.created_at AS plan_created,
+        plan.updated_at AS plan_updated,
+        journal.journal_entries,
+        insurance_requests.requests,
+        user_insurances.insurances,
+        snapshot.snapshot
+    FROM res_users u
+    LEFT JOIN plan               ON plan.user_id = u.id
+    LEFT JOIN journal            ON journal.user_id = u.id
+    LEFT JOIN insurance_requests ON insurance_requests.user_id = u.id
+    LEFT JOIN user_insurances    ON user_insurances.user_id = u.id
+    LEFT JOIN snapshot           ON snapshot.user_id = u.id
+    WHERE u.id = ANY (p_user_ids)
+) r;
+$$;
@@ -0,0 +1,137 @@
+-- ================================================
+-- V22__user_profile_document.sql
+-- Skrivevedlikeholdt lesemodell: ett ferdig profil-dokument per bruker.
+-- Oppdateres av triggere når plan, journal, forespørsler, forsikringsprofiler
+-- eller snapshot endres. Lesing blir ett primærnøkkel-oppslag.
+-- ================================================
+
+CREATE TABLE IF NOT EXISTS res_user_profile_doc (
+    user_id    BIGINT PRIMARY KEY REFERENCES res_users (id) ON DELETE CASCADE,
+    profile    JSONB       NOT NULL,
+    version    BIGINT      NOT NULL DEFAULT 1,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+-- --------------------------
+-- Bygg (eller fjern) dokumentet for én bruker
+-- --------------------------
+CREATE OR REPLACE FUNCTION refresh_user_profile_doc(p_user_id bigint)
+RETURNS void
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_profile jsonb;
+BEGIN
+    IF p_user_id IS NULL THEN
+        RETURN;
+    END IF;
+
+    v_profile := get_user_profile(p_user_id);
+
+    IF v_profile IS NULL THEN
+        DELETE FROM res_user_profile_doc WHERE user_id = p_user_id;
+        RETURN;
+    END IF;
+
+    INSERT INTO res_user_profile_doc (user_id, profile, version, updated_at)
+    VALUES (p_user_id, v_profile, 1, NOW())
+    ON CONFLICT (user_id) DO UPDATE
+        SET profile    = EXCLUDED.profile,
+            version    = res_user_profile_doc.version + 1,
+            updated_at = NOW()
+        WHERE res_user_profile_doc.profile IS DISTINCT FROM EXCLUDED.profile;
+END;
+$$;
+
+-- --------------------------
+-- Triggerfunksjoner
+-- --------------------------
+
+-- Tabeller med user_id-kolonne
+CREATE OR REPLACE FUNCTION trg_refresh_user_profile_doc()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        PERFORM refresh_user_profile_doc(OLD.user_id);
+        RETURN NULL;
+    END IF;
+
+    PERFORM refresh_user_profile_doc(NEW.user_id);
+    IF TG_OP = 'UPDATE' AND OLD.user_id IS DISTINCT FROM NEW.user_id THEN
+        PERFORM refresh_user_profile_doc(OLD.user_id);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+-- res_users selv (e-post og opprettelse inngår i dokumentet)
+CREATE OR REPLACE FUNCTION trg_refresh_user_profile_doc_user()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    PERFORM refresh_user_profile_doc(NEW.id);
+    RETURN NULL;
+END;
+$$;
+
+-- Snapshot-typer peker på snapshot, ikke bruker
+CREATE OR REPLACE FUNCTION trg_refresh_user_profile_doc_snapshot_type()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_snapshot_id bigint;
+BEGIN
+    v_snapshot_id := CASE WHEN TG_OP = 'DELETE' THEN OLD.snapshot_id ELSE NEW.snapshot_id END;
+    PERFORM refresh_user_profile_doc(s.user_id)
+    FROM res_insurance_snapshot s
+    WHERE s.id = v_snapshot_id;
+    RETURN NULL;
+END;
+$$;
+
+-- --------------------------
+-- Triggere
+-- --------------------------
+DROP TRIGGER IF EXISTS trg_profile_doc_users ON res_users;
+CREATE TRIGGER trg_profile_doc_users
+    AFTER INSERT OR UPDATE OF email ON res_users
+    FOR EACH ROW EXECUTE FUNCTION trg_refresh_user_profile_doc_user();
+
+DROP TRIGGER IF EXISTS trg_profile_doc_plans ON res_user_plans;
+CREATE TRIGGER trg_profile_doc_plans
+    AFTER INSERT OR UPDATE OR DELETE ON res_user_plans
+    FOR EACH ROW EXECUTE FUNCTION trg_refresh_user_profile_doc();
+
+DROP TRIGGER IF EXISTS trg_profile_doc_journal ON res_journal_entry;
+CREATE TRIGGER trg_profile_doc_journal
+    AFTER INSERT OR UPDATE OR DELETE ON res_journal_entry
+    FOR EACH ROW EXECUTE FUNCTION trg_refresh_user_profile_doc();
+
+DROP TRIGGER IF EXISTS trg_profile_doc_insurance_request ON res_insurance_request;
+CREATE TRIGGER trg_profile_doc_insurance_request
+    AFTER INSERT OR UPDATE OR DELETE ON res_insurance_request
+    FOR EACH ROW EXECUTE FUNCTION trg_refresh_user_profile_doc();
+
+DROP TRIGGER IF EXISTS trg_profile_doc_insurance_profile ON res_user_insurance_profile;
+CREATE TRIGGER trg_profile_doc_insurance_profile
+    AFTER INSERT OR UPDATE OR DELETE ON res_user_insurance_profile
+    FOR EACH ROW EXECUTE FUNCTION trg_refresh_user_profile_doc();
+
+DROP TRIGGER IF EXISTS trg_profile_doc_snapshot ON res_insurance_snapshot;
+CREATE TRIGGER trg_profile_doc_snapshot
+    AFTER INSERT OR UPDATE OR DELETE ON res_insurance_snapshot
+    FOR EACH ROW EXECUTE FUNCTION trg_refresh_user_profile_doc();
+
+DROP TRIGGER IF EXISTS trg_profile_doc_snapshot_types ON res_insurance_snapshot_types;
+CREATE TRIGGER trg_profile_doc_snapshot_types
+    AFTER INSERT OR UPDATE OR DELETE ON res_insurance_snapshot_types
+    FOR EACH ROW EXECUTE FUNCTION trg_refresh_user_profile_doc_snapshot_type();
+
+-- --------------------------
+-- Første backfill (senere: POST /api/system/user-profile-docs/rebuild)
+-- --------------------------
+SELECT refresh_user_profile_doc(id) FROM res_users;
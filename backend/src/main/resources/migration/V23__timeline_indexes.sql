@@ -0,0 +1,21 @@
+-- ================================================
+-- V23__timeline_indexes.sql
+-- Indekser for /api/timeline: hver kilde leses i (user_id, created_at DESC, id DESC)-rekkefølge
+-- slik at hver side kun berører radene den returnerer.
+-- ================================================
+
+-- Forsikringsprofiler manglet tidsstempel
+ALTER TABLE res_user_insurance_profile
+    ADD COLUMN IF NOT EXISTS created_at TIMESTAMP NOT NULL DEFAULT NOW();
+
+CREATE INDEX IF NOT EXISTS ix_journal_entry_user_timeline
+    ON res_journal_entry (user_id, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS ix_insurance_request_user_timeline
+    ON insurance_request (user_id, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS ix_user_insurance_profile_user_timeline
+    ON res_user_insurance_profile (user_id, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS ix_insurance_snapshot_user_timeline
+    ON res_insurance_snapshot (user_id, created_at DESC, id DESC);
@@ -0,0 +1,113 @@
+-- ================================================
+-- V24__sync_change_versions.sql
+-- Delta-synk: monoton endringsversjon per bruker og én rad per entitet
+-- (siste versjon + tombstone-flagg). GET /api/sync?since=<versjon> leser herfra.
+-- ================================================
+
+CREATE TABLE IF NOT EXISTS res_sync_counter (
+    user_id         BIGINT PRIMARY KEY REFERENCES res_users (id) ON DELETE CASCADE,
+    version         BIGINT NOT NULL DEFAULT 0,
+    -- Tombstones med versjon <= floor er slettet; klienter bak dette må gjøre full synk
+    tombstone_floor BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS res_sync_change (
+    user_id     BIGINT      NOT NULL,
+    entity_type VARCHAR(30) NOT NULL,
+    entity_id   BIGINT      NOT NULL,
+    version     BIGINT      NOT NULL,
+    deleted     BOOLEAN     NOT NULL DEFAULT FALSE,
+    changed_at  TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (user_id, entity_type, entity_id)
+);
+
+CREATE INDEX IF NOT EXISTS ix_sync_change_user_version
+    ON res_sync_change (user_id, version);
+
+-- --------------------------
+-- Neste versjon for brukeren + upsert av endringsraden.
+-- Radlåsen på telleren serialiserer skrivinger per bruker, så versjoner
+-- blir synlige i stigende rekkefølge.
+-- --------------------------
+CREATE OR REPLACE FUNCTION record_sync_change(
+    p_user_id bigint,
+    p_entity_type text,
+    p_entity_id bigint,
+    p_deleted boolean
+)
+RETURNS void
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_version bigint;
+BEGIN
+    IF p_user_id IS NULL OR NOT EXISTS (SELECT 1 FROM res_users WHERE id = p_user_id) THEN
+        RETURN;
+    END IF;
+
+    INSERT INTO res_sync_counter (user_id, version)
+    VALUES (p_user_id, 1)
+    ON CONFLICT (user_id) DO UPDATE SET version = res_sync_counter.version + 1
+    RETURNING version INTO v_version;
+
+    INSERT INTO res_sync_change (user_id, entity_type, entity_id, version, deleted, changed_at)
+    VALUES (p_user_id, p_entity_type, p_entity_id, v_version, p_deleted, NOW())
+    ON CONFLICT (user_id, entity_type, entity_id) DO UPDATE
+        SET version    = EXCLUDED.version,
+            deleted    = EXCLUDED.deleted,
+            changed_at = EXCLUDED.changed_at;
+END;
+$$;
+
+-- TG_ARGV[0] = entitetstype
+CREATE OR REPLACE FUNCTION trg_record_sync_change()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        PERFORM record_sync_change(OLD.user_id, TG_ARGV[0], OLD.id, TRUE);
+    ELSE
+        PERFORM record_sync_change(NEW.user_id, TG_ARGV[0], NEW.id, FALSE);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS trg_sync_plans ON res_user_plans;
+CREATE TRIGGER trg_sync_plans
+    AFTER INSERT OR UPDATE OR DELETE ON res_user_plans
+    FOR EACH ROW EXECUTE FUNCTION trg_record_sync_change('PLAN');
+
+DROP TRIGGER IF EXISTS trg_sync_journal ON res_journal_entry;
+CREATE TRIGGER trg_sync_journal
+    AFTER INSERT OR UPDATE OR DELETE ON res_journal_entry
+    FOR EACH ROW EXECUTE FUNCTION trg_record_sync_change('JOURNAL');
+
+DROP TRIGGER IF EXISTS trg_sync_insurance_profile ON res_user_insurance_profile;
+CREATE TRIGGER trg_sync_insurance_profile
+    AFTER INSERT OR UPDATE OR DELETE ON res_user_insurance_profile
+    FOR EACH ROW EXECUTE FUNCTION trg_record_sync_change('INSURANCE');
+
+-- --------------------------
+-- Backfill eksisterende data
+-- --------------------------
+WITH existing AS (
+    SELECT user_id::bigint AS user_id, 'PLAN' AS entity_type, id::bigint AS entity_id FROM res_user_plans
+    UNION ALL
+    SELECT user_id, 'JOURNAL', id FROM res_journal_entry
+    UNION ALL
+    SELECT user_id, 'INSURANCE', id FROM res_user_insurance_profile
+),
+numbered AS (
+    SELECT e.*, row_number() OVER (PARTITION BY e.user_id ORDER BY e.entity_type, e.entity_id) AS version
+    FROM existing e
+    JOIN res_users u ON u.id = e.user_id
+)
+INSERT INTO res_sync_change (user_id, entity_type, entity_id, version)
+SELECT user_id, entity_type, entity_id, version FROM numbered
+ON CONFLICT DO NOTHING;
+
+INSERT INTO res_sync_counter (user_id, version)
+SELECT user_id, MAX(version) FROM res_sync_change GROUP BY user_id
+ON CONFLICT (user_id) DO NOTHING;
@@ -0,0 +1,56 @@
+-- ================================================
+-- V25__pooled_id_sequences.sql
+-- IDENTITY/SERIAL -> egne sekvenser med INCREMENT BY 50 (Hibernate pooled-lo).
+--
+-- Med IDENTITY må Hibernate kjøre hver INSERT alene for å få id-en tilbake, så JDBC-batching
+-- blir slått av. Med pooled-lo henter Hibernate én sekvensverdi per 50 rader og deler ut
+-- [verdi, verdi + 49] selv. Rå INSERT-er (triggere, JdbcTemplate, psql) bruker fortsatt
+-- DEFAULT nextval() og får starten på en blokk Hibernate aldri bruker, så de kolliderer ikke.
+--
+-- Sekvensnavnene må stemme med @SequenceGenerator i entitetene.
+-- ================================================
+
+DO $$
+DECLARE
+    t RECORD;
+    old_seq TEXT;
+    next_id BIGINT;
+BEGIN
+    FOR t IN
+        SELECT * FROM (VALUES
+            ('res_users',                  'res_users_seq'),
+            ('res_user_plans',             'res_user_plans_seq'),
+            ('res_journal_entry',          'res_journal_entry_seq'),
+            ('insurance_request',          'insurance_request_seq'),
+            ('res_user_insurance_profile', 'res_user_insurance_profile_seq'),
+            ('res_insurance_snapshot',     'res_insurance_snapshot_seq')
+        ) AS v(table_name, seq_name)
+    LOOP
+        -- insurance_request (V17) er GENERATED ALWAYS AS IDENTITY; resten er SERIAL/BIGSERIAL
+        old_seq := pg_get_serial_sequence(t.table_name, 'id');
+
+        IF EXISTS (
+            SELECT 1
+            FROM information_schema.columns
+            WHERE table_schema = current_schema()
+              AND table_name = t.table_name
+              AND column_name = 'id'
+              AND is_identity = 'YES'
+        ) THEN
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY', t.table_name);
+            old_seq := NULL;
+        END IF;
+
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I INCREMENT BY 50', t.seq_name);
+
+        EXECUTE format('SELECT COALESCE(MAX(id), 0) + 1 FROM %I', t.table_name) INTO next_id;
+        PERFORM setval(t.seq_name, next_id, false);
+
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', t.table_name, t.seq_name);
+        EXECUTE format('ALTER SEQUENCE %I OWNED BY %I.id', t.seq_name, t.table_name);
+
+        IF old_seq IS NOT NULL THEN
+            EXECUTE format('DROP SEQUENCE IF EXISTS %s', old_seq);
+        END IF;
+    END LOOP;
+END $$;
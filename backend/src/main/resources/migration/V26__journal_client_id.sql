@@ -0,0 +1,12 @@
+-- ================================================
+-- V26__journal_client_id.sql
+-- Klientgenerert id for journalinnlegg skrevet offline (POST /api/journal/batch).
+-- Unik per bruker slik at en gjentatt synk aldri lager duplikater.
+-- ================================================
+
+ALTER TABLE res_journal_entry
+    ADD COLUMN IF NOT EXISTS client_id VARCHAR(64);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_journal_entry_user_client_id
+    ON res_journal_entry (user_id, client_id)
+    WHERE client_id IS NOT NULL;
@@ -0,0 +1,252 @@
+-- ================================================
+-- V27__monthly_partitions.sql
+-- res_journal_entry og insurance_request -> RANGE-partisjonert per måned på created_at.
+--
+-- Begge leses per bruker og nyeste først; med created_at i cursor/filter beskjæres
+-- partisjonene, og indeks- og vacuum-størrelse følger én måned i stedet for hele historikken.
+-- Nye måneder opprettes og gamle kobles fra av PartitionMaintenanceJob via funksjonene under.
+--
+-- PK må inneholde partisjonsnøkkelen: (id, created_at). id kommer fortsatt fra sekvensen (V25)
+-- og er unik i praksis. Unikhet for (user_id, client_id) (V26) kan ikke håndheves på tvers av
+-- partisjoner, så den flyttes til res_journal_client_id som vedlikeholdes av en trigger.
+--
+-- Tabellene skrives om i én transaksjon (data kopieres); forventet nedetid er kort ved dagens volum.
+-- ================================================
+
+-- --------------------------
+-- Hjelpefunksjoner (brukes også av vedlikeholdsjobben)
+-- --------------------------
+
+-- Oppretter partisjonen for måneden som inneholder p_month, hvis den mangler.
+-- Navn: <parent>_pYYYYMM. Returnerer true hvis den ble opprettet.
+CREATE OR REPLACE FUNCTION create_monthly_partition(p_parent text, p_month date)
+RETURNS boolean
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_from date := date_trunc('month', p_month)::date;
+    v_to   date := (date_trunc('month', p_month) + INTERVAL '1 month')::date;
+    v_name text := p_parent || '_p' || to_char(v_from, 'YYYYMM');
+BEGIN
+    IF to_regclass(v_name) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+    EXECUTE format(
+        'CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+        v_name, p_parent, v_from, v_to
+    );
+    RETURN true;
+END;
+$$;
+
+-- Sørger for partisjoner fra inneværende måned og p_months_ahead måneder frem.
+CREATE OR REPLACE FUNCTION ensure_monthly_partitions(p_parent text, p_months_ahead int)
+RETURNS int
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_created int := 0;
+BEGIN
+    FOR i IN 0..GREATEST(p_months_ahead, 0) LOOP
+        IF create_monthly_partition(p_parent, (date_trunc('month', now()) + make_interval(months => i))::date) THEN
+            v_created := v_created + 1;
+        END IF;
+    END LOOP;
+    RETURN v_created;
+END;
+$$;
+
+-- Kobler fra månedspartisjoner som slutter før (inneværende måned - p_keep_months)
+-- og flytter dem til skjemaet archive. Dataene slettes ikke.
+CREATE OR REPLACE FUNCTION archive_monthly_partitions(p_parent text, p_keep_months int)
+RETURNS int
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_cutoff   date := (date_trunc('month', now()) - make_interval(months => p_keep_months))::date;
+    v_child    record;
+    v_archived int := 0;
+BEGIN
+    IF p_keep_months IS NULL OR p_keep_months <= 0 THEN
+        RETURN 0;
+    END IF;
+
+    CREATE SCHEMA IF NOT EXISTS archive;
+
+    FOR v_child IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        JOIN pg_class p ON p.oid = i.inhparent
+        WHERE p.relname = p_parent
+          AND c.relname ~ ('^' || p_parent || '_p[0-9]{6}$')
+          AND to_date(right(c.relname, 6), 'YYYYMM') < v_cutoff
+        ORDER BY c.relname
+    LOOP
+        EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', p_parent, v_child.relname);
+        EXECUTE format('ALTER TABLE %I SET SCHEMA archive', v_child.relname);
+        v_archived := v_archived + 1;
+    END LOOP;
+    RETURN v_archived;
+END;
+$$;
+
+-- --------------------------
+-- Unike klient-id-er for journalen (erstatter ux_journal_entry_user_client_id)
+-- --------------------------
+CREATE TABLE IF NOT EXISTS res_journal_client_id (
+    user_id    BIGINT      NOT NULL REFERENCES res_users (id) ON DELETE CASCADE,
+    client_id  VARCHAR(64) NOT NULL,
+    entry_id   BIGINT      NOT NULL,
+    created_at TIMESTAMP   NOT NULL,
+    PRIMARY KEY (user_id, client_id)
+);
+
+CREATE OR REPLACE FUNCTION trg_journal_client_id()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        IF OLD.client_id IS NOT NULL THEN
+            DELETE FROM res_journal_client_id
+            WHERE user_id = OLD.user_id AND client_id = OLD.client_id AND entry_id = OLD.id;
+        END IF;
+        RETURN NULL;
+    END IF;
+
+    -- Duplikat gir unique_violation (23505), samme som den gamle unike indeksen
+    IF NEW.client_id IS NOT NULL THEN
+        INSERT INTO res_journal_client_id (user_id, client_id, entry_id, created_at)
+        VALUES (NEW.user_id, NEW.client_id, NEW.id, NEW.created_at);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+-- --------------------------
+-- Omskriving av tabellene
+-- --------------------------
+DO $$
+DECLARE
+    v_view_def text;
+    v_month    date;
+BEGIN
+    -- user_profile_view (V15) peker på res_journal_entry; gjenskapes etter byttet
+    IF to_regclass('user_profile_view') IS NOT NULL THEN
+        v_view_def := pg_get_viewdef('user_profile_view'::regclass, true);
+        DROP VIEW user_profile_view;
+    END IF;
+
+    -- ---------- res_journal_entry ----------
+    ALTER TABLE res_journal_entry RENAME TO res_journal_entry_legacy;
+    ALTER SEQUENCE res_journal_entry_seq OWNED BY NONE;
+
+    CREATE TABLE res_journal_entry (
+        id         BIGINT       NOT NULL DEFAULT nextval('res_journal_entry_seq'),
+        user_id    BIGINT       NOT NULL,
+        phase      INTEGER      NOT NULL,
+        content    TEXT         NOT NULL,
+        created_at TIMESTAMP    NOT NULL DEFAULT NOW(),
+        client_id  VARCHAR(64)
+    ) PARTITION BY RANGE (created_at);
+
+    FOR v_month IN
+        SELECT m::date
+        FROM generate_series(
+            date_trunc('month', LEAST((SELECT MIN(created_at) FROM res_journal_entry_legacy), now())),
+            date_trunc('month', now()) + INTERVAL '3 months',
+            INTERVAL '1 month'
+        ) AS m
+    LOOP
+        PERFORM create_monthly_partition('res_journal_entry', v_month);
+    END LOOP;
+    -- Fanger rader utenfor de opprettede månedene (f.eks. created_at langt frem i tid)
+    CREATE TABLE res_journal_entry_default PARTITION OF res_journal_entry DEFAULT;
+
+    INSERT INTO res_journal_entry (id, user_id, phase, content, created_at, client_id)
+    SELECT id, user_id, phase, content, created_at, client_id
+    FROM res_journal_entry_legacy;
+
+    INSERT INTO res_journal_client_id (user_id, client_id, entry_id, created_at)
+    SELECT user_id, client_id, id, created_at
+    FROM res_journal_entry
+    WHERE client_id IS NOT NULL
+    ON CONFLICT DO NOTHING;
+
+    DROP TABLE res_journal_entry_legacy;
+    ALTER SEQUENCE res_journal_entry_seq OWNED BY res_journal_entry.id;
+
+    ALTER TABLE res_journal_entry
+        ADD CONSTRAINT res_journal_entry_pkey PRIMARY KEY (id, created_at),
+        ADD CONSTRAINT res_journal_entry_user_fk
+            FOREIGN KEY (user_id) REFERENCES res_users (id) ON DELETE CASCADE;
+
+    CREATE INDEX ix_journal_entry_id ON res_journal_entry (id);
+    CREATE INDEX ix_journal_entry_user_timeline ON res_journal_entry (user_id, created_at DESC, id DESC);
+    CREATE INDEX ix_journal_entry_user_client_id ON res_journal_entry (user_id, client_id)
+        WHERE client_id IS NOT NULL;
+
+    CREATE TRIGGER trg_journal_client_id
+        AFTER INSERT OR DELETE ON res_journal_entry
+        FOR EACH ROW EXECUTE FUNCTION trg_journal_client_id();
+    CREATE TRIGGER trg_profile_doc_journal
+        AFTER INSERT OR UPDATE OR DELETE ON res_journal_entry
+        FOR EACH ROW EXECUTE FUNCTION trg_refresh_user_profile_doc();
+    CREATE TRIGGER trg_sync_journal
+        AFTER INSERT OR UPDATE OR DELETE ON res_journal_entry
+        FOR EACH ROW EXECUTE FUNCTION trg_record_sync_change('JOURNAL');
+
+    -- ---------- insurance_request ----------
+    ALTER TABLE insurance_request RENAME TO insurance_request_legacy;
+    ALTER SEQUENCE insurance_request_seq OWNED BY NONE;
+
+    CREATE TABLE insurance_request (
+        id             BIGINT       NOT NULL DEFAULT nextval('insurance_request_seq'),
+        user_id        BIGINT       NOT NULL,
+        first_name     VARCHAR(100),
+        last_name      VARCHAR(100),
+        ssn            VARCHAR(20),
+        phone          VARCHAR(30),
+        source         VARCHAR(30),
+        products       VARCHAR(255),
+        generated_text TEXT,
+        created_at     TIMESTAMP    NOT NULL DEFAULT NOW(),
+        status         VARCHAR(30)  NOT NULL,
+        submitted_at   TIMESTAMP,
+        xml_content    TEXT
+    ) PARTITION BY RANGE (created_at);
+
+    FOR v_month IN
+        SELECT m::date
+        FROM generate_series(
+            date_trunc('month', LEAST((SELECT MIN(created_at) FROM insurance_request_legacy), now())),
+            date_trunc('month', now()) + INTERVAL '3 months',
+            INTERVAL '1 month'
+        ) AS m
+    LOOP
+        PERFORM create_monthly_partition('insurance_request', v_month);
+    END LOOP;
+    CREATE TABLE insurance_request_default PARTITION OF insurance_request DEFAULT;
+
+    INSERT INTO insurance_request (
+        id, user_id, first_name, last_name, ssn, phone, source, products,
+        generated_text, created_at, status, submitted_at, xml_content
+    )
+    SELECT id, user_id, first_name, last_name, ssn, phone, source, products,
+           generated_text, created_at, status, submitted_at, xml_content
+    FROM insurance_request_legacy;
+
+    DROP TABLE insurance_request_legacy;
+    ALTER SEQUENCE insurance_request_seq OWNED BY insurance_request.id;
+
+    ALTER TABLE insurance_request
+        ADD CONSTRAINT insurance_request_pkey PRIMARY KEY (id, created_at);
+
+    CREATE INDEX ix_insurance_request_id ON insurance_request (id);
+    CREATE INDEX ix_insurance_request_user_timeline ON insurance_request (user_id, created_at DESC, id DESC);
+
+    IF v_view_def IS NOT NULL THEN
+        EXECUTE 'CREATE VIEW user_profile_view AS ' || v_view_def;
+    END IF;
+END $$;
@@ -0,0 +1,54 @@
+-- ================================================
+-- V28__journal_archive_triggers.sql
+-- Journalinnlegg flyttes til arkivet (JournalArchiver) med DELETE. Flyttingen setter
+-- restructuring.archiving = 'on' lokalt i transaksjonen; da er innlegget ikke slettet
+-- for klientene:
+--   * ingen sync-tombstone (enhetene skal beholde innlegget)
+--   * klient-id-en blir stående i res_journal_client_id, så dedupe virker også mot arkivet
+-- ================================================
+
+CREATE OR REPLACE FUNCTION is_archiving()
+RETURNS boolean
+LANGUAGE sql
+STABLE
+AS $$
+    SELECT COALESCE(current_setting('restructuring.archiving', true), '') = 'on';
+$$;
+
+CREATE OR REPLACE FUNCTION trg_record_sync_change()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        IF NOT is_archiving() THEN
+            PERFORM record_sync_change(OLD.user_id, TG_ARGV[0], OLD.id, TRUE);
+        END IF;
+    ELSE
+        PERFORM record_sync_change(NEW.user_id, TG_ARGV[0], NEW.id, FALSE);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION trg_journal_client_id()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        IF OLD.client_id IS NOT NULL AND NOT is_archiving() THEN
+            DELETE FROM res_journal_client_id
+            WHERE user_id = OLD.user_id AND client_id = OLD.client_id AND entry_id = OLD.id;
+        END IF;
+        RETURN NULL;
+    END IF;
+
+    -- Duplikat gir unique_violation (23505), samme som den gamle unike indeksen
+    IF NEW.client_id IS NOT NULL THEN
+        INSERT INTO res_journal_client_id (user_id, client_id, entry_id, created_at)
+        VALUES (NEW.user_id, NEW.client_id, NEW.id, NEW.created_at);
+    END IF;
+    RETURN NULL;
+END;
+$$;
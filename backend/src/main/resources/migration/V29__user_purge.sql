@@ -0,0 +1,108 @@
+-- ================================================
+-- V29__user_purge.sql
+-- Sletting av en bruker (GDPR) i små transaksjoner, se UserPurgeWorker.
+--   * res_user_purge: én rad per bestilt sletting; fremdrift (steg + antall rader)
+--     oppdateres i samme transaksjon som hver bit, så jobben kan fortsette der den stoppet.
+--   * res_audit_event: varig spor av at slettingen er fullført (uten personopplysninger).
+--   * Mens slettingen pågår (restructuring.purging = 'on') hopper triggerne over
+--     profil-dokument og sync-endringer; alt det slettes likevel sammen med brukeren.
+-- ================================================
+
+CREATE TABLE IF NOT EXISTS res_user_purge (
+    user_id      BIGINT      PRIMARY KEY,
+    status       VARCHAR(20) NOT NULL,
+    step         VARCHAR(40) NOT NULL,
+    deleted_rows BIGINT      NOT NULL DEFAULT 0,
+    attempts     INTEGER     NOT NULL DEFAULT 0,
+    requested_by BIGINT,
+    requested_at TIMESTAMP   NOT NULL DEFAULT NOW(),
+    started_at   TIMESTAMP,
+    updated_at   TIMESTAMP   NOT NULL DEFAULT NOW(),
+    completed_at TIMESTAMP,
+    lease_until  TIMESTAMP,
+    last_error   VARCHAR(1000)
+);
+
+CREATE INDEX IF NOT EXISTS ix_user_purge_pending
+    ON res_user_purge (requested_at)
+    WHERE status IN ('PENDING', 'RUNNING');
+
+CREATE TABLE IF NOT EXISTS res_audit_event (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_type VARCHAR(50) NOT NULL,
+    subject_id BIGINT,
+    actor_id   BIGINT,
+    details    TEXT,
+    created_at TIMESTAMP   NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS ix_audit_event_subject
+    ON res_audit_event (subject_id, created_at);
+
+-- --------------------------
+-- Triggere som skal ligge stille under sletting
+-- --------------------------
+CREATE OR REPLACE FUNCTION is_purging()
+RETURNS boolean
+LANGUAGE sql
+STABLE
+AS $$
+    SELECT COALESCE(current_setting('restructuring.purging', true), '') = 'on';
+$$;
+
+CREATE OR REPLACE FUNCTION trg_refresh_user_profile_doc()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF is_purging() THEN
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP = 'DELETE' THEN
+        PERFORM refresh_user_profile_doc(OLD.user_id);
+        RETURN NULL;
+    END IF;
+
+    PERFORM refresh_user_profile_doc(NEW.user_id);
+    IF TG_OP = 'UPDATE' AND OLD.user_id IS DISTINCT FROM NEW.user_id THEN
+        PERFORM refresh_user_profile_doc(OLD.user_id);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION trg_refresh_user_profile_doc_snapshot_type()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_snapshot_id bigint;
+BEGIN
+    IF is_purging() THEN
+        RETURN NULL;
+    END IF;
+
+    v_snapshot_id := CASE WHEN TG_OP = 'DELETE' THEN OLD.snapshot_id ELSE NEW.snapshot_id END;
+    PERFORM refresh_user_profile_doc(s.user_id)
+    FROM res_insurance_snapshot s
+    WHERE s.id = v_snapshot_id;
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION trg_record_sync_change()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        IF NOT is_archiving() AND NOT is_purging() THEN
+            PERFORM record_sync_change(OLD.user_id, TG_ARGV[0], OLD.id, TRUE);
+        END IF;
+    ELSE
+        PERFORM record_sync_change(NEW.user_id, TG_ARGV[0], NEW.id, FALSE);
+    END IF;
+    RETURN NULL;
+END;
+$$;
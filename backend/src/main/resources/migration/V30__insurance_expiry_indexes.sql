@@ -0,0 +1,23 @@
+-- ================================================
+-- V30__insurance_expiry_indexes.sql
+-- Utløp av forsikringsdekninger (InsuranceExpirySweeper).
+--
+-- Sveiperen leter bare blant aktive rader med valid_to satt, i valid_to-rekkefølge; en delvis
+-- indeks holder seg like liten som antall aktive dekninger med sluttdato, ikke hele historikken.
+--
+-- "Aktive dekninger for bruker" leser kun kolonnene i INCLUDE-listen, slik at spørringen kan
+-- besvares fra indeksen alene (index-only scan) så lenge visibility map er oppdatert.
+-- ================================================
+
+CREATE INDEX IF NOT EXISTS ix_user_insurance_profile_expiry
+    ON res_user_insurance_profile (valid_to)
+    INCLUDE (id, user_id)
+    WHERE active AND valid_to IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS ix_user_insurance_profile_active
+    ON res_user_insurance_profile (user_id, id DESC)
+    INCLUDE (source, provider_name, product_name, valid_from, valid_to)
+    WHERE active;
+
+-- Tabellen oppdateres sjelden; hyppigere autovacuum holder visibility map ferskt for index-only scans
+ALTER TABLE res_user_insurance_profile SET (autovacuum_vacuum_scale_factor = 0.05);
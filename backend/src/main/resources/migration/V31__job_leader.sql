@@ -0,0 +1,15 @@
+-- ================================================
+-- V31__job_leader.sql
+-- Hvilken node som kjører hvilken planlagt jobb (PgAdvisoryLockJobLeadership).
+--
+-- Selve lederskapet er en advisory lock per jobb på lederens egen forbindelse; tabellen er
+-- bare innsyn (GET /api/admin/jobs). heartbeat_at oppdateres av lederen hvert heartbeat-intervall,
+-- så en rad som ikke lenger oppdateres viser en node som er i ferd med å miste jobben.
+-- ================================================
+
+CREATE TABLE IF NOT EXISTS res_job_leader (
+    job_name     VARCHAR(100) PRIMARY KEY,
+    node_id      VARCHAR(200) NOT NULL,
+    acquired_at  TIMESTAMP    NOT NULL DEFAULT NOW(),
+    heartbeat_at TIMESTAMP    NOT NULL DEFAULT NOW()
+);
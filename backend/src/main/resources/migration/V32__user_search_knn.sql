@@ -0,0 +1,21 @@
+-- ================================================
+-- V32__user_search_knn.sql
+-- Admin-søk uten å score og sortere alle treff (UserSearchService).
+--
+-- Prefiks: btree på lower(email) i C-sortering dekker både LIKE 'prefix%' og
+-- ORDER BY, så søket stopper etter LIMIT rader. Fuzzy: GiST-trigramindekser gir
+-- KNN-sortering (<-> og <<->) med LIMIT i stedet for filtrering med % / <%.
+-- GIN-indeksene fra V20 brukes ikke lenger og fjernes.
+-- ================================================
+
+CREATE INDEX IF NOT EXISTS ix_users_email_prefix
+    ON res_users ((lower(email) COLLATE "C"));
+
+CREATE INDEX IF NOT EXISTS ix_users_email_trgm_gist
+    ON res_users USING gist (lower(email) gist_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS ix_users_name_trgm_gist
+    ON res_users USING gist (lower(coalesce(first_name, '') || ' ' || coalesce(last_name, '')) gist_trgm_ops);
+
+DROP INDEX IF EXISTS ix_users_email_trgm;
+DROP INDEX IF EXISTS ix_users_name_trgm;
@@ -0,0 +1,150 @@
+-- ================================================
+-- V33__profile_doc_statement_triggers.sql
+-- Profil-dokumentet (V22) oppdateres én gang per berørt bruker per setning,
+-- ikke én gang per rad.
+--
+-- Radtriggerne kjørte hele get_user_profile-aggregeringen for hver endrede rad, så en
+-- batch på N rader for samme bruker (sync-push, GDPR-sletting, arkivering) ble O(N²)
+-- og låste dokumentraden N ganger. Setningstriggere med overgangstabeller samler
+-- user_id-ene først. PostgreSQL tillater bare én hendelse per trigger med
+-- overgangstabeller, derfor tre triggere per tabell.
+-- ================================================
+
+-- --------------------------
+-- Bygg dokumentet for hver bruker én gang, i fast rekkefølge (unngår vranglås mellom setninger)
+-- --------------------------
+CREATE OR REPLACE FUNCTION refresh_user_profile_docs(p_user_ids bigint[])
+RETURNS void
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_user_id bigint;
+BEGIN
+    FOR v_user_id IN
+        SELECT DISTINCT u FROM unnest(p_user_ids) AS u WHERE u IS NOT NULL ORDER BY u
+    LOOP
+        PERFORM refresh_user_profile_doc(v_user_id);
+    END LOOP;
+END;
+$$;
+
+-- --------------------------
+-- Triggerfunksjoner (setningsnivå)
+-- --------------------------
+
+-- Tabeller med user_id-kolonne
+CREATE OR REPLACE FUNCTION trg_refresh_user_profile_doc_stmt()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF is_purging() THEN
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP = 'INSERT' THEN
+        PERFORM refresh_user_profile_docs(ARRAY(SELECT user_id FROM new_rows));
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM refresh_user_profile_docs(ARRAY(SELECT user_id FROM old_rows));
+    ELSE
+        PERFORM refresh_user_profile_docs(ARRAY(
+            SELECT user_id FROM new_rows
+            UNION
+            SELECT user_id FROM old_rows
+        ));
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+-- res_users selv: ny bruker eller endret e-post
+CREATE OR REPLACE FUNCTION trg_refresh_user_profile_doc_user_stmt()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM refresh_user_profile_docs(ARRAY(SELECT id FROM new_rows));
+    ELSE
+        PERFORM refresh_user_profile_docs(ARRAY(
+            SELECT n.id
+            FROM new_rows n
+            JOIN old_rows o ON o.id = n.id
+            WHERE o.email IS DISTINCT FROM n.email
+        ));
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+-- Snapshot-typer peker på snapshot, ikke bruker
+CREATE OR REPLACE FUNCTION trg_refresh_user_profile_doc_snapshot_type_stmt()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF is_purging() THEN
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP = 'INSERT' THEN
+        PERFORM refresh_user_profile_docs(ARRAY(
+            SELECT s.user_id FROM res_insurance_snapshot s WHERE s.id IN (SELECT snapshot_id FROM new_rows)
+        ));
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM refresh_user_profile_docs(ARRAY(
+            SELECT s.user_id FROM res_insurance_snapshot s WHERE s.id IN (SELECT snapshot_id FROM old_rows)
+        ));
+    ELSE
+        PERFORM refresh_user_profile_docs(ARRAY(
+            SELECT s.user_id FROM res_insurance_snapshot s
+            WHERE s.id IN (SELECT snapshot_id FROM new_rows UNION SELECT snapshot_id FROM old_rows)
+        ));
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+-- --------------------------
+-- Bytt radtriggerne fra V22/V27 med setningstriggere
+-- --------------------------
+DO $$
+DECLARE
+    v_trigger record;
+BEGIN
+    FOR v_trigger IN
+        SELECT * FROM (VALUES
+            ('trg_profile_doc_users',             'res_users',                    'trg_refresh_user_profile_doc_user_stmt'),
+            ('trg_profile_doc_plans',             'res_user_plans',               'trg_refresh_user_profile_doc_stmt'),
+            ('trg_profile_doc_journal',           'res_journal_entry',            'trg_refresh_user_profile_doc_stmt'),
+            ('trg_profile_doc_insurance_request', 'res_insurance_request',        'trg_refresh_user_profile_doc_stmt'),
+            ('trg_profile_doc_insurance_profile', 'res_user_insurance_profile',   'trg_refresh_user_profile_doc_stmt'),
+            ('trg_profile_doc_snapshot',          'res_insurance_snapshot',       'trg_refresh_user_profile_doc_stmt'),
+            ('trg_profile_doc_snapshot_types',    'res_insurance_snapshot_types', 'trg_refresh_user_profile_doc_snapshot_type_stmt')
+        ) AS t (trigger_name, table_name, function_name)
+    LOOP
+        EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I', v_trigger.trigger_name, v_trigger.table_name);
+
+        EXECUTE format(
+            'CREATE TRIGGER %I AFTER INSERT ON %I REFERENCING NEW TABLE AS new_rows '
+                || 'FOR EACH STATEMENT EXECUTE FUNCTION %I()',
+            v_trigger.trigger_name || '_ins', v_trigger.table_name, v_trigger.function_name);
+        EXECUTE format(
+            'CREATE TRIGGER %I AFTER UPDATE ON %I REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows '
+                || 'FOR EACH STATEMENT EXECUTE FUNCTION %I()',
+            v_trigger.trigger_name || '_upd', v_trigger.table_name, v_trigger.function_name);
+
+        -- Brukere slettes med ON DELETE CASCADE på dokumentet
+        IF v_trigger.table_name <> 'res_users' THEN
+            EXECUTE format(
+                'CREATE TRIGGER %I AFTER DELETE ON %I REFERENCING OLD TABLE AS old_rows '
+                    || 'FOR EACH STATEMENT EXECUTE FUNCTION %I()',
+                v_trigger.trigger_name || '_del', v_trigger.table_name, v_trigger.function_name);
+        END IF;
+    END LOOP;
+END;
+$$;
+
+DROP FUNCTION IF EXISTS trg_refresh_user_profile_doc_user();
+DROP FUNCTION IF EXISTS trg_refresh_user_profile_doc();
+DROP FUNCTION IF EXISTS trg_refresh_user_profile_doc_snapshot_type();
@@ -0,0 +1,17 @@
+-- ================================================
+-- V34__insurance_profile_created_at_backfill.sql
+-- V23 ga alle eksisterende forsikringsprofiler created_at = migreringstidspunktet
+-- (DEFAULT NOW()), så de havnet samlet på ett punkt i tidslinjen.
+-- Radene som fikk verdien av V23 (created_at ikke senere enn da V23 ble registrert)
+-- får i stedet valid_from der den finnes. Nye rader har ekte created_at og berøres ikke.
+-- ================================================
+
+UPDATE res_user_insurance_profile p
+SET created_at = p.valid_from::timestamp
+WHERE p.valid_from IS NOT NULL
+  AND p.created_at <= (
+      SELECT h.installed_on
+      FROM flyway_schema_history h
+      WHERE h.version = '23'
+        AND h.success
+  );
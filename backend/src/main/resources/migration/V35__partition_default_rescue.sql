@@ -0,0 +1,98 @@
+-- ================================================
+-- V35__partition_default_rescue.sql
+-- Månedspartisjon for en måned som allerede har rader i DEFAULT-partisjonen (V27).
+--
+-- Går vedlikeholdsjobben glipp av en måned (feilet, slått av, ingen leder), havner
+-- radene i <parent>_default. Da feiler CREATE TABLE ... PARTITION OF for den måneden,
+-- fordi default-partisjonen ville brutt den nye partisjonens grense, og jobben står fast.
+--
+-- create_monthly_partition flytter nå slike rader: default kobles fra, måneden bygges som
+-- egen tabell med radene, kobles på som partisjon, og default kobles på igjen. Radene
+-- settes inn i en frittstående tabell, så radtriggerne (klient-id, sync) ser ingen ny rad,
+-- og slettingen fra default skjer med restructuring.archiving = 'on' (ingen tombstones,
+-- klient-id-ene beholdes). ensure_monthly_partitions tar også med måneder som bare finnes
+-- i default, så eldre hull tettes.
+-- ================================================
+
+CREATE OR REPLACE FUNCTION create_monthly_partition(p_parent text, p_month date)
+RETURNS boolean
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_from    date := date_trunc('month', p_month)::date;
+    v_to      date := (date_trunc('month', p_month) + INTERVAL '1 month')::date;
+    v_name    text := p_parent || '_p' || to_char(v_from, 'YYYYMM');
+    v_default text := p_parent || '_default';
+    v_stuck   boolean := false;
+    v_moved   bigint;
+BEGIN
+    IF to_regclass(v_name) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+
+    IF to_regclass(v_default) IS NOT NULL THEN
+        EXECUTE format(
+            'SELECT EXISTS (SELECT 1 FROM %I WHERE created_at >= %L AND created_at < %L)',
+            v_default, v_from, v_to
+        ) INTO v_stuck;
+    END IF;
+
+    IF NOT v_stuck THEN
+        EXECUTE format(
+            'CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+            v_name, p_parent, v_from, v_to
+        );
+        RETURN true;
+    END IF;
+
+    EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', p_parent, v_default);
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', v_name, p_parent);
+
+    PERFORM set_config('restructuring.archiving', 'on', true);
+    EXECUTE format(
+        'WITH moved AS (DELETE FROM %I WHERE created_at >= %L AND created_at < %L RETURNING *) '
+            || 'INSERT INTO %I SELECT * FROM moved',
+        v_default, v_from, v_to, v_name
+    );
+    GET DIAGNOSTICS v_moved = ROW_COUNT;
+    PERFORM set_config('restructuring.archiving', 'off', true);
+
+    EXECUTE format(
+        'ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+        p_parent, v_name, v_from, v_to
+    );
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I DEFAULT', p_parent, v_default);
+
+    RAISE WARNING 'Moved % rows for % from % into new partition %', v_moved, v_from, v_default, v_name;
+    RETURN true;
+END;
+$$;
+
+-- Inneværende måned og p_months_ahead frem, pluss måneder som har havnet i default
+CREATE OR REPLACE FUNCTION ensure_monthly_partitions(p_parent text, p_months_ahead int)
+RETURNS int
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_created int := 0;
+    v_default text := p_parent || '_default';
+    v_month   date;
+BEGIN
+    IF to_regclass(v_default) IS NOT NULL THEN
+        FOR v_month IN
+            EXECUTE format('SELECT DISTINCT date_trunc(''month'', created_at)::date FROM %I', v_default)
+        LOOP
+            IF create_monthly_partition(p_parent, v_month) THEN
+                v_created := v_created + 1;
+            END IF;
+        END LOOP;
+    END IF;
+
+    FOR i IN 0..GREATEST(p_months_ahead, 0) LOOP
+        IF create_monthly_partition(p_parent, (date_trunc('month', now()) + make_interval(months => i))::date) THEN
+            v_created := v_created + 1;
+        END IF;
+    END LOOP;
+    RETURN v_created;
+END;
+$$;
@@ -0,0 +1,9 @@
+-- ================================================
+-- V36__user_purge_claim_token.sql
+-- Eierskap til en påbegynt sletting. Hver claim får et nytt token, og alle oppdateringer
+-- fra arbeideren (fremdrift, steg, ferdig, feil) krever at tokenet fortsatt er dets eget.
+-- En node som har mistet leasen (lang GC-pause, treg DELETE) ruller da tilbake biten sin
+-- i stedet for å skrive over fremdriften til noden som har tatt over.
+-- ================================================
+
+ALTER TABLE res_user_purge ADD COLUMN IF NOT EXISTS claim_token VARCHAR(36);
@@ -1,5 +1,13 @@
+-- Id-sekvenser (pooled-lo, se V25): samme navn og INCREMENT som i Postgres
+CREATE SEQUENCE IF NOT EXISTS res_users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS res_user_plans_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS res_journal_entry_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS res_user_insurance_profile_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS res_insurance_snapshot_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS insurance_request_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS res_users (
-    id SERIAL PRIMARY KEY,
+    id BIGINT DEFAULT nextval('res_users_seq') PRIMARY KEY,
     email VARCHAR(255) NOT NULL UNIQUE,
     password VARCHAR(255) NOT NULL,
     first_name VARCHAR(100),
@@ -12,7 +20,7 @@ CREATE TABLE IF NOT EXISTS res_users (
 );
 
 CREATE TABLE IF NOT EXISTS res_user_plans (
-    id SERIAL PRIMARY KEY,
+    id BIGINT DEFAULT nextval('res_user_plans_seq') PRIMARY KEY,
     user_id INTEGER NOT NULL REFERENCES res_users(id) ON DELETE CASCADE,
     phase VARCHAR(50),
     persona VARCHAR(255),
@@ -30,14 +38,104 @@ CREATE TABLE IF NOT EXISTS res_insurance_request (
     created_at TIMESTAMP NOT NULL DEFAULT NOW()
 );
 
+-- Postgres: partisjonert per måned (V27); her en vanlig tabell med samme kolonner
+CREATE TABLE IF NOT EXISTS insurance_request (
+    id BIGINT DEFAULT nextval('insurance_request_seq') PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    first_name VARCHAR(100),
+    last_name VARCHAR(100),
+    ssn VARCHAR(20),
+    phone VARCHAR(30),
+    source VARCHAR(30),
+    products VARCHAR(255),
+    generated_text TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    status VARCHAR(30) NOT NULL,
+    submitted_at TIMESTAMP,
+    xml_content TEXT
+);
+
 CREATE TABLE IF NOT EXISTS res_journal_entry (
-    id SERIAL PRIMARY KEY,
+    id BIGINT DEFAULT nextval('res_journal_entry_seq') PRIMARY KEY,
     user_id INTEGER NOT NULL REFERENCES res_users(id) ON DELETE CASCADE,
     phase INTEGER NOT NULL,
     content TEXT NOT NULL,
-    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    client_id VARCHAR(64)
 );
 
 CREATE INDEX IF NOT EXISTS ix_journal_entry_user_created
     ON res_journal_entry (user_id, created_at DESC);
 
+-- H2 har ikke partielle indekser; flere NULL er likevel tillatt i en unik indeks
+CREATE UNIQUE INDEX IF NOT EXISTS ux_journal_entry_user_client_id
+    ON res_journal_entry (user_id, client_id);
+
+CREATE TABLE IF NOT EXISTS res_user_insurance_profile (
+    id BIGINT DEFAULT nextval('res_user_insurance_profile_seq') PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    source VARCHAR(50) NOT NULL,
+    provider_name VARCHAR(255),
+    product_name VARCHAR(255),
+    notes TEXT,
+    active BOOLEAN DEFAULT TRUE,
+    valid_from DATE,
+    valid_to DATE,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE TABLE IF NOT EXISTS res_insurance_snapshot (
+    id BIGINT DEFAULT nextval('res_insurance_snapshot_seq') PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    source VARCHAR(30) NOT NULL,
+    uncertain BOOLEAN NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+CREATE TABLE IF NOT EXISTS res_insurance_snapshot_types (
+    snapshot_id BIGINT NOT NULL REFERENCES res_insurance_snapshot(id) ON DELETE CASCADE,
+    type VARCHAR(30) NOT NULL
+);
+
+-- Delta-synk (triggere finnes kun i Postgres-migreringen V24)
+CREATE TABLE IF NOT EXISTS res_sync_counter (
+    user_id BIGINT PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0,
+    tombstone_floor BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS res_sync_change (
+    user_id BIGINT NOT NULL,
+    entity_type VARCHAR(30) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    version BIGINT NOT NULL,
+    deleted BOOLEAN NOT NULL DEFAULT FALSE,
+    changed_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (user_id, entity_type, entity_id)
+);
+
+-- Sletting av brukere (V29)
+CREATE TABLE IF NOT EXISTS res_user_purge (
+    user_id BIGINT PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    step VARCHAR(40) NOT NULL,
+    deleted_rows BIGINT NOT NULL DEFAULT 0,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    requested_by BIGINT,
+    requested_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    started_at TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    completed_at TIMESTAMP,
+    lease_until TIMESTAMP,
+    last_error VARCHAR(1000),
+    claim_token VARCHAR(36)
+);
+
+CREATE TABLE IF NOT EXISTS res_audit_event (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_type VARCHAR(50) NOT NULL,
+    subject_id BIGINT,
+    actor_id BIGINT,
+    details TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
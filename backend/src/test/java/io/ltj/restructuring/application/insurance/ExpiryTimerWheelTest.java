@@ -0,0 +1,53 @@
+package io.ltj.restructuring.application.insurance;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpiryTimerWheelTest {
+
+    private static final Instant START = Instant.parse("2026-03-01T10:00:00Z");
+
+    private final ExpiryTimerWheel<String> wheel =
+            new ExpiryTimerWheel<>(Duration.ofMinutes(1), Duration.ofDays(1), START);
+
+    @Test
+    void itemsBecomeDueOnceTheirDeadlinePasses() {
+        wheel.schedule("a", START.plusSeconds(90));
+        wheel.schedule("b", START.plus(Duration.ofHours(13)));
+
+        assertThat(wheel.advance(START.plusSeconds(60))).isEmpty();
+        assertThat(wheel.advance(START.plusSeconds(120))).containsExactly("a");
+        assertThat(wheel.size()).isEqualTo(1);
+
+        assertThat(wheel.advance(START.plus(Duration.ofHours(13)))).containsExactly("b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void pastDeadlineIsDueOnNextTickAndDuplicatesCollapse() {
+        wheel.schedule("late", START.minusSeconds(3600));
+        wheel.schedule("late", START.minusSeconds(3600));
+
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(START.plusSeconds(60))).containsExactly("late");
+    }
+
+    @Test
+    void deadlineBeyondHorizonIsRejected() {
+        assertThat(wheel.schedule("far", START.plus(Duration.ofDays(2)))).isFalse();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void longPauseDrainsEverySlot() {
+        wheel.schedule("x", START.plus(Duration.ofHours(2)));
+        wheel.schedule("y", START.plus(Duration.ofHours(20)));
+
+        assertThat(wheel.advance(START.plus(Duration.ofDays(3)))).containsExactlyInAnyOrder("x", "y");
+        assertThat(wheel.size()).isZero();
+    }
+}
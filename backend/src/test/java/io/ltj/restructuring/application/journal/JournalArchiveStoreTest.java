@@ -0,0 +1,55 @@
+package io.ltj.restructuring.application.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalArchiveStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readAllIsCachedUntilTheSegmentsChange() {
+        JournalArchiveStore store = new JournalArchiveStore(dir, 100);
+        store.append(1L, List.of(entry(1L, 2)));
+
+        List<JournalEntry> first = store.readAll(1L);
+        assertThat(store.readAll(1L)).isSameAs(first);
+
+        store.append(1L, List.of(entry(2L, 1)));
+        assertThat(store.readAll(1L)).extracting(JournalEntry::getId).containsExactly(2L, 1L);
+
+        store.delete(1L);
+        assertThat(store.readAll(1L)).isEmpty();
+    }
+
+    @Test
+    void cacheIsBoundedByEntries() {
+        JournalArchiveStore store = new JournalArchiveStore(dir, 2);
+        store.append(1L, List.of(entry(1L, 1), entry(2L, 2)));
+        store.append(2L, List.of(entry(3L, 1)));
+
+        List<JournalEntry> user1 = store.readAll(1L);
+        store.readAll(2L);
+
+        // Bruker 1 (eldst) er kastet for å få plass til bruker 2
+        List<JournalEntry> reread = store.readAll(1L);
+        assertThat(reread).isNotSameAs(user1);
+        assertThat(reread).extracting(JournalEntry::getId).containsExactly(1L, 2L);
+    }
+
+    private static JournalEntry entry(long id, int daysAgo) {
+        return JournalEntry.builder()
+                .id(id)
+                .userId(1L)
+                .createdAt(LocalDateTime.of(2023, 6, 1, 12, 0).minusDays(daysAgo))
+                .content("innlegg " + id)
+                .build();
+    }
+}
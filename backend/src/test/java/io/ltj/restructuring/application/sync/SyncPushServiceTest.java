@@ -0,0 +1,62 @@
+package io.ltj.restructuring.application.sync;
+
+import io.ltj.restructuring.cache.CacheInvalidation;
+import io.ltj.restructuring.cache.CacheRegions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+
+class SyncPushServiceTest {
+
+    private final SyncPushProperties properties = new SyncPushProperties();
+    private SyncPushService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.destroy();
+        }
+    }
+
+    @Test
+    void replacesOldestStreamWhenUserHasTooMany() {
+        properties.setMaxStreamsPerUser(2);
+        service = new SyncPushService(properties);
+
+        service.open(1L);
+        service.open(1L);
+        service.open(1L);
+        service.open(2L);
+
+        assertThat(service.openStreams()).isEqualTo(3);
+    }
+
+    @Test
+    void rejectsWhenNodeIsFull() {
+        properties.setMaxStreams(1);
+        service = new SyncPushService(properties);
+
+        service.open(1L);
+
+        assertThatThrownBy(() -> service.open(2L)).isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void ignoresUnrelatedRegionsAndUsersWithoutStreams() {
+        service = new SyncPushService(properties);
+        service.open(1L);
+
+        assertThatNoException().isThrownBy(() -> {
+            service.evict(CacheInvalidation.entry(CacheRegions.CATALOG, "all"));
+            service.evict(CacheInvalidation.entry(CacheRegions.JOURNAL, 99L));
+            service.evict(CacheInvalidation.entry(CacheRegions.JOURNAL, "not-a-number"));
+            service.evict(CacheInvalidation.entry(CacheRegions.JOURNAL, 1L));
+            service.evictAll();
+        });
+        assertThat(service.openStreams()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,44 @@
+package io.ltj.restructuring.application.system;
+
+import io.ltj.restructuring.persistence.DatabaseProduct;
+import io.ltj.restructuring.support.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ApproximateRowCounterTest {
+
+    private final MutableClock clock = new MutableClock();
+    private JdbcTemplate jdbc;
+    private ApproximateRowCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:row_count;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbc.execute("CREATE TABLE IF NOT EXISTS res_users (id BIGINT PRIMARY KEY)");
+        jdbc.update("DELETE FROM res_users");
+        jdbc.update("INSERT INTO res_users (id) VALUES (1), (2), (3)");
+        counter = new ApproximateRowCounter(jdbc, new DatabaseProduct(jdbc), clock);
+    }
+
+    @Test
+    void servesCachedCountUntilTtlExpires() {
+        assertThat(counter.count("res_users")).isEqualTo(3);
+
+        jdbc.update("INSERT INTO res_users (id) VALUES (4)");
+        assertThat(counter.count("res_users")).isEqualTo(3);
+
+        clock.advance(ApproximateRowCounter.TTL);
+        assertThat(counter.count("res_users")).isEqualTo(4);
+    }
+
+    @Test
+    void rejectsUnknownTables() {
+        assertThatThrownBy(() -> counter.count("res_users; DROP TABLE res_users"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,127 @@
+package io.ltj.restructuring.application.timeline;
+
+import io.ltj.restructuring.application.journal.JournalArchiveStore;
+import io.ltj.restructuring.application.journal.JournalEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimelineServiceTest {
+
+    private JdbcTemplate jdbc;
+    private TimelineService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(
+                new DriverManagerDataSource("jdbc:h2:mem:timeline;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbc.execute("DROP TABLE IF EXISTS res_journal_entry");
+        jdbc.execute("DROP TABLE IF EXISTS res_insurance_snapshot");
+        jdbc.execute("CREATE TABLE res_journal_entry (id BIGINT PRIMARY KEY, user_id BIGINT, content VARCHAR(4000), created_at TIMESTAMP)");
+        jdbc.execute("CREATE TABLE res_insurance_snapshot (id BIGINT PRIMARY KEY, user_id BIGINT, source VARCHAR(30), created_at TIMESTAMP)");
+
+        // Journal: minutt 1..6, snapshot: minutt 2, 4 (samme tid som journal) og 7. Bruker 2 skal aldri synes.
+        for (int i = 1; i <= 6; i++) {
+            jdbc.update("INSERT INTO res_journal_entry VALUES (?, 1, ?, TIMESTAMP '2024-01-01 10:00:00' + ? MINUTE)",
+                    i, "entry " + i, i);
+        }
+        jdbc.update("INSERT INTO res_journal_entry VALUES (99, 2, 'other user', TIMESTAMP '2024-01-01 10:03:00')");
+        jdbc.update("INSERT INTO res_insurance_snapshot VALUES (1, 1, 'EMPLOYER', TIMESTAMP '2024-01-01 10:02:00')");
+        jdbc.update("INSERT INTO res_insurance_snapshot VALUES (2, 1, 'PRIVATE', TIMESTAMP '2024-01-01 10:04:00')");
+        jdbc.update("INSERT INTO res_insurance_snapshot VALUES (3, 1, 'OTHER', TIMESTAMP '2024-01-01 10:07:00')");
+
+        service = new TimelineService(jdbc, List.of(TimelineSource.JOURNAL, TimelineSource.INSURANCE_SNAPSHOT));
+    }
+
+    @Test
+    void pagesThroughMergedFeedWithoutGapsOrDuplicates() {
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TimelinePageDto page = service.getPage(1L, cursor, 2);
+            page.items().forEach(item -> seen.add(item.type().charAt(0) + String.valueOf(item.id())));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(seen).containsExactly("I3", "J6", "J5", "J4", "I2", "J3", "J2", "I1", "J1");
+        assertThat(pages).isEqualTo(5);
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        TimelinePageDto page = service.getPage(1L, null, 50);
+
+        assertThat(page.items()).hasSize(9);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void rejectsGarbageCursor() {
+        assertThatThrownBy(() -> service.getPage(1L, "not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsCursorWithEpochOutOfRange() {
+        String raw = Long.MAX_VALUE + ":0:0:1";
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> service.getPage(1L, cursor, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void archiveIsNotOpenedForPagesNewerThanItsSegments(@TempDir Path dir) throws Exception {
+        long newest = LocalDateTime.of(2023, 6, 1, 12, 0).toInstant(ZoneOffset.UTC).toEpochMilli();
+        Path userDir = Files.createDirectories(dir.resolve("001").resolve("1"));
+        // Ugyldig innhold: lesing av segmentet ville feilet
+        Files.writeString(userDir.resolve(newest + "_" + (newest - 60_000) + "_1.jseg.gz"), "not gzip");
+        TimelineService withArchive = new TimelineService(
+                jdbc, List.of(TimelineSource.JOURNAL, TimelineSource.INSURANCE_SNAPSHOT), new JournalArchiveStore(dir));
+
+        TimelinePageDto first = withArchive.getPage(1L, null, 9);
+
+        assertThat(first.items()).hasSize(9);
+        assertThat(first.nextCursor()).isNotNull();
+        assertThatThrownBy(() -> withArchive.getPage(1L, first.nextCursor(), 9))
+                .isInstanceOf(UncheckedIOException.class);
+    }
+
+    @Test
+    void archivedEntriesFollowTheTableRows(@TempDir Path dir) {
+        JournalArchiveStore store = new JournalArchiveStore(dir);
+        store.append(1L, List.of(
+                JournalEntry.builder().id(-2L).userId(1L).createdAt(LocalDateTime.of(2023, 1, 2, 8, 0)).content("old 2").build(),
+                JournalEntry.builder().id(-1L).userId(1L).createdAt(LocalDateTime.of(2023, 1, 1, 8, 0)).content("old 1").build()
+        ));
+        TimelineService withArchive = new TimelineService(
+                jdbc, List.of(TimelineSource.JOURNAL, TimelineSource.INSURANCE_SNAPSHOT), store);
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            TimelinePageDto page = withArchive.getPage(1L, cursor, 4);
+            page.items().forEach(item -> seen.add(item.type().charAt(0) + String.valueOf(item.id())));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).containsExactly("I3", "J6", "J5", "J4", "I2", "J3", "J2", "I1", "J1", "J-2", "J-1");
+    }
+}
@@ -0,0 +1,38 @@
+package io.ltj.restructuring.application.user;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTest {
+
+    private final TrigramIndex index = new TrigramIndex(List.of(
+            new TrigramIndex.Document(1, "kari.nordmann@test.no", "Kari", "Nordmann", "USER"),
+            new TrigramIndex.Document(2, "ola@test.no", "Ola", "Hansen", "USER"),
+            new TrigramIndex.Document(3, "nora@test.no", "Nora", "Berg", "ADMIN")
+    ));
+
+    @Test
+    void emailPrefixRanksFirst() {
+        List<TrigramIndex.Hit> hits = index.search("nor", 10);
+
+        assertThat(hits).isNotEmpty();
+        assertThat(hits.get(0).document().id()).isEqualTo(3);
+        assertThat(hits.get(0).score()).isEqualTo(1.0);
+    }
+
+    @Test
+    void toleratesTyposInNames() {
+        List<TrigramIndex.Hit> hits = index.search("nordman", 10);
+
+        assertThat(hits).extracting(hit -> hit.document().id()).first().isEqualTo(1L);
+        assertThat(index.search("hansne", 10)).extracting(hit -> hit.document().id()).containsExactly(2L);
+    }
+
+    @Test
+    void respectsLimit() {
+        assertThat(index.search("test", 2)).hasSize(2);
+    }
+}
@@ -0,0 +1,63 @@
+package io.ltj.restructuring.application.user;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserExportServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private UserExportService service;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:user_export;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("""
+                CREATE TABLE IF NOT EXISTS res_users (
+                    id BIGINT PRIMARY KEY, email VARCHAR(255), first_name VARCHAR(100),
+                    last_name VARCHAR(100), role VARCHAR(30), created_at TIMESTAMP)
+                """);
+        jdbc.update("DELETE FROM res_users");
+        jdbc.update("INSERT INTO res_users VALUES (1, 'a@test.no', 'Ada', 'Lovelace', 'ADMIN', TIMESTAMP '2024-01-02 03:04:05')");
+        jdbc.update("INSERT INTO res_users VALUES (2, 'b@test.no', 'Ola, \"Ole\"', NULL, 'USER', NULL)");
+
+        service = new UserExportService(dataSource, objectMapper);
+    }
+
+    @Test
+    void writesOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = service.exportNdjson(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertThat(second.get("id").asLong()).isEqualTo(2);
+        assertThat(second.get("firstName").asText()).isEqualTo("Ola, \"Ole\"");
+        assertThat(second.get("lastName").isNull()).isTrue();
+    }
+
+    @Test
+    void quotesCsvFieldsWhenNeeded() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.exportCsv(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(lines[0]).isEqualTo("id,email,firstName,lastName,role,createdAt");
+        assertThat(lines[1]).startsWith("1,a@test.no,Ada,Lovelace,ADMIN,");
+        assertThat(lines[2]).isEqualTo("2,b@test.no,\"Ola, \"\"Ole\"\"\",,USER,");
+    }
+}
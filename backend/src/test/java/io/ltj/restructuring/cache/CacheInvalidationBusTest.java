@@ -0,0 +1,97 @@
+package io.ltj.restructuring.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheInvalidationBusTest {
+
+    private final RecordingListener listener = new RecordingListener();
+    private final CacheInvalidationBus bus = new CacheInvalidationBus(List.of(listener));
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void evictsLocallyAndCoalescesPendingForOtherNodes() {
+        bus.attachRemote();
+
+        bus.invalidate(CacheRegions.PLAN, 1L);
+        bus.invalidate(CacheRegions.PLAN, 1L);
+        bus.invalidate(CacheRegions.USER, 2L);
+        bus.invalidate(CacheRegions.CATALOG, "all");
+        bus.invalidateRegion(CacheRegions.CATALOG);
+
+        assertThat(listener.evicted).hasSize(5);
+        assertThat(bus.drainPending()).containsExactly(
+                CacheInvalidation.entry(CacheRegions.PLAN, 1L),
+                CacheInvalidation.entry(CacheRegions.USER, 2L),
+                CacheInvalidation.region(CacheRegions.CATALOG)
+        );
+        assertThat(bus.drainPending()).isEmpty();
+    }
+
+    @Test
+    void waitsForCommitInsideTransaction() {
+        bus.attachRemote();
+        TransactionSynchronizationManager.initSynchronization();
+
+        bus.invalidate(CacheRegions.PLAN, 7L);
+        assertThat(listener.evicted).isEmpty();
+        assertThat(bus.drainPending()).isEmpty();
+
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCommit();
+        }
+        assertThat(listener.evicted).containsExactly(CacheInvalidation.entry(CacheRegions.PLAN, 7L));
+        assertThat(bus.drainPending()).hasSize(1);
+    }
+
+    @Test
+    void payloadsRoundTripAndStayUnderNotifyLimit() {
+        List<CacheInvalidation> many = new ArrayList<>();
+        for (long id = 0; id < 2_000; id++) {
+            many.add(CacheInvalidation.entry(CacheRegions.PLAN, id));
+        }
+        many.add(CacheInvalidation.region(CacheRegions.CATALOG));
+
+        List<String> payloads = PgNotifyInvalidationChannel.payloads("node-1", many);
+
+        assertThat(payloads).hasSizeGreaterThan(1);
+        List<CacheInvalidation> decoded = new ArrayList<>();
+        for (String payload : payloads) {
+            assertThat(payload.length()).isLessThanOrEqualTo(PgNotifyInvalidationChannel.MAX_PAYLOAD_BYTES);
+            String[] lines = payload.split("\n");
+            assertThat(lines[0]).isEqualTo("node-1");
+            for (int i = 1; i < lines.length; i++) {
+                decoded.add(CacheInvalidation.decode(lines[i]));
+            }
+        }
+        assertThat(decoded).isEqualTo(many);
+    }
+
+    private static final class RecordingListener implements CacheInvalidationListener {
+
+        private final List<CacheInvalidation> evicted = new ArrayList<>();
+
+        @Override
+        public void evict(CacheInvalidation invalidation) {
+            evicted.add(invalidation);
+        }
+
+        @Override
+        public void evictAll() {
+            evicted.clear();
+        }
+    }
+}
@@ -29,6 +29,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  *  3) /api/user/me
  *  4) /api/plan/me (opprette / oppdatere plan)
  *  5) /api/plan/me (lese plan)
+ *  6) /api/dashboard (samlet dokument, fullt og med fields)
  */
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -131,6 +132,32 @@ class FullFlowIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.persona").value("DEFAULT"))
                 .andExpect(jsonPath("$.phase").value("PREPARE_CHANGE"));
+
+        // -------------------------------------------------
+        // 6) /api/dashboard
+        // -------------------------------------------------
+        mockMvc.perform(get("/api/dashboard")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.email").value(email))
+                .andExpect(jsonPath("$.plan.phase").value("PREPARE_CHANGE"))
+                .andExpect(jsonPath("$.insurances").isArray())
+                .andExpect(jsonPath("$.loss.losses").isArray())
+                .andExpect(jsonPath("$.journal").isArray())
+                .andExpect(jsonPath("$.errors").doesNotExist());
+
+        mockMvc.perform(get("/api/dashboard")
+                        .param("fields", "plan,journal")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.plan.persona").value("DEFAULT"))
+                .andExpect(jsonPath("$.journal").isArray())
+                .andExpect(jsonPath("$.user").doesNotExist());
+
+        mockMvc.perform(get("/api/dashboard")
+                        .param("fields", "plan,bogus")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -0,0 +1,82 @@
+package io.ltj.restructuring.integration;
+
+import io.ltj.restructuring.api.dto.insurance.UserInsuranceDtos.UserInsuranceResponse;
+import io.ltj.restructuring.application.insurance.InsuranceCoverageExpiredEvent;
+import io.ltj.restructuring.application.insurance.InsuranceExpirySweeper;
+import io.ltj.restructuring.application.insurance.UserInsuranceProfileService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class InsuranceExpiryIntegrationTest {
+
+    @Autowired
+    private InsuranceExpirySweeper sweeper;
+
+    @Autowired
+    private UserInsuranceProfileService profileService;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private long userId;
+
+    @BeforeEach
+    void setup() {
+        userId = jdbc.queryForObject("SELECT id FROM res_users WHERE email = 'test@example.com'", Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.update("DELETE FROM res_user_insurance_profile WHERE user_id = ?", userId);
+    }
+
+    @Test
+    void expiredCoverageIsDeactivatedAndTodaysIsScheduled() {
+        LocalDate today = LocalDate.now(ZoneId.of("Europe/Oslo"));
+        long expired = insert("utløpt", today.minusDays(1));
+        long endsToday = insert("siste dag", today);
+        long openEnded = insert("løpende", null);
+
+        int pendingBefore = sweeper.pending();
+        assertThat(sweeper.sweep()).isEqualTo(1);
+
+        assertThat(jdbc.queryForObject(
+                "SELECT active FROM res_user_insurance_profile WHERE id = ?", Boolean.class, expired)).isFalse();
+        assertThat(events.stream(InsuranceCoverageExpiredEvent.class))
+                .containsExactly(new InsuranceCoverageExpiredEvent(expired, userId, today.minusDays(1)));
+        assertThat(sweeper.pending()).isEqualTo(pendingBefore + 1);
+
+        assertThat(profileService.getActiveForUser(userId))
+                .extracting(UserInsuranceResponse::id)
+                .containsExactly(openEnded, endsToday);
+
+        // Et nytt sveip finner ingenting mer å gjøre
+        assertThat(sweeper.sweep()).isZero();
+    }
+
+    private long insert(String product, LocalDate validTo) {
+        jdbc.update("INSERT INTO res_user_insurance_profile (user_id, source, product_name, valid_to) " +
+                "VALUES (?, 'PRIVATE', ?, ?)", userId, product, validTo);
+        return jdbc.queryForObject(
+                "SELECT id FROM res_user_insurance_profile WHERE user_id = ? AND product_name = ?",
+                Long.class, userId, product);
+    }
+}
@@ -0,0 +1,88 @@
+package io.ltj.restructuring.integration;
+
+import io.ltj.restructuring.application.journal.JournalEntry;
+import io.ltj.restructuring.application.journal.JournalEntryRequest;
+import io.ltj.restructuring.application.journal.JournalService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sekvens-id-er med pooled-lo skal gi JDBC-batching: 120 rader må ikke bli 120 INSERT-er.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class JdbcBatchingIntegrationTest {
+
+    @Autowired
+    private JournalService journalService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private Statistics statistics;
+    private long userId;
+
+    @BeforeEach
+    void setup() {
+        userId = jdbc.queryForObject("SELECT id FROM res_users WHERE email = 'test@example.com'", Long.class);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+        jdbc.update("DELETE FROM res_journal_entry WHERE user_id = ?", userId);
+    }
+
+    @Test
+    void bulkInsertIsBatchedWithPooledSequenceIds() {
+        List<JournalEntryRequest> requests = IntStream.range(0, 120)
+                .mapToObj(i -> {
+                    JournalEntryRequest req = new JournalEntryRequest();
+                    req.setPhase(1);
+                    req.setContent("bulk " + i);
+                    return req;
+                })
+                .toList();
+
+        List<JournalEntry> saved = journalService.addEntries(requests, userId);
+
+        assertThat(saved).extracting(JournalEntry::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(120);
+        // 3 batcher + 3 sekvenskall; med IDENTITY ville det vært 120 statements
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(10);
+    }
+
+    @Test
+    void rawInsertsDoNotCollideWithHibernateBlocks() {
+        JournalEntryRequest req = new JournalEntryRequest();
+        req.setPhase(1);
+        req.setContent("hibernate");
+        journalService.addEntry(req, userId);
+
+        jdbc.update("INSERT INTO res_journal_entry (user_id, phase, content) VALUES (?, 1, 'raw')", userId);
+        journalService.addEntry(req, userId);
+
+        Long rows = jdbc.queryForObject(
+                "SELECT COUNT(DISTINCT id) FROM res_journal_entry WHERE user_id = ?", Long.class, userId);
+        assertThat(rows).isEqualTo(3);
+    }
+}
@@ -0,0 +1,124 @@
+package io.ltj.restructuring.integration;
+
+import io.ltj.restructuring.application.journal.JournalArchiver;
+import io.ltj.restructuring.application.journal.JournalBatchRequest;
+import io.ltj.restructuring.application.journal.JournalBatchResult;
+import io.ltj.restructuring.application.journal.JournalBatchResult.Status;
+import io.ltj.restructuring.application.journal.JournalEntry;
+import io.ltj.restructuring.application.journal.JournalService;
+import io.ltj.restructuring.application.timeline.TimelineItemDto;
+import io.ltj.restructuring.application.timeline.TimelinePageDto;
+import io.ltj.restructuring.application.timeline.TimelineService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "journal.archive.enabled=true")
+@ActiveProfiles("test")
+class JournalArchiveIntegrationTest {
+
+    private static final Path ARCHIVE_DIR = tempDir();
+
+    @DynamicPropertySource
+    static void archiveDirectory(DynamicPropertyRegistry registry) {
+        registry.add("journal.archive.directory", ARCHIVE_DIR::toString);
+    }
+
+    @Autowired
+    private JournalService journalService;
+
+    @Autowired
+    private JournalArchiver journalArchiver;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private long userId;
+
+    @BeforeEach
+    void setup() {
+        userId = jdbc.queryForObject("SELECT id FROM res_users WHERE email = 'test@example.com'", Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.update("DELETE FROM res_journal_entry WHERE user_id = ?", userId);
+    }
+
+    @Test
+    void archivedEntriesMoveOutOfTheTableButStayReadable() {
+        LocalDateTime twoYearsAgo = LocalDateTime.now().minusYears(2).withNano(0);
+        List<JournalBatchResult> created = journalService.syncBatch(List.of(
+                entry("old-1", twoYearsAgo),
+                entry("old-2", twoYearsAgo.plusDays(1)),
+                entry("old-3", twoYearsAgo.plusDays(2)),
+                entry("recent", LocalDateTime.now().minusDays(1).withNano(0))
+        ), userId);
+        List<Long> ids = created.stream().map(JournalBatchResult::id).toList();
+
+        long moved = journalArchiver.archive(LocalDateTime.now().minusYears(1));
+
+        assertThat(moved).isGreaterThanOrEqualTo(3);
+        Integer inTable = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM res_journal_entry WHERE user_id = ?", Integer.class, userId);
+        assertThat(inTable).isEqualTo(1);
+
+        // Journal: nyeste først, arkivet flettet inn
+        assertThat(journalService.getAll(userId)).extracting(JournalEntry::getId)
+                .containsExactly(ids.get(3), ids.get(2), ids.get(1), ids.get(0));
+
+        // Tidslinje: små sider slik at cursoren må krysse fra tabellen inn i arkivet
+        List<Long> journalIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            TimelinePageDto page = timelineService.getPage(userId, cursor, 1);
+            page.items().stream()
+                    .filter(item -> item.type().equals("JOURNAL"))
+                    .map(TimelineItemDto::id)
+                    .forEach(journalIds::add);
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        assertThat(journalIds).containsExactly(ids.get(3), ids.get(2), ids.get(1), ids.get(0));
+
+        // Offline-synk som sendes på nytt gjenkjennes også mot arkivet
+        List<JournalBatchResult> replay = journalService.syncBatch(List.of(entry("old-2", twoYearsAgo.plusDays(1))), userId);
+        assertThat(replay).extracting(JournalBatchResult::status).containsExactly(Status.DUPLICATE);
+        assertThat(replay.get(0).id()).isEqualTo(ids.get(1));
+    }
+
+    private static JournalBatchRequest.Entry entry(String clientId, LocalDateTime createdAt) {
+        JournalBatchRequest.Entry entry = new JournalBatchRequest.Entry();
+        entry.setClientId(clientId);
+        entry.setPhase(2);
+        entry.setContent("innlegg " + clientId);
+        entry.setCreatedAt(createdAt);
+        return entry;
+    }
+
+    private static Path tempDir() {
+        try {
+            return Files.createTempDirectory("journal-archive");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
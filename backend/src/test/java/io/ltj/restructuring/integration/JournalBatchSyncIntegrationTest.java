@@ -0,0 +1,88 @@
+package io.ltj.restructuring.integration;
+
+import io.ltj.restructuring.application.journal.JournalBatchRequest;
+import io.ltj.restructuring.application.journal.JournalBatchResult;
+import io.ltj.restructuring.application.journal.JournalBatchResult.Status;
+import io.ltj.restructuring.application.journal.JournalService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class JournalBatchSyncIntegrationTest {
+
+    @Autowired
+    private JournalService journalService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private long userId;
+
+    @BeforeEach
+    void setup() {
+        userId = jdbc.queryForObject("SELECT id FROM res_users WHERE email = 'test@example.com'", Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.update("DELETE FROM res_journal_entry WHERE user_id = ?", userId);
+    }
+
+    @Test
+    void storesNewEntriesAndReportsDuplicatesAndInvalidInRequestOrder() {
+        LocalDateTime writtenOffline = LocalDateTime.now().minusHours(3).withNano(0);
+        List<JournalBatchRequest.Entry> batch = List.of(
+                entry("a", 1, "første", writtenOffline),
+                entry("b", 9, "feil fase", null),
+                entry("a", 1, "første igjen", null),
+                entry("c", 2, "andre", null)
+        );
+
+        List<JournalBatchResult> results = journalService.syncBatch(batch, userId);
+
+        assertThat(results).extracting(JournalBatchResult::clientId).containsExactly("a", "b", "a", "c");
+        assertThat(results).extracting(JournalBatchResult::status)
+                .containsExactly(Status.CREATED, Status.INVALID, Status.DUPLICATE, Status.CREATED);
+        assertThat(results.get(2).id()).isEqualTo(results.get(0).id());
+        assertThat(results.get(1).error()).contains("phase");
+
+        LocalDateTime stored = jdbc.queryForObject(
+                "SELECT created_at FROM res_journal_entry WHERE id = ?", LocalDateTime.class, results.get(0).id());
+        assertThat(stored).isEqualTo(writtenOffline);
+    }
+
+    @Test
+    void replayingTheSameBatchCreatesNothing() {
+        List<JournalBatchRequest.Entry> batch = List.of(entry("x", 3, "én", null), entry("y", 4, "to", null));
+
+        List<JournalBatchResult> first = journalService.syncBatch(batch, userId);
+        List<JournalBatchResult> replay = journalService.syncBatch(batch, userId);
+
+        assertThat(replay).extracting(JournalBatchResult::status).containsOnly(Status.DUPLICATE);
+        assertThat(replay).extracting(JournalBatchResult::id)
+                .containsExactlyElementsOf(first.stream().map(JournalBatchResult::id).toList());
+        Integer rows = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM res_journal_entry WHERE user_id = ?", Integer.class, userId);
+        assertThat(rows).isEqualTo(2);
+    }
+
+    private static JournalBatchRequest.Entry entry(String clientId, int phase, String content, LocalDateTime createdAt) {
+        JournalBatchRequest.Entry entry = new JournalBatchRequest.Entry();
+        entry.setClientId(clientId);
+        entry.setPhase(phase);
+        entry.setContent(content);
+        entry.setCreatedAt(createdAt);
+        return entry;
+    }
+}
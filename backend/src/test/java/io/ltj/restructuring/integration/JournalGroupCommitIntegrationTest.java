@@ -0,0 +1,118 @@
+package io.ltj.restructuring.integration;
+
+import io.ltj.restructuring.application.journal.JournalEntry;
+import io.ltj.restructuring.application.journal.JournalEntryRequest;
+import io.ltj.restructuring.application.journal.JournalGroupCommitWriter;
+import io.ltj.restructuring.application.journal.JournalService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "journal.group-commit.enabled=true",
+        "journal.group-commit.max-wait=200ms"
+})
+@ActiveProfiles("test")
+class JournalGroupCommitIntegrationTest {
+
+    private static final int WRITERS = 16;
+
+    @Autowired
+    private JournalService journalService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private JournalGroupCommitWriter writer;
+
+    private long userId;
+
+    @AfterEach
+    void tearDown() {
+        jdbc.update("DELETE FROM res_journal_entry WHERE user_id = ?", userId);
+    }
+
+    @Test
+    void concurrentEntriesShareCommitsAndAllBecomeVisible() throws Exception {
+        userId = jdbc.queryForObject("SELECT id FROM res_users WHERE email = 'test@example.com'", Long.class);
+        double commitsBefore = commits();
+
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<JournalEntry>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < WRITERS; i++) {
+                JournalEntryRequest req = new JournalEntryRequest();
+                req.setPhase(2);
+                req.setContent("samtidig " + i);
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return journalService.addEntry(req, userId);
+                }));
+            }
+            start.countDown();
+
+            for (Future<JournalEntry> result : results) {
+                // Returnert = committet: raden må være synlig for en annen forbindelse
+                JournalEntry saved = result.get();
+                Integer visible = jdbc.queryForObject(
+                        "SELECT COUNT(*) FROM res_journal_entry WHERE id = ?", Integer.class, saved.getId());
+                assertThat(visible).isEqualTo(1);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(results.stream().map(this::idOf).distinct()).hasSize(WRITERS);
+        assertThat(commits() - commitsBefore).isLessThan(WRITERS);
+    }
+
+    @Test
+    void entriesAreWrittenDirectlyOnceTheWriterHasStopped() {
+        userId = jdbc.queryForObject("SELECT id FROM res_users WHERE email = 'test@example.com'", Long.class);
+        writer.stop();
+        try {
+            JournalEntry probe = JournalEntry.builder().userId(userId).phase(1).content("probe").build();
+            assertThat(writer.submit(probe)).isNull();
+
+            JournalEntryRequest req = new JournalEntryRequest();
+            req.setPhase(1);
+            req.setContent("etter stopp");
+            JournalEntry saved = journalService.addEntry(req, userId);
+
+            assertThat(jdbc.queryForObject(
+                    "SELECT COUNT(*) FROM res_journal_entry WHERE id = ?", Integer.class, saved.getId())).isEqualTo(1);
+        } finally {
+            writer.start();
+        }
+    }
+
+    private double commits() {
+        return meterRegistry.get("journal.group_commit.commits").functionCounter().count();
+    }
+
+    private Long idOf(Future<JournalEntry> future) {
+        try {
+            return future.get().getId();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
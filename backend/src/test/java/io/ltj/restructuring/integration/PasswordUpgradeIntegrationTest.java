@@ -0,0 +1,76 @@
+package io.ltj.restructuring.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.ltj.restructuring.api.dto.auth.LoginRequestDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "password-hashing.strength=5")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PasswordUpgradeIntegrationTest {
+
+    private static final String PASSWORD = "secret123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @AfterEach
+    void tearDown() {
+        jdbc.update("DELETE FROM res_users WHERE email LIKE 'legacy-hash-%@example.com'");
+    }
+
+    @Test
+    void lowCostLegacyHashIsRehashedWithPrefixAtPolicyCost() throws Exception {
+        String email = "legacy-hash-low@example.com";
+        insertUser(email, new BCryptPasswordEncoder(4).encode(PASSWORD));
+
+        login(email);
+
+        assertThat(storedHash(email)).startsWith("{bcrypt}$2a$05$");
+    }
+
+    @Test
+    void higherCostLegacyHashIsKept() throws Exception {
+        String email = "legacy-hash-high@example.com";
+        String legacy = new BCryptPasswordEncoder(6).encode(PASSWORD);
+        insertUser(email, legacy);
+
+        login(email);
+
+        assertThat(storedHash(email)).isEqualTo(legacy);
+    }
+
+    private void insertUser(String email, String hash) {
+        jdbc.update("INSERT INTO res_users (email, password) VALUES (?, ?)", email, hash);
+    }
+
+    private void login(String email) throws Exception {
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequestDto(email, PASSWORD))))
+                .andExpect(status().isOk());
+    }
+
+    private String storedHash(String email) {
+        return jdbc.queryForObject("SELECT password FROM res_users WHERE email = ?", String.class, email);
+    }
+}
@@ -0,0 +1,108 @@
+package io.ltj.restructuring.integration;
+
+import io.ltj.restructuring.application.sync.SyncChangesDto;
+import io.ltj.restructuring.application.sync.SyncService;
+import io.ltj.restructuring.application.sync.SyncTombstoneDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Delta-synk mot H2. Triggerne fra V24 finnes bare i Postgres, så endringsradene
+ * skrives her direkte slik triggerne ville gjort.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SyncIntegrationTest {
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private long userId;
+    private long firstEntry;
+    private long secondEntry;
+
+    @BeforeEach
+    void setup() {
+        userId = jdbc.queryForObject("SELECT id FROM res_users WHERE email = 'test@example.com'", Long.class);
+        jdbc.update("DELETE FROM res_sync_change WHERE user_id = ?", userId);
+        jdbc.update("DELETE FROM res_sync_counter WHERE user_id = ?", userId);
+        jdbc.update("DELETE FROM res_journal_entry WHERE user_id = ?", userId);
+
+        firstEntry = insertJournal("første");
+        secondEntry = insertJournal("andre");
+
+        change("JOURNAL", firstEntry, 1, false);
+        change("JOURNAL", secondEntry, 2, false);
+        change("JOURNAL", 999_999, 3, true);
+        jdbc.update("INSERT INTO res_sync_counter (user_id, version, tombstone_floor) VALUES (?, 3, 0)", userId);
+    }
+
+    @Test
+    void returnsOnlyChangesAfterSinceWithTombstones() {
+        SyncChangesDto all = syncService.changesSince(userId, 0, 100);
+        assertThat(all.journal()).extracting(e -> e.getId()).containsExactly(firstEntry, secondEntry);
+        assertThat(all.deleted()).containsExactly(new SyncTombstoneDto("JOURNAL", 999_999));
+        assertThat(all.since()).isEqualTo(3);
+        assertThat(all.fullResync()).isFalse();
+
+        SyncChangesDto delta = syncService.changesSince(userId, 1, 100);
+        assertThat(delta.journal()).extracting(e -> e.getId()).containsExactly(secondEntry);
+
+        SyncChangesDto nothing = syncService.changesSince(userId, 3, 100);
+        assertThat(nothing.journal()).isEmpty();
+        assertThat(nothing.deleted()).isEmpty();
+        assertThat(nothing.since()).isEqualTo(3);
+    }
+
+    @Test
+    void pagesWithHasMore() {
+        SyncChangesDto first = syncService.changesSince(userId, 0, 1);
+        assertThat(first.hasMore()).isTrue();
+        assertThat(first.since()).isEqualTo(1);
+
+        SyncChangesDto second = syncService.changesSince(userId, first.since(), 10);
+        assertThat(second.hasMore()).isFalse();
+        assertThat(second.journal()).extracting(e -> e.getId()).containsExactly(secondEntry);
+    }
+
+    @Test
+    void clientBehindTombstoneFloorGetsFullResync() {
+        jdbc.update("UPDATE res_sync_counter SET tombstone_floor = 2 WHERE user_id = ?", userId);
+
+        SyncChangesDto resync = syncService.changesSince(userId, 1, 100);
+
+        assertThat(resync.fullResync()).isTrue();
+        assertThat(resync.journal()).hasSize(2);
+        assertThat(resync.deleted()).isEmpty();
+        assertThat(resync.since()).isEqualTo(3);
+    }
+
+    @Test
+    void entityDeletedAfterChangeRowIsReportedAsTombstone() {
+        jdbc.update("DELETE FROM res_journal_entry WHERE id = ?", secondEntry);
+
+        SyncChangesDto delta = syncService.changesSince(userId, 1, 100);
+
+        assertThat(delta.journal()).isEmpty();
+        assertThat(delta.deleted()).contains(new SyncTombstoneDto("JOURNAL", secondEntry));
+    }
+
+    private long insertJournal(String content) {
+        jdbc.update("INSERT INTO res_journal_entry (user_id, phase, content) VALUES (?, 1, ?)", userId, content);
+        return jdbc.queryForObject("SELECT MAX(id) FROM res_journal_entry WHERE user_id = ?", Long.class, userId);
+    }
+
+    private void change(String type, long id, long version, boolean deleted) {
+        jdbc.update("INSERT INTO res_sync_change (user_id, entity_type, entity_id, version, deleted) VALUES (?, ?, ?, ?, ?)",
+                userId, type, id, version, deleted);
+    }
+}
@@ -0,0 +1,62 @@
+package io.ltj.restructuring.integration;
+
+import io.ltj.restructuring.security.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /api/system/user-profiles gir ut fulle profiler for mange brukere: bare for ADMIN.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserProfilesAccessIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private long userId;
+    private long adminId;
+
+    @BeforeEach
+    void setup() {
+        userId = insertUser("profiles-user@example.com", "USER");
+        adminId = insertUser("profiles-admin@example.com", "ADMIN");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.update("DELETE FROM res_users WHERE email IN ('profiles-user@example.com', 'profiles-admin@example.com')");
+    }
+
+    @Test
+    void userTokenIsForbidden() throws Exception {
+        String token = jwtUtil.generateToken(userId, "profiles-user@example.com", "USER");
+
+        mockMvc.perform(get("/api/system/user-profiles")
+                        .param("ids", String.valueOf(userId), String.valueOf(adminId))
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    private long insertUser(String email, String role) {
+        jdbc.update("INSERT INTO res_users (email, password, role) VALUES (?, 'x', ?)", email, role);
+        return jdbc.queryForObject("SELECT id FROM res_users WHERE email = ?", Long.class, email);
+    }
+}
@@ -0,0 +1,175 @@
+package io.ltj.restructuring.integration;
+
+import io.ltj.restructuring.application.journal.JournalArchiveProperties;
+import io.ltj.restructuring.application.journal.JournalArchiveStore;
+import io.ltj.restructuring.application.journal.JournalEntry;
+import io.ltj.restructuring.application.purge.UserPurgeDto;
+import io.ltj.restructuring.application.purge.UserPurgeService;
+import io.ltj.restructuring.application.purge.UserPurgeStatus;
+import io.ltj.restructuring.application.purge.UserPurgeWorker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        // Ingen bakgrunnsrunder; testen kjører drain() selv
+        "user-purge.enabled=false",
+        "user-purge.chunk-size=10",
+        "user-purge.min-chunk-size=5",
+        "user-purge.pause=0ms"
+})
+@ActiveProfiles("test")
+class UserPurgeIntegrationTest {
+
+    private static final Path ARCHIVE_DIR = tempDir();
+
+    /** Når satt, tar "en annen node" over slettingen mens arkivsteget kjører. */
+    private static final AtomicBoolean TAKE_OVER_DURING_ARCHIVE_STEP = new AtomicBoolean();
+
+    @DynamicPropertySource
+    static void archiveDirectory(DynamicPropertyRegistry registry) {
+        registry.add("journal.archive.directory", ARCHIVE_DIR::toString);
+    }
+
+    @Autowired
+    private UserPurgeService purgeService;
+
+    @Autowired
+    private UserPurgeWorker purgeWorker;
+
+    @Autowired
+    private JournalArchiveStore archiveStore;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private long userId;
+
+    @BeforeEach
+    void setup() {
+        jdbc.update("INSERT INTO res_users (email, password) VALUES ('purge-me@example.com', 'x')");
+        userId = jdbc.queryForObject("SELECT id FROM res_users WHERE email = 'purge-me@example.com'", Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TAKE_OVER_DURING_ARCHIVE_STEP.set(false);
+        jdbc.update("DELETE FROM res_users WHERE id = ?", userId);
+        jdbc.update("DELETE FROM res_user_purge WHERE user_id = ?", userId);
+        jdbc.update("DELETE FROM res_audit_event WHERE subject_id = ?", userId);
+    }
+
+    @Test
+    void deletesEverythingInChunksAndWritesAuditRecord() {
+        for (int i = 0; i < 35; i++) {
+            jdbc.update("INSERT INTO res_journal_entry (user_id, phase, content) VALUES (?, 1, ?)", userId, "innlegg " + i);
+        }
+        jdbc.update("INSERT INTO res_user_plans (user_id, phase) VALUES (?, 'START')", userId);
+        jdbc.update("INSERT INTO res_user_insurance_profile (user_id, source) VALUES (?, 'PRIVATE')", userId);
+        jdbc.update("INSERT INTO res_insurance_snapshot (user_id, source, uncertain) VALUES (?, 'EMPLOYER', FALSE)", userId);
+        jdbc.update("INSERT INTO res_insurance_snapshot_types (snapshot_id, type) " +
+                "SELECT id, 'LIFE' FROM res_insurance_snapshot WHERE user_id = ?", userId);
+        jdbc.update("INSERT INTO res_sync_change (user_id, entity_type, entity_id, version) VALUES (?, 'PLAN', 1, 1)", userId);
+        jdbc.update("INSERT INTO res_sync_counter (user_id, version) VALUES (?, 1)", userId);
+        archiveStore.append(userId, List.of(JournalEntry.builder()
+                .id(-1L).userId(userId).phase(1).content("arkivert").createdAt(LocalDateTime.now().minusYears(2))
+                .build()));
+
+        UserPurgeDto requested = purgeService.request(userId, 42L).orElseThrow();
+        assertThat(requested.status()).isEqualTo(UserPurgeStatus.PENDING);
+        assertThat(purgeService.request(userId, 42L)).contains(requested);
+
+        assertThat(purgeWorker.drain()).isEqualTo(1);
+
+        UserPurgeDto done = purgeService.find(userId).orElseThrow();
+        assertThat(done.status()).isEqualTo(UserPurgeStatus.DONE);
+        // 35 journal + plan + profil + snapshot + sync-endring + sync-teller + brukeren
+        assertThat(done.deletedRows()).isEqualTo(41);
+        assertThat(done.completedAt()).isNotNull();
+
+        for (String table : List.of("res_journal_entry", "res_user_plans", "res_user_insurance_profile",
+                "res_insurance_snapshot", "res_sync_change", "res_sync_counter")) {
+            assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE user_id = ?", Integer.class, userId))
+                    .as(table)
+                    .isZero();
+        }
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM res_users WHERE id = ?", Integer.class, userId)).isZero();
+        assertThat(archiveStore.hasArchive(userId)).isFalse();
+
+        Long actor = jdbc.queryForObject(
+                "SELECT actor_id FROM res_audit_event WHERE event_type = 'USER_PURGED' AND subject_id = ?",
+                Long.class, userId);
+        assertThat(actor).isEqualTo(42L);
+    }
+
+    @Test
+    void purgeHeldByAnotherNodeIsNotClaimed() {
+        purgeService.request(userId, null);
+        jdbc.update("UPDATE res_user_purge SET status = 'RUNNING', lease_until = ? WHERE user_id = ?",
+                LocalDateTime.now().plusDays(1), userId);
+
+        assertThat(purgeWorker.drain()).isZero();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM res_users WHERE id = ?", Integer.class, userId)).isOne();
+    }
+
+    @Test
+    void workerThatLostItsClaimStopsWithoutTouchingProgress() {
+        jdbc.update("INSERT INTO res_user_plans (user_id, phase) VALUES (?, 'START')", userId);
+        purgeService.request(userId, null);
+        TAKE_OVER_DURING_ARCHIVE_STEP.set(true);
+
+        assertThat(purgeWorker.drain()).isZero();
+
+        assertThat(jdbc.queryForObject("SELECT claim_token FROM res_user_purge WHERE user_id = ?", String.class, userId))
+                .isEqualTo("other-node");
+        assertThat(jdbc.queryForObject("SELECT step FROM res_user_purge WHERE user_id = ?", String.class, userId))
+                .isEqualTo("JOURNAL_ARCHIVE");
+        assertThat(purgeService.find(userId).orElseThrow().status()).isEqualTo(UserPurgeStatus.RUNNING);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM res_user_plans WHERE user_id = ?", Integer.class, userId)).isOne();
+    }
+
+    @TestConfiguration
+    static class TakeOverConfig {
+
+        @Bean
+        @Primary
+        JournalArchiveStore takeOverArchiveStore(JournalArchiveProperties properties, JdbcTemplate jdbc) {
+            return new JournalArchiveStore(Path.of(properties.getDirectory())) {
+                @Override
+                public int delete(long userId) {
+                    if (TAKE_OVER_DURING_ARCHIVE_STEP.get()) {
+                        jdbc.update("UPDATE res_user_purge SET claim_token = 'other-node' WHERE user_id = ?", userId);
+                    }
+                    return super.delete(userId);
+                }
+            };
+        }
+    }
+
+    private static Path tempDir() {
+        try {
+            return Files.createTempDirectory("purge-archive");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
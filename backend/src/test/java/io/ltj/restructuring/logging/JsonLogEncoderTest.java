@@ -0,0 +1,95 @@
+package io.ltj.restructuring.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.slf4j.event.KeyValuePair;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonLogEncoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LoggerContext context = new LoggerContext();
+    private final JsonLogEncoder encoder = new JsonLogEncoder();
+
+    JsonLogEncoderTest() {
+        context.setMDCAdapter(new LogbackMDCAdapter());
+    }
+
+    @Test
+    void writesKeyValuesAsTopLevelFields() throws Exception {
+        LoggingEvent event = event(Level.INFO, "User registered");
+        event.addKeyValuePair(new KeyValuePair("userId", 42L));
+        event.addKeyValuePair(new KeyValuePair("email", "a@b.no"));
+
+        JsonNode json = encode(event);
+
+        assertThat(json.get("level").asText()).isEqualTo("INFO");
+        assertThat(json.get("msg").asText()).isEqualTo("User registered");
+        assertThat(json.get("userId").asLong()).isEqualTo(42L);
+        assertThat(json.get("email").asText()).isEqualTo("a@b.no");
+        assertThat(json.get("ts").asText()).endsWith("Z");
+    }
+
+    @Test
+    void escapesControlCharactersAndNestsMaps() throws Exception {
+        Map<String, String> meta = new LinkedHashMap<>();
+        meta.put("path", "/plan");
+        meta.put("note", "line1\nline2 \"quoted\"");
+
+        LoggingEvent event = event(Level.WARN, "tab\there\u0001");
+        event.addKeyValuePair(new KeyValuePair("meta", meta));
+
+        byte[] bytes = encoder.encode(event);
+        String line = new String(bytes, StandardCharsets.UTF_8);
+        assertThat(line).endsWith("}\n");
+        assertThat(line.indexOf('\n')).isEqualTo(line.length() - 1);
+
+        JsonNode json = objectMapper.readTree(bytes);
+        assertThat(json.get("msg").asText()).isEqualTo("tab\there\u0001");
+        assertThat(json.get("meta").get("note").asText()).isEqualTo("line1\nline2 \"quoted\"");
+        assertThat(json.get("meta").get("path").asText()).isEqualTo("/plan");
+    }
+
+    @Test
+    void quotesNonFiniteNumbersAndPrefixesReservedKeys() throws Exception {
+        LoggingEvent event = event(Level.INFO, "Computed");
+        event.addKeyValuePair(new KeyValuePair("ratio", Double.NaN));
+        event.addKeyValuePair(new KeyValuePair("limit", Float.POSITIVE_INFINITY));
+        event.addKeyValuePair(new KeyValuePair("msg", "spoofed"));
+        event.addKeyValuePair(new KeyValuePair("level", "DEBUG"));
+
+        JsonNode json = encode(event);
+
+        assertThat(json.get("ratio").asText()).isEqualTo("NaN");
+        assertThat(json.get("limit").asText()).isEqualTo("Infinity");
+        assertThat(json.get("msg").asText()).isEqualTo("Computed");
+        assertThat(json.get("level").asText()).isEqualTo("INFO");
+        assertThat(json.get("kv_msg").asText()).isEqualTo("spoofed");
+        assertThat(json.get("kv_level").asText()).isEqualTo("DEBUG");
+    }
+
+    private LoggingEvent event(Level level, String message) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLoggerContext(context);
+        event.setLoggerName("test.logger");
+        event.setLevel(level);
+        event.setMessage(message);
+        event.setThreadName("main");
+        event.setTimeStamp(System.currentTimeMillis());
+        return event;
+    }
+
+    private JsonNode encode(LoggingEvent event) throws Exception {
+        return objectMapper.readTree(encoder.encode(event));
+    }
+}
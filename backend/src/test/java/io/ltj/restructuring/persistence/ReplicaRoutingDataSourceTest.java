@@ -0,0 +1,98 @@
+package io.ltj.restructuring.persistence;
+
+import io.ltj.restructuring.security.JwtUserDetails;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final ReadYourWritesGuard guard =
+            new ReadYourWritesGuard(Clock.systemUTC(), Duration.ofMinutes(1), Duration.ofSeconds(30));
+
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+
+        DataSource routing = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, guard));
+        DataSourceTransactionManager txManager = new DataSourceTransactionManager(routing);
+
+        jdbc = new JdbcTemplate(routing);
+        readWrite = new TransactionTemplate(txManager);
+        readOnly = new TransactionTemplate(txManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplica() {
+        assertThat(whoAmI(readOnly)).isEqualTo("replica");
+        assertThat(whoAmI(readWrite)).isEqualTo("primary");
+    }
+
+    @Test
+    void readsStayOnPrimaryAfterOwnWrite() {
+        authenticate(7L);
+        readWrite.executeWithoutResult(status -> jdbc.update("UPDATE marker SET name = name"));
+
+        assertThat(whoAmI(readOnly)).isEqualTo("primary");
+
+        authenticate(8L);
+        assertThat(whoAmI(readOnly)).isEqualTo("replica");
+    }
+
+    @Test
+    void unavailableReplicaFallsBackToPrimary() {
+        guard.markReplicaUnavailable();
+        assertThat(whoAmI(readOnly)).isEqualTo("primary");
+
+        guard.updateLag(Duration.ofMinutes(5));
+        assertThat(whoAmI(readOnly)).isEqualTo("primary");
+
+        guard.updateLag(Duration.ZERO);
+        assertThat(whoAmI(readOnly)).isEqualTo("replica");
+    }
+
+    private String whoAmI(TransactionTemplate transaction) {
+        return transaction.execute(status -> jdbc.queryForObject("SELECT name FROM marker", String.class));
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE IF NOT EXISTS marker (name VARCHAR(20))");
+        template.update("DELETE FROM marker");
+        template.update("INSERT INTO marker (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static void authenticate(Long userId) {
+        JwtUserDetails user = new JwtUserDetails(userId, "user" + userId + "@test.no", List.of());
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
@@ -0,0 +1,95 @@
+package io.ltj.restructuring.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void adminBurstCannotTakeInteractiveCapacity() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 4);
+
+        assertThat(limiter.acquire(RequestPriority.ADMIN)).isPresent();
+        assertThat(limiter.acquire(RequestPriority.ADMIN)).isPresent();
+        assertThat(limiter.acquire(RequestPriority.ADMIN)).isEmpty();
+
+        assertThat(limiter.acquire(RequestPriority.INTERACTIVE)).isPresent();
+        assertThat(limiter.acquire(RequestPriority.INTERACTIVE)).isPresent();
+        assertThat(limiter.getInflight()).isEqualTo(4);
+        assertThat(limiter.getRejected(RequestPriority.ADMIN)).isEqualTo(1);
+    }
+
+    @Test
+    void frontendLogsAreShedWithoutQueueing() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 4);
+
+        assertThat(limiter.acquire(RequestPriority.LOGS)).isPresent();
+        assertThat(limiter.acquire(RequestPriority.LOGS)).isEmpty();
+        assertThat(limiter.getWaiting(RequestPriority.LOGS)).isZero();
+    }
+
+    @Test
+    void queuedInteractiveRequestIsAdmittedOnRelease() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1);
+        AdaptiveConcurrencyLimiter.Permit held = limiter.acquire(RequestPriority.INTERACTIVE).orElseThrow();
+
+        CompletableFuture<Optional<AdaptiveConcurrencyLimiter.Permit>> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire(RequestPriority.INTERACTIVE);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Optional.empty();
+            }
+        });
+
+        while (limiter.getWaiting(RequestPriority.INTERACTIVE) == 0) {
+            Thread.onSpinWait();
+        }
+        held.release();
+
+        assertThat(waiter.get(2, TimeUnit.SECONDS)).isPresent();
+        assertThat(limiter.getInflight()).isEqualTo(1);
+    }
+
+    @Test
+    void loginStormAtAuthShareDoesNotBlockInteractive() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 4);
+        assertThat(limiter.acquire(RequestPriority.AUTH)).isPresent();
+        assertThat(limiter.acquire(RequestPriority.AUTH)).isPresent();
+
+        CompletableFuture<Optional<AdaptiveConcurrencyLimiter.Permit>> queuedAuth = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire(RequestPriority.AUTH);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Optional.empty();
+            }
+        });
+        while (limiter.getWaiting(RequestPriority.AUTH) == 0) {
+            Thread.onSpinWait();
+        }
+
+        long started = System.nanoTime();
+        assertThat(limiter.acquire(RequestPriority.INTERACTIVE)).isPresent();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(500);
+        assertThat(limiter.getWaiting(RequestPriority.AUTH)).isEqualTo(1);
+        assertThat(limiter.getInflight()).isEqualTo(3);
+
+        assertThat(queuedAuth.get(2, TimeUnit.SECONDS)).isEmpty();
+    }
+
+    @Test
+    void failuresShrinkTheLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 16);
+
+        limiter.acquire(RequestPriority.INTERACTIVE).orElseThrow().releaseDropped();
+        limiter.acquire(RequestPriority.INTERACTIVE).orElseThrow().releaseDropped();
+
+        assertThat(limiter.getLimit()).isLessThan(8);
+    }
+}
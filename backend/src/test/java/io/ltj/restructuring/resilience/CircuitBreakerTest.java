@@ -0,0 +1,94 @@
+package io.ltj.restructuring.resilience;
+
+import io.ltj.restructuring.support.MutableClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private final MutableClock clock = new MutableClock();
+
+    private final CircuitBreaker breaker = new CircuitBreaker(
+            "test", clock, 10, 4, 0.5, Duration.ofMillis(500), Duration.ofSeconds(10), 2
+    );
+
+    @Test
+    void opensWhenFailureRateReachesThreshold() {
+        succeed();
+        succeed();
+        fail();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        fail();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void slowCallsCountAsFailures() {
+        for (int i = 0; i < 4; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onSuccess(Duration.ofSeconds(2));
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void halfOpenAdmitsLimitedProbesThenCloses() {
+        openBreaker();
+        clock.advance(Duration.ofSeconds(11));
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        breaker.onSuccess(Duration.ofMillis(5));
+        breaker.onSuccess(Duration.ofMillis(5));
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void failedProbeReopens() {
+        openBreaker();
+        clock.advance(Duration.ofSeconds(11));
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.remainingOpen()).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void retryAfterFollowsTheLongestOpenBreaker() {
+        DatabaseCircuitBreakers breakers = new DatabaseCircuitBreakers(List.of(breaker));
+        assertThat(breakers.retryAfter()).isEqualTo(Duration.ofSeconds(5));
+
+        openBreaker();
+        clock.advance(Duration.ofMillis(2_500));
+
+        assertThat(breakers.retryAfter()).isEqualTo(Duration.ofSeconds(8));
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 4; i++) {
+            fail();
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private void succeed() {
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onSuccess(Duration.ofMillis(5));
+    }
+
+    private void fail() {
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+    }
+}
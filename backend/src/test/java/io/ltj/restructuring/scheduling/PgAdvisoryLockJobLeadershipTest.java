@@ -0,0 +1,72 @@
+package io.ltj.restructuring.scheduling;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two nodes compete for the same job against a real PostgreSQL instance.
+ * Enabled only when -Dit.postgres=true is set.
+ */
+@EnabledIfSystemProperty(named = "it.postgres", matches = "true")
+class PgAdvisoryLockJobLeadershipTest {
+
+    private static final String JOB = "test-job";
+
+    @Test
+    void onlyOneNodeLeadsAndLeadershipMovesWhenItStops() throws InterruptedException {
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:18-alpine")) {
+            try {
+                postgres.start();
+            } catch (RuntimeException ex) {
+                Assumptions.assumeTrue(false, "Docker not reachable: " + ex.getMessage());
+            }
+            Flyway.configure()
+                    .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                    .locations("classpath:migration")
+                    .load()
+                    .migrate();
+            JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                    postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword()));
+
+            PgAdvisoryLockJobLeadership first = node(postgres, jdbc, "node-a");
+            PgAdvisoryLockJobLeadership second = node(postgres, jdbc, "node-b");
+            first.start();
+            second.start();
+            try {
+                assertThat(first.isLeader(JOB)).isTrue();
+                assertThat(second.isLeader(JOB)).isFalse();
+                assertThat(second.leaders())
+                        .singleElement()
+                        .satisfies(leader -> assertThat(leader.nodeId()).isEqualTo("node-a"));
+
+                first.stop();
+
+                long deadline = System.currentTimeMillis() + 5_000;
+                while (!second.isLeader(JOB) && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(50);
+                }
+                assertThat(second.isLeader(JOB)).isTrue();
+                assertThat(second.leaders()).extracting(JobLeaderDto::nodeId).containsExactly("node-b");
+            } finally {
+                first.stop();
+                second.stop();
+            }
+        }
+    }
+
+    private static PgAdvisoryLockJobLeadership node(PostgreSQLContainer<?> postgres, JdbcTemplate jdbc, String nodeId) {
+        JobLeadershipProperties properties = new JobLeadershipProperties();
+        properties.setHeartbeat(Duration.ofMillis(200));
+        return new PgAdvisoryLockJobLeadership(
+                properties, jdbc, postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword(), nodeId);
+    }
+}
@@ -0,0 +1,163 @@
+package io.ltj.restructuring.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginThrottleTest {
+
+    private final AtomicLong now = new AtomicLong(-5_000_000_000L);
+
+    @Test
+    void accountBucketIsSharedAcrossCaseAndRefills() {
+        LoginThrottle throttle = throttle(2, Duration.ofMinutes(1), 100);
+
+        throttle.acquire("Ola@Example.com", "10.0.0.1");
+        throttle.acquire(" ola@example.com", "10.0.0.2");
+        assertThatThrownBy(() -> throttle.acquire("OLA@example.com", "10.0.0.3"))
+                .isInstanceOfSatisfying(LoginThrottledException.class,
+                        ex -> assertThat(ex.getRetryAfter()).isEqualTo(Duration.ofMinutes(1)));
+
+        advance(Duration.ofMinutes(1));
+        assertThatCode(() -> throttle.acquire("ola@example.com", "10.0.0.1")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void failuresPastTheFreeOnesLockOutWithDoublingDelay() {
+        LoginThrottle throttle = throttle(100, Duration.ofSeconds(1), 100);
+
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("kari@example.com", "10.0.0.1");
+            throttle.recordFailure("kari@example.com");
+        }
+        throttle.acquire("kari@example.com", "10.0.0.1");
+        throttle.recordFailure("kari@example.com");   // 4. feil: 1 s
+        assertThatThrownBy(() -> throttle.acquire("kari@example.com", "10.0.0.1"))
+                .isInstanceOfSatisfying(LoginThrottledException.class,
+                        ex -> assertThat(ex.getRetryAfter()).isEqualTo(Duration.ofSeconds(1)));
+
+        advance(Duration.ofSeconds(1));
+        throttle.acquire("kari@example.com", "10.0.0.1");
+        throttle.recordFailure("kari@example.com");   // 5. feil: 2 s
+        assertThatThrownBy(() -> throttle.acquire("kari@example.com", "10.0.0.1"))
+                .isInstanceOfSatisfying(LoginThrottledException.class,
+                        ex -> assertThat(ex.getRetryAfter()).isEqualTo(Duration.ofSeconds(2)));
+
+        throttle.recordSuccess("kari@example.com");
+        assertThatCode(() -> throttle.acquire("kari@example.com", "10.0.0.1")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void ipBucketLimitsAcrossAccounts() {
+        LoginThrottle throttle = throttle(100, Duration.ofSeconds(1), 2);
+
+        throttle.acquire("a@example.com", "10.0.0.9");
+        throttle.acquireForIp("10.0.0.9");
+        assertThatThrownBy(() -> throttle.acquire("b@example.com", "10.0.0.9"))
+                .isInstanceOf(LoginThrottledException.class);
+        assertThatCode(() -> throttle.acquire("b@example.com", "10.0.0.10")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void memoryIsBoundedAndIdleKeysAreForgotten() {
+        LoginThrottleProperties properties = properties(5, Duration.ofMinutes(1), 5);
+        properties.setStripes(1);
+        properties.setMaxEntries(10);
+        LoginThrottle throttle = new LoginThrottle(properties, now::get);
+
+        for (int i = 0; i < 50; i++) {
+            throttle.acquire("user" + i + "@example.com", "10.0." + i + ".1");
+        }
+        assertThat(throttle.size()).isEqualTo(10);
+
+        advance(Duration.ofHours(1));
+        throttle.acquireForIp("10.9.9.9");
+        assertThat(throttle.size()).isEqualTo(1);
+    }
+
+    @Test
+    void fullStripeKeepsLockedOutAccounts() {
+        LoginThrottleProperties properties = properties(5, Duration.ofMinutes(1), 100);
+        properties.setStripes(1);
+        properties.setMaxEntries(10);
+        LoginThrottle throttle = new LoginThrottle(properties, now::get);
+
+        for (int i = 0; i < 4; i++) {
+            throttle.recordFailure("victim@example.com");
+        }
+        // Nye kontoer fyller stripen og skyver "victim" ut som eldst
+        for (int i = 0; i < 50; i++) {
+            throttle.acquire("user" + i + "@example.com", "10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> throttle.acquire("victim@example.com", "10.0.0.1"))
+                .isInstanceOf(LoginThrottledException.class);
+    }
+
+    @Test
+    void lockedOutFloodStaysUnderTheHardCeiling() {
+        LoginThrottleProperties properties = properties(5, Duration.ofMinutes(1), 1000);
+        properties.setStripes(1);
+        properties.setMaxEntries(10);
+        LoginThrottle throttle = new LoginThrottle(properties, now::get);
+
+        for (int i = 0; i < 200; i++) {
+            for (int f = 0; f < 4; f++) {
+                throttle.recordFailure("flood" + i + "@example.com");
+            }
+        }
+
+        assertThat(throttle.size()).isEqualTo(20);
+        // De nyeste lockoutene står fortsatt
+        assertThatThrownBy(() -> throttle.acquire("flood199@example.com", "10.0.0.1"))
+                .isInstanceOf(LoginThrottledException.class);
+    }
+
+    @Test
+    void forwardedForIsIgnoredUnlessTrusted() {
+        LoginThrottle throttle = throttle(1, Duration.ofSeconds(1), 1);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.1.1.1");
+        request.addHeader("X-Forwarded-For", "203.0.113.7");
+
+        assertThat(throttle.clientIp(request)).isEqualTo("10.1.1.1");
+    }
+
+    @Test
+    void clientIpIsTheHopAddedByTheTrustedProxy() {
+        LoginThrottleProperties properties = properties(1, Duration.ofSeconds(1), 1);
+        properties.setTrustForwardedFor(true);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.1.1.1");
+        // Klienten har selv satt "1.2.3.4"; proxyen la til adressen den så
+        request.addHeader("X-Forwarded-For", "1.2.3.4, 203.0.113.7");
+
+        assertThat(new LoginThrottle(properties, now::get).clientIp(request)).isEqualTo("203.0.113.7");
+
+        properties.setTrustedProxies(2);
+        request.removeHeader("X-Forwarded-For");
+        request.addHeader("X-Forwarded-For", "1.2.3.4, 203.0.113.7, 10.2.2.2");
+        assertThat(new LoginThrottle(properties, now::get).clientIp(request)).isEqualTo("203.0.113.7");
+    }
+
+    private LoginThrottle throttle(int accountCapacity, Duration accountRefill, int ipCapacity) {
+        return new LoginThrottle(properties(accountCapacity, accountRefill, ipCapacity), now::get);
+    }
+
+    private static LoginThrottleProperties properties(int accountCapacity, Duration accountRefill, int ipCapacity) {
+        LoginThrottleProperties properties = new LoginThrottleProperties();
+        properties.setAccount(new LoginThrottleProperties.Bucket(accountCapacity, accountRefill));
+        properties.setIp(new LoginThrottleProperties.Bucket(ipCapacity, Duration.ofMinutes(1)));
+        return properties;
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+}
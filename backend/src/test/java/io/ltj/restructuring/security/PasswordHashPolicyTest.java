@@ -0,0 +1,79 @@
+package io.ltj.restructuring.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordHashPolicyTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void benchmarkPicksHighestStrengthWithinTarget() {
+        PasswordHashingProperties properties = properties(0);
+        properties.setTargetVerifyTime(Duration.ofMillis(250));
+        List<Integer> timed = new ArrayList<>();
+
+        // 50 ms på 10 -> 100 ms på 11, 200 ms på 12, 400 ms på 13
+        int strength = PasswordHashPolicy.chooseStrength(properties, s -> {
+            timed.add(s);
+            return 50 * MS;
+        });
+
+        assertThat(strength).isEqualTo(12);
+        assertThat(timed).containsOnly(10);
+    }
+
+    @Test
+    void benchmarkStaysWithinMinAndMax() {
+        PasswordHashingProperties properties = properties(0);
+
+        assertThat(PasswordHashPolicy.chooseStrength(properties, s -> 2_000 * MS)).isEqualTo(10);
+        assertThat(PasswordHashPolicy.chooseStrength(properties, s -> 1)).isEqualTo(14);
+    }
+
+    @Test
+    void configuredStrengthSkipsBenchmark() {
+        PasswordHashPolicy policy = new PasswordHashPolicy(properties(5), s -> {
+            throw new AssertionError("benchmark should not run");
+        });
+
+        assertThat(policy.strength()).isEqualTo(5);
+    }
+
+    @Test
+    void newHashesArePrefixedAndLegacyHashesStillMatch() {
+        PasswordEncoder encoder = new PasswordHashPolicy(properties(5)).encoder();
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertThat(encoder.encode("secret")).startsWith("{bcrypt}$2a$05$");
+        assertThat(encoder.matches("secret", legacy)).isTrue();
+        assertThat(encoder.matches("wrong", legacy)).isFalse();
+    }
+
+    @Test
+    void upgradesUnprefixedAndWeakerHashesButNeverDowngrades() {
+        PasswordEncoder encoder = new PasswordHashPolicy(properties(5)).encoder();
+
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("secret"))).isTrue();
+        assertThat(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        assertThat(encoder.upgradeEncoding(encoder.encode("secret"))).isFalse();
+        assertThat(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(6).encode("secret"))).isFalse();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret"))).isFalse();
+    }
+
+    private static PasswordHashingProperties properties(int strength) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setStrength(strength);
+        properties.setMinStrength(10);
+        properties.setMaxStrength(14);
+        return properties;
+    }
+}
@@ -0,0 +1,88 @@
+package io.ltj.restructuring.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingBulkheadTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private PasswordHashingBulkhead bulkhead;
+
+    @AfterEach
+    void shutdown() {
+        bulkhead.destroy();
+    }
+
+    @Test
+    void rejectsImmediatelyWhenPoolAndQueueAreFull() throws Exception {
+        bulkhead = bulkhead(1, 0, Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> bulkhead.execute("matches", () -> {
+            started.countDown();
+            await(release);
+            return "done";
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        long before = System.nanoTime();
+        assertThatThrownBy(() -> bulkhead.execute("matches", () -> "never"))
+                .isInstanceOf(PasswordHashingBusyException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - before)).isLessThan(Duration.ofSeconds(1));
+
+        release.countDown();
+        assertThat(busy.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+        assertThat(registry.get("auth.hash.rejected").functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("auth.hash.duration").tag("operation", "matches").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void propagatesTaskErrorsAndGivesUpAfterMaxWait() {
+        bulkhead = bulkhead(1, 1, Duration.ofMillis(50));
+
+        assertThatThrownBy(() -> bulkhead.execute("encode", () -> {
+            throw new IllegalArgumentException("bad input");
+        })).isInstanceOf(IllegalArgumentException.class).hasMessage("bad input");
+
+        assertThatThrownBy(() -> bulkhead.execute("encode", () -> {
+            sleep(500);
+            return "slow";
+        })).isInstanceOf(PasswordHashingBusyException.class);
+    }
+
+    private PasswordHashingBulkhead bulkhead(int threads, int queueCapacity, Duration maxWait) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setThreads(threads);
+        properties.setQueueCapacity(queueCapacity);
+        properties.setMaxWait(maxWait);
+        PasswordHashingBulkhead created = new PasswordHashingBulkhead(properties);
+        created.bindTo(registry);
+        return created;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package io.ltj.restructuring.support;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * UTC clock for tests that only moves when {@link #advance(Duration)} is called.
+ */
+public final class MutableClock extends Clock {
+
+    private Instant now;
+
+    public MutableClock() {
+        this(Instant.parse("2024-01-15T10:15:30Z"));
+    }
+
+    public MutableClock(Instant start) {
+        this.now = start;
+    }
+
+    public synchronized void advance(Duration duration) {
+        now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return this;
+    }
+
+    @Override
+    public synchronized Instant instant() {
+        return now;
+    }
+}
@@ -25,6 +25,7 @@ type UsersResponse = {
   limit?: number;
   total?: number;
   hasMore?: boolean;
+  nextAfterId?: number | null;
   users?: Array<Record<string, unknown>>;
   error?: string;
 };
@@ -50,6 +51,9 @@ export default function SystemInfoPage() {
   const [usersLoading, setUsersLoading] = useState(false);
   const [usersError, setUsersError] = useState('');
   const [usersOffset, setUsersOffset] = useState(0);
+  // Keyset-paginering: cursor (afterId) for hver side vi har besøkt
+  const [usersCursors, setUsersCursors] = useState<Array<number | null>>([null]);
+  const [usersNextCursor, setUsersNextCursor] = useState<number | null>(null);
   const [usersLimit, setUsersLimit] = useState(10);
   const [usersTotal, setUsersTotal] = useState(0);
   const [usersHasMore, setUsersHasMore] = useState(false);
@@ -154,8 +158,10 @@ export default function SystemInfoPage() {
     setUsersLoading(true);
     setUsersError('');
     try {
+      const cursor = usersCursors[usersCursors.length - 1];
+      const cursorParam = cursor == null ? '' : `&afterId=${cursor}`;
       const data = await fetchJson<UsersResponse>(
-        `/system/users?offset=${usersOffset}&limit=${usersLimit}`
+        `/system/users?offset=${usersOffset}&limit=${usersLimit}${cursorParam}`
       );
       if (data?.error) {
         setUsersError(String(data.error));
@@ -167,6 +173,7 @@ export default function SystemInfoPage() {
       setUsersLimit(data?.limit ?? usersLimit);
       setUsersTotal(data?.total ?? 0);
       setUsersHasMore(Boolean(data?.hasMore));
+      setUsersNextCursor(data?.nextAfterId ?? null);
     } catch (err) {
       if (isApiError(err) && (err.status === 401 || err.status === 403)) {
         setUsersError('Ingen tilgang til brukerliste.');
@@ -178,7 +185,7 @@ export default function SystemInfoPage() {
     } finally {
       setUsersLoading(false);
     }
-  }, [usersOffset, usersLimit]);
+  }, [usersOffset, usersLimit, usersCursors]);
 
   const fetchUserProfile = useCallback(async () => {
     setUserProfileLoading(true);
@@ -363,15 +370,21 @@ export default function SystemInfoPage() {
           </div>
           <div className="flex flex-wrap items-center gap-3">
             <Button
-              onClick={() => setUsersOffset(Math.max(0, usersOffset - usersLimit))}
+              onClick={() => {
+                setUsersCursors((prev) => (prev.length > 1 ? prev.slice(0, -1) : prev));
+                setUsersOffset(Math.max(0, usersOffset - usersLimit));
+              }}
               disabled={usersOffset === 0}
               variant="secondary"
             >
               Forrige
             </Button>
             <Button
-              onClick={() => setUsersOffset(usersOffset + usersLimit)}
-              disabled={!usersHasMore}
+              onClick={() => {
+                setUsersCursors((prev) => [...prev, usersNextCursor]);
+                setUsersOffset(usersOffset + usersLimit);
+              }}
+              disabled={!usersHasMore || usersNextCursor == null}
               variant="secondary"
             >
               Neste
@@ -381,7 +394,7 @@ export default function SystemInfoPage() {
             </Button>
           </div>
           <div className="mt-3 text-sm text-slate-600">
-            Viser {usersStart}-{usersEnd} av {usersTotal}
+            Viser {usersStart}-{usersEnd} av ca. {usersTotal}
           </div>
           {usersError && <div className="mt-2 text-sm text-red-600">{usersError}</div>}
           <div className="mt-4 overflow-auto rounded-xl border border-slate-200">